@@ -0,0 +1,512 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.beans.KubernetesAdminConfig;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.PatchType;
+import io.github.kubesys.client.beans.TransferStats;
+import io.github.kubesys.client.cores.KubernetesConvertor;
+import io.github.kubesys.client.exceptions.KubernetesConnectionException;
+import io.github.kubesys.client.exceptions.KubernetesUnknownException;
+import io.github.kubesys.client.utils.CompressionUtil;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ReqUtil;
+import io.github.kubesys.client.utils.RequestLimiter;
+import io.github.kubesys.client.utils.SSLUtil;
+
+/**
+ * Non-blocking counterpart of <code>KubernetesClient</code>.
+ *
+ * Each verb returns a <code>CompletableFuture</code> at once, and the response is
+ * handled by a few I/O reactor threads, so hundreds of requests can be in flight
+ * without parking a thread on each of them. The urls and the credentials are
+ * taken from the given <code>KubernetesClient</code>, which must be initialized.
+ *
+ * <pre>
+ * AsyncKubernetesClient async = new AsyncKubernetesClient(client);
+ * async.getResource("Pod", "default", "busybox")
+ *      .thenAccept(pod -&gt; ...);
+ * </pre>
+ *
+ * Failures complete the future exceptionally with the same exceptions
+ * thrown by <code>KubernetesClient</code>, e.g. <code>KubernetesResourceNotFoundException</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class AsyncKubernetesClient implements Closeable {
+
+	public static final Logger m_logger = Logger.getLogger(AsyncKubernetesClient.class.getName());
+
+	/**
+	 * blocking client, it provides the analyzer and the admin config
+	 */
+	protected final KubernetesClient client;
+
+	/**
+	 * connection pool, or null with http/2
+	 */
+	protected final PoolingAsyncClientConnectionManager connectionManager;
+
+	/**
+	 * http client, or null with http/2
+	 */
+	protected final CloseableHttpAsyncClient httpClient;
+
+	/**
+	 * http/2 connections shared with the blocking client, or null
+	 */
+	protected final Http2Transport transport;
+
+	/**
+	 * @param client an initialized client
+	 * @throws KubernetesConnectionException the certificates are invalid
+	 */
+	public AsyncKubernetesClient(KubernetesClient client) throws KubernetesConnectionException {
+		super();
+		this.client = client;
+		this.transport = client.getHttp2Transport();
+		if (transport != null) {
+			this.connectionManager = null;
+			this.httpClient = null;
+			return;
+		}
+		try {
+			this.connectionManager = createConnectionManager(
+							client.getKubernetesAdminConfig(), client.getOptions());
+		} catch (Exception ex) {
+			throw new KubernetesConnectionException(ex.toString());
+		}
+		this.httpClient = createDefaultHttpClient(connectionManager, client.getOptions());
+		this.httpClient.start();
+	}
+
+	/**********************************************************
+	 *
+	 * HttpClient
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param kac     kac
+	 * @param options options
+	 * @return connection pool
+	 * @throws Exception Exception
+	 */
+	protected PoolingAsyncClientConnectionManager createConnectionManager(KubernetesAdminConfig kac, KubernetesClientOptions options) throws Exception {
+		return PoolingAsyncClientConnectionManagerBuilder.create()
+				.setTlsStrategy(SSLUtil.createTlsStrategy(kac.keyManagers(), kac.trustManagers()))
+				.setMaxConnTotal(options.getMaxTotal())
+				.setMaxConnPerRoute(options.getMaxPerRoute())
+				.setDefaultConnectionConfig(ConnectionConfig.custom()
+						.setConnectTimeout(options.getConnectTimeout())
+						.setSocketTimeout(options.getSocketTimeout())
+						.setValidateAfterInactivity(options.getValidateAfterInactivity())
+						.setTimeToLive(options.getTimeToLive())
+						.build())
+				.setDefaultTlsConfig(TlsConfig.custom()
+						.setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+						.build())
+				.build();
+	}
+
+	/**
+	 * @param connManager connection pool
+	 * @param options     options
+	 * @return http client, it is not started
+	 */
+	protected CloseableHttpAsyncClient createDefaultHttpClient(PoolingAsyncClientConnectionManager connManager, KubernetesClientOptions options) {
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectionRequestTimeout(options.getConnectionRequestTimeout())
+				.setResponseTimeout(options.getResponseTimeout())
+				.setConnectionKeepAlive(options.getKeepAlive())
+				.build();
+
+		return HttpAsyncClients.custom()
+				.setDefaultRequestConfig(requestConfig)
+				.setConnectionManager(connManager)
+				.setRetryStrategy(KubernetesClient.createRetryStrategy(options))
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				.build();
+	}
+
+	/**
+	 * @param request request
+	 * @return future, it fails with the exception mapped from the status code
+	 */
+	public CompletableFuture<JsonNode> execute(SimpleHttpRequest request) {
+		CompletableFuture<JsonNode> future = new CompletableFuture<>();
+		if (client.getOptions().isCompression() && Method.GET.isSame(request.getMethod())
+				&& !request.containsHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING)) {
+			request.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING, 
+							KubernetesConstants.HTTP_ACCEPT_ENCODING_COMPRESSED);
+		}
+		client.getApplyCache().invalidate(request.getMethod(), request.getRequestUri());
+		send(request, future, 0, 0);
+		return future;
+	}
+
+	/**
+	 * sends the request once the rate limits of the client allow it, without blocking 
+	 * the caller, and sends it again after Retry-After if it is throttled (429), or the 
+	 * api-server is unavailable (503) and the request is idempotent
+	 * 
+	 * @param request request
+	 * @param future  future
+	 * @param retries retries
+	 * @param delay   nanoseconds to wait before the rate limits
+	 */
+	protected void send(SimpleHttpRequest request, CompletableFuture<JsonNode> future, int retries, long delay) {
+		FutureCallback<SimpleHttpResponse> callback = new FutureCallback<SimpleHttpResponse>() {
+
+			@Override
+			public void completed(SimpleHttpResponse response) {
+				long wait = retries >= client.getOptions().getMaxRetries() ? -1 
+								: RequestLimiter.retryAfter(response.getCode(), request.getMethod(), 
+									response.containsHeader(HttpHeaders.RETRY_AFTER) 
+										? response.getFirstHeader(HttpHeaders.RETRY_AFTER).getValue() : null,
+									client.getOptions().getRetryInterval().toNanoseconds());
+				if (wait >= 0) {
+					m_logger.warning(request.getMethod() + " " + request.getRequestUri() + " returns " 
+									+ response.getCode() + ", retry " + (retries + 1));
+					send(request, future, retries + 1, wait);
+					return;
+				}
+				try {
+					future.complete(parseResponse(decompress(request, response)));
+				} catch (Exception ex) {
+					future.completeExceptionally(ex);
+				}
+			}
+
+			@Override
+			public void failed(Exception ex) {
+				future.completeExceptionally(ex);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel(false);
+			}
+		};
+		Runnable dispatch = () -> {
+			long wait = client.getRequestLimiter().reserve(request.getMethod(), request.getRequestUri());
+			Runnable execute = () -> {
+				if (transport != null) {
+					transport.execute(request, null, callback);
+				} else {
+					httpClient.execute(request, callback);
+				}
+			};
+			if (wait > 0) {
+				CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(execute);
+			} else {
+				execute.run();
+			}
+		};
+		if (delay > 0) {
+			CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(dispatch);
+		} else {
+			dispatch.run();
+		}
+	}
+
+	/**
+	 * the async client does not decompress bodies, and they are already buffered,
+	 * so they are decompressed at once
+	 * 
+	 * @param request  request
+	 * @param response response
+	 * @return response with a decompressed body
+	 * @throws IOException the body is broken
+	 */
+	protected SimpleHttpResponse decompress(SimpleHttpRequest request, SimpleHttpResponse response) throws IOException {
+		Header header = response.getFirstHeader(KubernetesConstants.HTTP_HEADER_CONTENT_ENCODING);
+		String encoding = CompressionUtil.encoding(header == null ? null : header.getValue());
+		byte[] body = response.getBodyBytes();
+		byte[] decoded = CompressionUtil.decompress(body, encoding);
+		if (encoding != null) {
+			response.setBody(decoded, response.getContentType());
+			response.removeHeaders(KubernetesConstants.HTTP_HEADER_CONTENT_ENCODING);
+		}
+		TransferStats.Listener listener = client.getOptions().getTransferListener();
+		if (listener != null) {
+			listener.onTransfer(new TransferStats(request.getMethod(), request.getRequestUri(), encoding, 
+							body == null ? 0 : body.length, decoded == null ? 0 : decoded.length));
+		}
+		return response;
+	}
+
+	/**
+	 * @param response response
+	 * @return json
+	 */
+	protected JsonNode parseResponse(SimpleHttpResponse response) {
+		byte[] body = response.getBodyBytes();
+		switch (response.getCode()) {
+		case 200:
+		case 201:
+			try {
+				return JsonSupport.readTree(body);
+			} catch (Exception e) {
+				throw new KubernetesUnknownException(e.toString());
+			}
+		default:
+			throw KubernetesClient.toException(response.getCode(),
+					body == null ? "" : new String(body, StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * @param method method
+	 * @param uri    uri
+	 * @param body   body, or null
+	 * @return future
+	 */
+	protected CompletableFuture<JsonNode> execute(Method method, String uri, String body) {
+		return execute(method, uri, body, null);
+	}
+
+	/**
+	 * @param method method
+	 * @param uri    uri
+	 * @param body   body, or null
+	 * @param type   patch format of the body, or null for json
+	 * @return future
+	 */
+	protected CompletableFuture<JsonNode> execute(Method method, String uri, String body, PatchType type) {
+		try {
+			return execute(ReqUtil.async(method, client.getKubernetesAdminConfig(), uri, body,
+							type == null ? ContentType.APPLICATION_JSON 
+									: ContentType.create(type.getContentType(), StandardCharsets.UTF_8)));
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @return leased, pending, available and max connections of the pool,
+	 *         or null with http/2, see <code>Http2Transport.getActiveStreams</code>
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager == null ? null : connectionManager.getTotalStats();
+	}
+
+	/**
+	 * @return the blocking client
+	 */
+	public KubernetesClient getClient() {
+		return client;
+	}
+
+	/**
+	 * the http/2 connections are closed by the blocking client
+	 */
+	@Override
+	public void close() {
+		if (httpClient != null) {
+			httpClient.close(CloseMode.GRACEFUL);
+		}
+	}
+
+	/**********************************************************
+	 *
+	 * Core
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param json json object, which must meet the Kubernetes' specification
+	 * @return future of the created object
+	 */
+	public CompletableFuture<JsonNode> createResource(JsonNode json) {
+		try {
+			return execute(Method.POST, convertor().createUrl(json), json.toString());
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param json json object, which must meet the Kubernetes' specification
+	 * @return future of the updated object
+	 */
+	public CompletableFuture<JsonNode> updateResource(JsonNode json) {
+		try {
+			KubernetesConvertor convertor = convertor();
+			String uri = convertor.updateUrl(convertor.fullkind(json),
+							convertor.namespace(json), convertor.name(json));
+			if (json.has(KubernetesConstants.KUBE_STATUS)) {
+				((ObjectNode) json).remove(KubernetesConstants.KUBE_STATUS);
+			}
+			return execute(Method.PUT, uri, json.toString());
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param json json object, which must meet the Kubernetes' specification
+	 * @return future of the updated object
+	 */
+	public CompletableFuture<JsonNode> updateResourceStatus(JsonNode json) {
+		try {
+			KubernetesConvertor convertor = convertor();
+			String uri = convertor.updateStatusUrl(convertor.kind(json),
+							convertor.namespace(json), convertor.name(json));
+			return execute(Method.PUT, uri, json.toString());
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch
+	 * @return future of the patched object
+	 */
+	public CompletableFuture<JsonNode> patchResource(String fullkind, String namespace, String name, 
+						PatchType type, JsonNode patch) {
+		try {
+			return execute(Method.PATCH, convertor().updateUrl(fullkind, namespace, name), patch.toString(), type);
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch
+	 * @return future of the patched object
+	 */
+	public CompletableFuture<JsonNode> patchResourceStatus(String fullkind, String namespace, String name, 
+						PatchType type, JsonNode patch) {
+		try {
+			return execute(Method.PATCH, convertor().updateStatusUrl(fullkind, namespace, name), patch.toString(), type);
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param json json object, which must meet the Kubernetes' specification
+	 * @return future of the deleted object
+	 */
+	public CompletableFuture<JsonNode> deleteResource(JsonNode json) {
+		try {
+			KubernetesConvertor convertor = convertor();
+			return deleteResource(convertor.fullkind(json),
+							convertor.namespace(json), convertor.name(json));
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" means all-namespaces
+	 * @param name      name
+	 * @return future of the deleted object
+	 */
+	public CompletableFuture<JsonNode> deleteResource(String fullkind, String namespace, String name) {
+		try {
+			return execute(Method.DELETE, convertor().deleteUrl(fullkind, namespace, name), null);
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" means all-namespaces
+	 * @param name      name
+	 * @return future of the object
+	 */
+	public CompletableFuture<JsonNode> getResource(String fullkind, String namespace, String name) {
+		try {
+			return execute(Method.GET, convertor().getUrl(fullkind, namespace, name), null);
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @param fullkind kind or fullkind
+	 * @return future of the list
+	 */
+	public CompletableFuture<JsonNode> listResources(String fullkind) {
+		return listResources(fullkind, KubernetesConstants.VALUE_ALL_NAMESPACES);
+	}
+
+	/**
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" means all-namespaces
+	 * @return future of the list
+	 */
+	public CompletableFuture<JsonNode> listResources(String fullkind, String namespace) {
+		try {
+			return execute(Method.GET, convertor().listUrl(fullkind, namespace)
+							+ KubernetesConstants.HTTP_QUERY_KIND + fullkind, null);
+		} catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * @return convertor
+	 */
+	protected KubernetesConvertor convertor() {
+		return client.getAnalyzer().getConvertor();
+	}
+}
@@ -0,0 +1,386 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.beans.BulkResult;
+import io.github.kubesys.client.beans.BulkResult.Item;
+import io.github.kubesys.client.beans.BulkResult.Status;
+import io.github.kubesys.client.cores.KubernetesConvertor;
+import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
+import io.github.kubesys.client.exceptions.KubernetesResourceNotFoundException;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ManifestReader;
+
+/**
+ * Creates, updates, applies or deletes a batch of resources, such as the
+ * manifests of an application.
+ *
+ * The resources are run tier by tier, see <code>TIERS</code>, so namespaces and
+ * CRDs exist before the resources inside them, and deleting goes the other way.
+ * In a tier, all kinds run at the same time, and the resources of a kind run on
+ * at most <code>parallelism</code> threads of <code>KubernetesClient.getExecutor()</code>.
+ * With http/1.1 the requests in flight are limited by <code>maxPerRoute</code> of the
+ * pool as well.
+ *
+ * A failed resource does not stop the others, it is reported in <code>BulkResult</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class BulkOperations {
+
+	public static final Logger m_logger = Logger.getLogger(BulkOperations.class.getName());
+
+	/**
+	 * kinds which others depend on, the first tier is created first,
+	 * other kinds are in the last tier
+	 */
+	static final List<List<String>> TIERS = Arrays.asList(
+			Arrays.asList("Namespace", "CustomResourceDefinition", "PriorityClass", "StorageClass"),
+			Arrays.asList("ServiceAccount", "Secret", "ConfigMap", "ResourceQuota", "LimitRange",
+						"NetworkPolicy", "PersistentVolume", "PersistentVolumeClaim",
+						"ClusterRole", "ClusterRoleBinding", "Role", "RoleBinding"),
+			Arrays.asList("Service"));
+
+	/**
+	 * operations
+	 */
+	protected enum Operation {
+		CREATE, UPDATE, APPLY, DELETE
+	}
+
+	/**
+	 * client
+	 */
+	protected final KubernetesClient client;
+
+	/**
+	 * threads of each kind, unless it is set for the kind
+	 */
+	protected volatile int parallelism = 4;
+
+	/**
+	 * threads of the kinds, by kind or fullkind
+	 */
+	protected final Map<String, Integer> kindParallelism = new ConcurrentHashMap<>();
+
+	/**
+	 * @param client client
+	 */
+	public BulkOperations(KubernetesClient client) {
+		super();
+		this.client = client;
+	}
+
+	/**
+	 * @param parallelism threads of each kind, 4 by default
+	 * @return this
+	 */
+	public BulkOperations withParallelism(int parallelism) {
+		this.parallelism = requirePositive(parallelism);
+		return this;
+	}
+
+	/**
+	 * @param kind        kind or fullkind, such as Pod or apps.Deployment
+	 * @param parallelism threads of the kind
+	 * @return this
+	 */
+	public BulkOperations withParallelism(String kind, int parallelism) {
+		this.kindParallelism.put(kind, requirePositive(parallelism));
+		return this;
+	}
+
+	static int requirePositive(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("parallelism must be positive: " + value);
+		}
+		return value;
+	}
+
+	/**********************************************************
+	 *
+	 * Inputs
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param manifests yaml documents separated by <code>---</code>, or json,
+	 *                  each one can be a resource, an array or a List kind
+	 * @return resources
+	 * @throws Exception the manifests are invalid
+	 */
+	public static List<JsonNode> resources(String manifests) throws Exception {
+		List<JsonNode> resources = new ArrayList<>();
+		for (JsonNode document : JsonSupport.readYamlDocuments(manifests)) {
+			resources.addAll(resources(document));
+		}
+		return resources;
+	}
+
+	/**
+	 * @param is yaml or json stream, see <code>ManifestReader</code>, it is closed
+	 * @return resources
+	 * @throws Exception the manifests are invalid
+	 */
+	public static List<JsonNode> resources(InputStream is) throws Exception {
+		try (ManifestReader reader = new ManifestReader(is)) {
+			List<JsonNode> resources = new ArrayList<>();
+			reader.forEachRemaining(resources::add);
+			return resources;
+		}
+	}
+
+	/**
+	 * @param json a resource, an array or a List kind, such as ConfigMapList
+	 * @return resources
+	 */
+	public static List<JsonNode> resources(JsonNode json) {
+		return ManifestReader.expand(json);
+	}
+
+	/**********************************************************
+	 *
+	 * Operations
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param manifests see <code>resources(String)</code>
+	 * @return report
+	 * @throws Exception the manifests are invalid
+	 */
+	public BulkResult createResources(String manifests) throws Exception {
+		return createResources(resources(manifests));
+	}
+
+	/**
+	 * @param resources resources
+	 * @return report, an existing resource is failed
+	 */
+	public BulkResult createResources(List<JsonNode> resources) {
+		return run(resources, Operation.CREATE);
+	}
+
+	/**
+	 * @param manifests see <code>resources(String)</code>
+	 * @return report
+	 * @throws Exception the manifests are invalid
+	 */
+	public BulkResult updateResources(String manifests) throws Exception {
+		return updateResources(resources(manifests));
+	}
+
+	/**
+	 * @param resources resources
+	 * @return report, a resource which does not exist is failed
+	 */
+	public BulkResult updateResources(List<JsonNode> resources) {
+		return run(resources, Operation.UPDATE);
+	}
+
+	/**
+	 * @param manifests see <code>resources(String)</code>
+	 * @return report
+	 * @throws Exception the manifests are invalid
+	 */
+	public BulkResult applyResources(String manifests) throws Exception {
+		return applyResources(resources(manifests));
+	}
+
+	/**
+	 * creates the resources, and updates the ones which already exist
+	 *
+	 * @param resources resources
+	 * @return report
+	 */
+	public BulkResult applyResources(List<JsonNode> resources) {
+		return run(resources, Operation.APPLY);
+	}
+
+	/**
+	 * @param manifests see <code>resources(String)</code>
+	 * @return report
+	 * @throws Exception the manifests are invalid
+	 */
+	public BulkResult deleteResources(String manifests) throws Exception {
+		return deleteResources(resources(manifests));
+	}
+
+	/**
+	 * deletes the resources in the reverse order of tiers
+	 *
+	 * @param resources resources
+	 * @return report, a resource which does not exist is <code>NOT_FOUND</code>
+	 */
+	public BulkResult deleteResources(List<JsonNode> resources) {
+		return run(resources, Operation.DELETE);
+	}
+
+	/**********************************************************
+	 *
+	 * Execution
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param kind kind
+	 * @return tier
+	 */
+	static int tier(String kind) {
+		for (int i = 0; i < TIERS.size(); i++) {
+			if (TIERS.get(i).contains(kind)) {
+				return i;
+			}
+		}
+		return TIERS.size();
+	}
+
+	/**
+	 * @param fullkind fullkind
+	 * @param kind     kind
+	 * @return threads of the kind
+	 */
+	protected int parallelism(String fullkind, String kind) {
+		Integer value = kindParallelism.get(fullkind);
+		if (value == null) {
+			value = kindParallelism.get(kind);
+		}
+		return value == null ? parallelism : value;
+	}
+
+	/**
+	 * @param resources resources
+	 * @param operation operation
+	 * @return report
+	 */
+	protected BulkResult run(List<JsonNode> resources, Operation operation) {
+		KubernetesConvertor convertor = client.getAnalyzer().getConvertor();
+		Item[] items = new Item[resources.size()];
+
+		// tier, fullkind, positions of the resources
+		NavigableMap<Integer, Map<String, Queue<Integer>>> plan = new TreeMap<>();
+		Map<String, String> kinds = new LinkedHashMap<>();
+		for (int i = 0; i < items.length; i++) {
+			JsonNode json = resources.get(i);
+			try {
+				String kind = convertor.kind(json);
+				String fullkind = convertor.fullkind(json);
+				kinds.put(fullkind, kind);
+				plan.computeIfAbsent(tier(kind), k -> new LinkedHashMap<>())
+						.computeIfAbsent(fullkind, k -> new ConcurrentLinkedQueue<>()).add(i);
+			} catch (RuntimeException ex) {
+				items[i] = new Item(i, null, null, null, Status.FAILED, null,
+								new IllegalArgumentException("invalid resource: " + json, ex));
+			}
+		}
+
+		for (Map<String, Queue<Integer>> tier : (operation == Operation.DELETE
+						? plan.descendingMap() : plan).values()) {
+			List<CompletableFuture<Void>> lanes = new ArrayList<>();
+			for (Map.Entry<String, Queue<Integer>> entry : tier.entrySet()) {
+				Queue<Integer> queue = entry.getValue();
+				int threads = Math.min(parallelism(entry.getKey(), kinds.get(entry.getKey())), queue.size());
+				for (int t = 0; t < threads; t++) {
+					lanes.add(client.submit(() -> {
+						Integer i;
+						while ((i = queue.poll()) != null) {
+							items[i] = execute(i, resources.get(i), operation);
+						}
+						return null;
+					}));
+				}
+			}
+			// the next tier may depend on this one
+			CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0])).join();
+		}
+		return new BulkResult(Arrays.asList(items));
+	}
+
+	/**
+	 * @param index     position in the input
+	 * @param json      resource
+	 * @param operation operation
+	 * @return result of the resource
+	 */
+	protected Item execute(int index, JsonNode json, Operation operation) {
+		KubernetesConvertor convertor = client.getAnalyzer().getConvertor();
+		String fullkind = convertor.fullkind(json);
+		String namespace = json.path(KubernetesConstants.KUBE_METADATA)
+						.path(KubernetesConstants.KUBE_METADATA_NAMESPACE).asText("");
+		String name = null;
+		try {
+			name = convertor.name(json);
+			switch (operation) {
+			case CREATE:
+				return new Item(index, fullkind, namespace, name, Status.CREATED, client.createResource(json), null);
+			case UPDATE:
+				return new Item(index, fullkind, namespace, name, Status.UPDATED, client.updateResource(json), null);
+			case APPLY:
+				try {
+					return new Item(index, fullkind, namespace, name, Status.CREATED, client.createResource(json), null);
+				} catch (KubernetesConflictResourceException ex) {
+					return new Item(index, fullkind, namespace, name, Status.UPDATED, update(json), null);
+				}
+			default:
+				try {
+					return new Item(index, fullkind, namespace, name, Status.DELETED, client.deleteResource(json), null);
+				} catch (KubernetesResourceNotFoundException ex) {
+					return new Item(index, fullkind, namespace, name, Status.NOT_FOUND, null, null);
+				}
+			}
+		} catch (Exception ex) {
+			m_logger.warning(operation + " " + fullkind + " " + name + ": " + ex);
+			return new Item(index, fullkind, namespace, name, Status.FAILED, null, ex);
+		}
+	}
+
+	/**
+	 * updates an existing resource with the resourceVersion of the api-server
+	 *
+	 * @param json resource, it is not changed
+	 * @return updated resource
+	 * @throws Exception see <code>KubernetesClient.getResponse</code>
+	 */
+	protected JsonNode update(JsonNode json) throws Exception {
+		KubernetesConvertor convertor = client.getAnalyzer().getConvertor();
+		JsonNode current = client.getResourceByNamespaceAndName(convertor.fullkind(json),
+						convertor.namespace(json), convertor.name(json));
+		ObjectNode desired = json.deepCopy();
+		((ObjectNode) desired.get(KubernetesConstants.KUBE_METADATA)).set(
+						KubernetesConstants.KUBE_METADATA_RESOURCEVERSION,
+						current.get(KubernetesConstants.KUBE_METADATA).get(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION));
+		return client.updateResource(desired);
+	}
+}
@@ -0,0 +1,685 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.BasicHttpEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequesterBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+
+import io.github.kubesys.client.beans.KubernetesAdminConfig;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.utils.SSLUtil;
+
+/**
+ * Multiplexes requests and watch streams over a few http/2 connections, see
+ * <code>KubernetesClientOptions.withHttp2</code>.
+ *
+ * Each connection is an <code>H2MultiplexingRequester</code>, which keeps one
+ * connection for each api-server. A request is sent on the connection with the most free streams,
+ * and it waits for a free stream if all connections have
+ * <code>maxConcurrentStreams</code> streams in flight. Watches hold their
+ * streams until they are closed, so at most <code>maxWatches</code> streams
+ * are used by watches, and the others are left to requests.
+ *
+ * Blocking callers get a <code>ClassicHttpResponse</code> whose body is read while
+ * it arrives. Each stream has its own flow control window, which is only opened
+ * again when the body is read, so a slow watch handler stops its own stream
+ * without stopping the others. The response timeout applies to each stream as well,
+ * since the socket timeout would close all streams of the connection.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class Http2Transport implements Closeable {
+
+	public static final Logger m_logger = Logger.getLogger(Http2Transport.class.getName());
+
+	/**
+	 * connection-specific headers, they are illegal in http/2
+	 */
+	static final String[] HOP_BY_HOP_HEADERS = {"Connection", "Keep-Alive", 
+					"Proxy-Connection", "Transfer-Encoding", "Upgrade"};
+
+	/**
+	 * connections
+	 */
+	protected final Channel[] channels;
+
+	/**
+	 * requests waiting for a free stream
+	 */
+	protected final Queue<Consumer<Channel>> pending = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * the connection tried first by the next request
+	 */
+	protected final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * streams which can be held by watches
+	 */
+	protected final Semaphore watchStreams;
+
+	/**
+	 * max time to wait for a free stream
+	 */
+	protected final Timeout leaseTimeout;
+
+	/**
+	 * max time to open a connection
+	 */
+	protected final Timeout connectTimeout;
+
+	/**
+	 * @param kac     kac
+	 * @param options options
+	 * @throws Exception the certificates are invalid
+	 */
+	public Http2Transport(KubernetesAdminConfig kac, KubernetesClientOptions options) throws Exception {
+		super();
+		this.leaseTimeout = options.getConnectionRequestTimeout();
+		this.connectTimeout = options.getConnectTimeout();
+		this.watchStreams = new Semaphore(options.getMaxWatches());
+		this.channels = new Channel[options.getHttp2Connections()];
+		for (int i = 0; i < channels.length; i++) {
+			H2MultiplexingRequester requester = createRequester(kac, options);
+			requester.start();
+			channels[i] = new Channel(requester, options.getMaxConcurrentStreams());
+		}
+	}
+
+	/**
+	 * @param kac     kac
+	 * @param options options
+	 * @return http/2 requester, it is not started
+	 * @throws Exception the certificates are invalid
+	 */
+	protected H2MultiplexingRequester createRequester(KubernetesAdminConfig kac, KubernetesClientOptions options) throws Exception {
+		// not H2AsyncClient, it closes the whole connection when a single exchange is cancelled
+		return H2MultiplexingRequesterBootstrap.bootstrap()
+				.setTlsStrategy(SSLUtil.createTlsStrategy(kac.keyManagers(), kac.trustManagers()))
+				.setH2Config(H2Config.custom()
+						.setMaxConcurrentStreams(options.getMaxConcurrentStreams())
+						.setInitialWindowSize(options.getInitialWindowSize())
+						.setPushEnabled(false)
+						.build())
+				.setIOReactorConfig(IOReactorConfig.custom()
+						.setIoThreadCount(1)
+						// idle watches share the connection, see StreamingResponse
+						.setSoTimeout(Timeout.DISABLED)
+						.build())
+				.create();
+	}
+
+	/**********************************************************
+	 *
+	 * Streams
+	 *
+	 **********************************************************/
+
+	/**
+	 * runs the task with a connection which has a free stream, at once or when a
+	 * stream is released, the stream must be released by the task
+	 *
+	 * @param task task
+	 */
+	protected void lease(Consumer<Channel> task) {
+		Channel channel = tryAcquire();
+		if (channel != null) {
+			task.accept(channel);
+			return;
+		}
+		pending.add(task);
+		// a stream may have been released before the task was queued
+		drain();
+	}
+
+	/**
+	 * @param channel the connection of the finished stream
+	 */
+	protected void release(Channel channel) {
+		channel.streams.release();
+		drain();
+	}
+
+	/**
+	 * @return a connection with a free stream, or null
+	 */
+	protected Channel tryAcquire() {
+		int start = Math.floorMod(next.getAndIncrement(), channels.length);
+		Channel best = channels[start];
+		for (int i = 1; i < channels.length; i++) {
+			Channel channel = channels[(start + i) % channels.length];
+			if (channel.streams.availablePermits() > best.streams.availablePermits()) {
+				best = channel;
+			}
+		}
+		if (best.streams.tryAcquire()) {
+			return best;
+		}
+		for (Channel channel : channels) {
+			if (channel.streams.tryAcquire()) {
+				return channel;
+			}
+		}
+		return null;
+	}
+
+	protected void drain() {
+		while (!pending.isEmpty()) {
+			Channel channel = tryAcquire();
+			if (channel == null) {
+				return;
+			}
+			Consumer<Channel> task = pending.poll();
+			if (task == null) {
+				release(channel);
+				return;
+			}
+			task.accept(channel);
+		}
+	}
+
+	/**
+	 * @return a connection with a free stream
+	 * @throws IOException no stream is released in time
+	 */
+	protected Channel acquire() throws IOException {
+		CompletableFuture<Channel> leased = new CompletableFuture<>();
+		Consumer<Channel> task = leased::complete;
+		lease(task);
+		try {
+			// zero means no limit, as for the pool of http/1.1
+			return leaseTimeout == null || leaseTimeout.toMilliseconds() <= 0 ? leased.get()
+							: leased.get(leaseTimeout.toMilliseconds(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | InterruptedException ex) {
+			if (!pending.remove(task)) {
+				// it is leased while timing out
+				Channel channel = leased.getNow(null);
+				if (channel != null) {
+					release(channel);
+				}
+			}
+			if (ex instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for a free stream");
+			}
+			throw new IOException("no free http/2 stream in " + leaseTimeout);
+		} catch (ExecutionException ex) {
+			throw new IOException(ex.getCause());
+		}
+	}
+
+	/**
+	 * sends a request of the blocking client, <code>req.cancel()</code> resets the stream
+	 *
+	 * @param req     request
+	 * @param timeout max time without data, zero means never
+	 * @return response, its body is streamed and it must be closed
+	 * @throws IOException no free stream, the request fails or times out
+	 */
+	public ClassicHttpResponse execute(HttpUriRequestBase req, Timeout timeout) throws IOException {
+		return execute(req, timeout, null);
+	}
+
+	/**
+	 * opens a watch stream, it takes one of the streams of watches rather than 
+	 * waiting for one, so requests are not starved by long-lived watches
+	 *
+	 * @param req     request
+	 * @param timeout max time without data, zero means never
+	 * @return response, its body is streamed and it must be closed
+	 * @throws IOException too many watches, the request fails or times out
+	 */
+	public ClassicHttpResponse executeWatch(HttpUriRequestBase req, Timeout timeout) throws IOException {
+		if (!watchStreams.tryAcquire()) {
+			throw new IOException("no free http/2 stream for watches, see KubernetesClientOptions.withMaxWatches");
+		}
+		return execute(req, timeout, watchStreams);
+	}
+
+	/**
+	 * @param req     request
+	 * @param timeout max time without data, zero means never
+	 * @param budget  a permit which is released with the stream, or null
+	 * @return response, its body is streamed and it must be closed
+	 * @throws IOException no free stream, the request fails or times out
+	 */
+	protected ClassicHttpResponse execute(HttpUriRequestBase req, Timeout timeout, Semaphore budget) throws IOException {
+		removeHopByHopHeaders(req);
+		AsyncEntityProducer entity = null;
+		if (req.getEntity() != null) {
+			HttpEntity body = req.getEntity();
+			entity = AsyncEntityProducers.create(EntityUtils.toByteArray(body),
+							body.getContentType() == null ? ContentType.APPLICATION_JSON : ContentType.parse(body.getContentType()));
+		}
+
+		Channel channel;
+		try {
+			channel = acquire();
+		} catch (IOException ex) {
+			if (budget != null) {
+				budget.release();
+			}
+			throw ex;
+		}
+		StreamingResponse response = new StreamingResponse(this, channel, timeout, budget);
+		try {
+			Future<Void> future = channel.requester.execute(new BasicRequestProducer(req, entity),
+							response, connectTimeout, HttpCoreContext.create(), null);
+			response.cancellable = future;
+			req.setDependency(() -> future.cancel(true));
+		} catch (RuntimeException ex) {
+			response.finish();
+			throw ex;
+		}
+		return response.awaitHead();
+	}
+
+	/**
+	 * sends a request of the async client
+	 *
+	 * @param request  request
+	 * @param context  context
+	 * @param callback callback
+	 */
+	public void execute(SimpleHttpRequest request, HttpContext context, FutureCallback<SimpleHttpResponse> callback) {
+		removeHopByHopHeaders(request);
+		lease(channel -> {
+			AtomicBoolean released = new AtomicBoolean();
+			Runnable done = () -> {
+				if (released.compareAndSet(false, true)) {
+					release(channel);
+				}
+			};
+			try {
+				channel.requester.execute(SimpleRequestProducer.create(request), SimpleResponseConsumer.create(),
+								connectTimeout, context, new FutureCallback<SimpleHttpResponse>() {
+
+					@Override
+					public void completed(SimpleHttpResponse result) {
+						done.run();
+						callback.completed(result);
+					}
+
+					@Override
+					public void failed(Exception ex) {
+						done.run();
+						callback.failed(ex);
+					}
+
+					@Override
+					public void cancelled() {
+						done.run();
+						callback.cancelled();
+					}
+				});
+			} catch (RuntimeException ex) {
+				done.run();
+				callback.failed(ex);
+			}
+		});
+	}
+
+	/**
+	 * @param request request built for http/1.1 by <code>ReqUtil</code>
+	 */
+	protected static void removeHopByHopHeaders(HttpRequest request) {
+		for (String header : HOP_BY_HOP_HEADERS) {
+			request.removeHeaders(header);
+		}
+	}
+
+	/**
+	 * @return streams in flight on all connections
+	 */
+	public int getActiveStreams() {
+		int active = 0;
+		for (Channel channel : channels) {
+			active += channel.maxStreams - channel.streams.availablePermits();
+		}
+		return active;
+	}
+
+	/**
+	 * @return requests waiting for a free stream
+	 */
+	public int getPendingStreams() {
+		return pending.size();
+	}
+
+	@Override
+	public void close() {
+		for (Channel channel : channels) {
+			channel.requester.close(CloseMode.IMMEDIATE);
+		}
+	}
+
+	/**
+	 * a connection and its free streams
+	 */
+	protected static final class Channel {
+
+		final H2MultiplexingRequester requester;
+
+		final Semaphore streams;
+
+		final int maxStreams;
+
+		Channel(H2MultiplexingRequester requester, int maxStreams) {
+			super();
+			this.requester = requester;
+			this.streams = new Semaphore(maxStreams);
+			this.maxStreams = maxStreams;
+		}
+	}
+
+	/**
+	 * The body of a stream, it is written by the I/O reactor and read by the caller.
+	 *
+	 * At most the initial window is buffered, since the window is only opened by
+	 * the bytes which have been read.
+	 */
+	static final class StreamingResponse extends InputStream implements AsyncResponseConsumer<Void> {
+
+		private final Http2Transport transport;
+
+		private final Channel channel;
+
+		private final long timeout;
+
+		private final Semaphore budget;
+
+		private final CompletableFuture<ClassicHttpResponse> head = new CompletableFuture<>();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+
+		private volatile Future<Void> cancellable;
+
+		private CapacityChannel capacity;
+
+		private FutureCallback<Void> result;
+
+		private IOException failure;
+
+		private boolean end;
+
+		private boolean closed;
+
+		StreamingResponse(Http2Transport transport, Channel channel, Timeout timeout, Semaphore budget) {
+			super();
+			this.transport = transport;
+			this.channel = channel;
+			this.budget = budget;
+			this.timeout = timeout == null || timeout.toMilliseconds() <= 0 ? 0 : timeout.toMilliseconds();
+		}
+
+		ClassicHttpResponse awaitHead() throws IOException {
+			try {
+				return timeout == 0 ? head.get() : head.get(timeout, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException ex) {
+				cancel();
+				throw new SocketTimeoutException("no response in " + timeout + " ms");
+			} catch (InterruptedException ex) {
+				cancel();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the response");
+			} catch (ExecutionException ex) {
+				throw ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+			}
+		}
+
+		void cancel() {
+			Future<Void> future = cancellable;
+			if (future != null) {
+				future.cancel(true);
+			}
+			finish();
+		}
+
+		/**
+		 * frees the stream, the reactor does not always release the resources
+		 * of a cancelled exchange
+		 */
+		void finish() {
+			if (released.compareAndSet(false, true)) {
+				if (budget != null) {
+					budget.release();
+				}
+				transport.release(channel);
+			}
+		}
+
+		/*** AsyncResponseConsumer ***/
+
+		@Override
+		public void consumeResponse(HttpResponse response, EntityDetails details, HttpContext context, FutureCallback<Void> callback) {
+			BasicClassicHttpResponse classic = new BasicClassicHttpResponse(response.getCode(), response.getReasonPhrase());
+			classic.setVersion(response.getVersion());
+			classic.setHeaders(response.getHeaders());
+			if (details != null) {
+				classic.setEntity(new BasicHttpEntity(this, details.getContentLength(),
+								details.getContentType() == null ? null : ContentType.parse(details.getContentType()),
+								details.getContentEncoding()));
+				synchronized (this) {
+					result = callback;
+				}
+			} else {
+				synchronized (this) {
+					end = true;
+				}
+				finish();
+				callback.completed(null);
+			}
+			head.complete(classic);
+		}
+
+		@Override
+		public void informationResponse(HttpResponse response, HttpContext context) {
+			// 1xx
+		}
+
+		@Override
+		public synchronized void updateCapacity(CapacityChannel capacityChannel) {
+			// the window is opened by read()
+			this.capacity = capacityChannel;
+		}
+
+		@Override
+		public void consume(ByteBuffer src) {
+			byte[] bytes = new byte[src.remaining()];
+			src.get(bytes);
+			synchronized (this) {
+				if (!closed) {
+					chunks.add(ByteBuffer.wrap(bytes));
+				}
+				notifyAll();
+			}
+		}
+
+		@Override
+		public void streamEnd(List<? extends Header> trailers) {
+			FutureCallback<Void> callback;
+			synchronized (this) {
+				end = true;
+				callback = result;
+				notifyAll();
+			}
+			finish();
+			if (callback != null) {
+				callback.completed(null);
+			}
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			synchronized (this) {
+				failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+				notifyAll();
+			}
+			head.completeExceptionally(cause);
+			finish();
+		}
+
+		@Override
+		public void releaseResources() {
+			synchronized (this) {
+				if (!end && failure == null) {
+					failure = new IOException("stream is reset");
+				}
+				notifyAll();
+			}
+			head.completeExceptionally(new IOException("stream is reset"));
+			finish();
+		}
+
+		/*** InputStream ***/
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			int n = read(b, 0, 1);
+			return n < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int n = 0;
+			boolean timedOut = false;
+			CapacityChannel channel = null;
+			synchronized (this) {
+				long deadline = timeout == 0 ? 0 : System.currentTimeMillis() + timeout;
+				while (chunks.isEmpty()) {
+					if (closed) {
+						throw new IOException("stream is closed");
+					}
+					if (end) {
+						return -1;
+					}
+					if (failure != null) {
+						throw failure;
+					}
+					long wait = deadline == 0 ? 0 : deadline - System.currentTimeMillis();
+					if (deadline != 0 && wait <= 0) {
+						timedOut = true;
+						break;
+					}
+					try {
+						wait(wait);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("interrupted while reading");
+					}
+				}
+				if (!timedOut) {
+					ByteBuffer chunk = chunks.peek();
+					n = Math.min(len, chunk.remaining());
+					chunk.get(b, off, n);
+					if (!chunk.hasRemaining()) {
+						chunks.poll();
+					}
+					channel = capacity;
+				}
+			}
+			// outside of the lock, the reactor holds its own lock when it calls consume(),
+			// and cancel() calls into the reactor and runs the tasks waiting for a stream
+			if (timedOut) {
+				cancel();
+				throw new SocketTimeoutException("no data in " + timeout + " ms");
+			}
+			if (channel != null) {
+				channel.update(n);
+			}
+			return n;
+		}
+
+		@Override
+		public synchronized int available() {
+			ByteBuffer chunk = chunks.peek();
+			return chunk == null ? 0 : chunk.remaining();
+		}
+
+		@Override
+		public void close() {
+			boolean finished;
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				finished = end;
+				chunks.clear();
+				notifyAll();
+			}
+			if (!finished) {
+				cancel();
+			}
+		}
+	}
+}
@@ -16,15 +16,29 @@
 package io.github.kubesys.client;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.classic.methods.HttpDelete;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPatch;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
@@ -33,26 +47,27 @@ import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
 import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.config.RegistryBuilder;
 import org.apache.hc.core5.http.protocol.HttpContext;
-import org.apache.hc.core5.util.TimeValue;
-import org.apache.hc.core5.util.Timeout;
+import org.apache.hc.core5.pool.PoolStats;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 
 import io.github.kubesys.client.beans.KubernetesAdminConfig;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.ObjectMetadata;
+import io.github.kubesys.client.beans.PatchType;
 import io.github.kubesys.client.cores.KubernetesRuleBase;
 import io.github.kubesys.client.exceptions.KubernetesBadRequestException;
 import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
@@ -62,10 +77,20 @@ import io.github.kubesys.client.exceptions.KubernetesInternalServerErrorExceptio
 import io.github.kubesys.client.exceptions.KubernetesResourceNotFoundException;
 import io.github.kubesys.client.exceptions.KubernetesUnauthorizedTokenException;
 import io.github.kubesys.client.exceptions.KubernetesUnknownException;
+import io.github.kubesys.client.informers.SharedInformerFactory;
+import io.github.kubesys.client.selectors.FieldSelector;
+import io.github.kubesys.client.selectors.LabelSelector;
+import io.github.kubesys.client.utils.CompressionUtil;
+import io.github.kubesys.client.utils.ApplyCache;
+import io.github.kubesys.client.utils.JsonSupport;
 import io.github.kubesys.client.utils.KubeUtil;
+import io.github.kubesys.client.utils.ManifestReader;
 import io.github.kubesys.client.utils.ReqUtil;
+import io.github.kubesys.client.utils.RequestLimiter;
 import io.github.kubesys.client.utils.SSLUtil;
+import io.github.kubesys.client.utils.ThreadUtil;
 import io.github.kubesys.client.utils.URLUtil;
+import io.github.kubesys.client.watchers.WatchManager;
 
 /**
  * Kubernetes客户端，用于建立与Kubernetes的连接，随后可以对Kubernetes的Kind资源进行生命周期管理。
@@ -81,7 +106,7 @@ import io.github.kubesys.client.utils.URLUtil;
  * @since 1.0.0
  * 
  */
-public class KubernetesClient {
+public class KubernetesClient implements Closeable {
 
 	/**
 	 * 日志对象
@@ -110,10 +135,50 @@ public class KubernetesClient {
 	 */
 	protected KubernetesAnalyzer analyzer;
 	
+	/**
+	 * 连接池和超时等配置
+	 */
+	protected final KubernetesClientOptions options;
+	
+	/**
+	 * 连接池
+	 */
+	protected final PoolingHttpClientConnectionManager connectionManager;
+	
 	/**
 	 * 连接Kubernetes的http客户端
 	 */
 	protected final CloseableHttpClient httpClient;
+	
+	/**
+	 * 用于执行submit提交的阻塞请求
+	 */
+	protected final ExecutorService executor;
+	
+	/**
+	 * 所有watch共享的连接池
+	 */
+	protected final WatchManager watchManager;
+	
+	/**
+	 * 启用http/2时，所有请求和watch复用的连接，否则为null
+	 */
+	protected final Http2Transport http2Transport;
+	
+	/**
+	 * 按kind共享list和watch的informer，首次使用时创建
+	 */
+	protected SharedInformerFactory informerFactory;
+	
+	/**
+	 * 每个对象最近一次apply的意图，意图不变时不再发送
+	 */
+	protected final ApplyCache applyCache;
+	
+	/**
+	 * 按客户端、verb和kind限制请求速率
+	 */
+	protected final RequestLimiter requestLimiter;
 
 	/***************************************************************************
 	 * 
@@ -150,9 +215,30 @@ public class KubernetesClient {
 	 * 
 	 */
 	public KubernetesClient(File file, KubernetesAnalyzer analyzer) throws KubernetesConnectionException {
+		this(file, analyzer, KubernetesClientOptions.DEFAULT);
+	}
+	
+	/**
+	 * 根据配置文件创建Kubernetes客户端
+	 *  
+	 * @param file     比如$HOME$/.kube/conf
+	 * @param analyzer 用于自动分析Kubernetes中所有kind资源，以及该资源对应的所有Url
+	 * @param options  连接池和超时等配置
+	 * @throws KubernetesConnectionException Kubernetes连接异常
+	 * 
+	 */
+	public KubernetesClient(File file, KubernetesAnalyzer analyzer, KubernetesClientOptions options) throws KubernetesConnectionException {
 		try {
-			this.kubernetesAdminConfig = KubernetesAdminConfig.from(new YAMLMapper().readTree(file));
-			this.httpClient = createDefaultHttpClient(kubernetesAdminConfig);
+			this.kubernetesAdminConfig = KubernetesAdminConfig.from(JsonSupport.readYaml(file));
+			this.options = options;
+			this.connectionManager = createConnectionManager(kubernetesAdminConfig);
+			this.httpClient = createDefaultHttpClient(connectionManager);
+			this.http2Transport = options.isHttp2() ? new Http2Transport(kubernetesAdminConfig, options) : null;
+			this.watchManager = new WatchManager(createConnectionManager(kubernetesAdminConfig), options, http2Transport);
+			this.executor = options.getExecutor() != null ? options.getExecutor() 
+									: ThreadUtil.newExecutor(options.getThreadFactory());
+			this.applyCache = new ApplyCache(options.getApplyCacheTtl().toMilliseconds(), options.getMaxApplyCache());
+			this.requestLimiter = createRequestLimiter();
 			this.analyzer = analyzer.initIfNeed(this);
 		} catch (Exception ex) {
 			throw new KubernetesConnectionException(ex.toString());
@@ -187,9 +273,31 @@ public class KubernetesClient {
 	 * @throws KubernetesConnectionException KubernetesConnectionException
 	 */
 	public KubernetesClient(String url, String token, KubernetesAnalyzer analyzer) throws KubernetesConnectionException {
+		this(url, token, analyzer, KubernetesClientOptions.DEFAULT);
+	}
+	
+	/**
+	 * 根据token访问kubernetes
+	 * https://kubernetes.io/docs/reference/access-authn-authz/authentication/
+	 * 
+	 * @param url      如https://IP:6443/
+	 * @param token    bearer token, 通过ServiceAccount和ClusterRoleBinding进行创建
+	 * @param analyzer 用于自动分析Kubernetes中所有kind资源，以及该资源对应的Url
+	 * @param options  连接池和超时等配置
+	 * @throws KubernetesConnectionException KubernetesConnectionException
+	 */
+	public KubernetesClient(String url, String token, KubernetesAnalyzer analyzer, KubernetesClientOptions options) throws KubernetesConnectionException {
 		try {
 			this.kubernetesAdminConfig = new KubernetesAdminConfig(url, token);
-			this.httpClient = createDefaultHttpClient(kubernetesAdminConfig);
+			this.options = options;
+			this.connectionManager = createConnectionManager(kubernetesAdminConfig);
+			this.httpClient = createDefaultHttpClient(connectionManager);
+			this.http2Transport = options.isHttp2() ? new Http2Transport(kubernetesAdminConfig, options) : null;
+			this.watchManager = new WatchManager(createConnectionManager(kubernetesAdminConfig), options, http2Transport);
+			this.executor = options.getExecutor() != null ? options.getExecutor() 
+									: ThreadUtil.newExecutor(options.getThreadFactory());
+			this.applyCache = new ApplyCache(options.getApplyCacheTtl().toMilliseconds(), options.getMaxApplyCache());
+			this.requestLimiter = createRequestLimiter();
 			this.analyzer = analyzer.initIfNeed(this);
 		} catch (Exception ex) {
 			if (url == null || token == null) {
@@ -216,6 +324,15 @@ public class KubernetesClient {
 	 * @throws Exception Exception
 	 */
 	protected CloseableHttpClient createDefaultHttpClient(KubernetesAdminConfig kac) throws Exception {
+		return createDefaultHttpClient(createConnectionManager(kac));
+	}
+	
+	/**
+	 * @param kac kac
+	 * @return connection pool sized by <code>KubernetesClientOptions</code>
+	 * @throws Exception Exception
+	 */
+	protected PoolingHttpClientConnectionManager createConnectionManager(KubernetesAdminConfig kac) throws Exception {
 
 		PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager(
 				RegistryBuilder.<ConnectionSocketFactory>create()
@@ -227,41 +344,97 @@ public class KubernetesClient {
 								kac.trustManagers()))
 				.build());
 		
-		connManager.setDefaultMaxPerRoute(2);
-		connManager.setMaxTotal(3);
-		
-		ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(Timeout.ZERO_MILLISECONDS)
-                .setSocketTimeout(Timeout.ZERO_MILLISECONDS)
-                .setTimeToLive(TimeValue.ofDays(36500L))
-                .build();
+		connManager.setMaxTotal(options.getMaxTotal());
+		connManager.setDefaultMaxPerRoute(options.getMaxPerRoute());
 		
-		connManager.setDefaultConnectionConfig(connectionConfig);
+		connManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(options.getConnectTimeout())
+                .setSocketTimeout(options.getSocketTimeout())
+                .setValidateAfterInactivity(options.getValidateAfterInactivity())
+                .setTimeToLive(options.getTimeToLive())
+                .build());
 		
-		@SuppressWarnings("deprecation")
+		return connManager;
+	}
+	
+	/**
+	 * @param connManager connection pool
+	 * @return CloseableHttpClient
+	 */
+	protected CloseableHttpClient createDefaultHttpClient(PoolingHttpClientConnectionManager connManager) {
+
 		RequestConfig requestConfig = RequestConfig.custom()
-				.setConnectTimeout(Timeout.ZERO_MILLISECONDS)
-				.setConnectionRequestTimeout(Timeout.ZERO_MILLISECONDS)
-				.setResponseTimeout(Timeout.ZERO_MILLISECONDS)
-				.setConnectionKeepAlive(TimeValue.ZERO_MILLISECONDS)
+				.setConnectionRequestTimeout(options.getConnectionRequestTimeout())
+				.setResponseTimeout(options.getResponseTimeout())
+				.setConnectionKeepAlive(options.getKeepAlive())
 				.build();
 		
-		return HttpClients.custom()
+		HttpClientBuilder builder = HttpClients.custom()
 				.setDefaultRequestConfig(requestConfig)
 				.setConnectionManager(connManager)
-				.setRetryStrategy(new DefaultHttpRequestRetryStrategy(
-						10, TimeValue.ofSeconds(10)))
-				.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
-
-					@Override
-					public TimeValue getKeepAliveDuration(HttpResponse response, HttpContext context) {
-					    return TimeValue.ZERO_MILLISECONDS;
-					}
-					
-				})
-				.build();
+				.setRetryStrategy(createRetryStrategy(options))
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				// see openResponse and CompressionUtil
+				.disableContentCompression()
+				.evictExpiredConnections();
+		
+		if (options.getIdleEviction() != null) {
+			builder.evictIdleConnections(options.getIdleEviction());
+		}
+		
+		return builder.build();
+	}
+	
+	/**
+	 * only I/O errors are retried by HttpClient, 429 and 503 are sent again 
+	 * by execute, which waits for Retry-After and the rate limits
+	 * 
+	 * @param options options
+	 * @return retry strategy
+	 */
+	static DefaultHttpRequestRetryStrategy createRetryStrategy(KubernetesClientOptions options) {
+		return new DefaultHttpRequestRetryStrategy(options.getMaxRetries(), options.getRetryInterval()) {
+			
+			@Override
+			public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * leased, pending, available and max connections of the pool,
+	 * it can be used for tuning <code>KubernetesClientOptions</code>
+	 * 
+	 * @return pool stats
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+	
+	/**
+	 * @return options
+	 */
+	public KubernetesClientOptions getOptions() {
+		return options;
 	}
 	
+	/**
+	 * @return watch manager, it serves all watches of this client
+	 */
+	public WatchManager getWatchManager() {
+		return watchManager;
+	}
+	
+	/**
+	 * @return informers of this client, they are shared by kind and namespace
+	 */
+	public synchronized SharedInformerFactory getInformerFactory() {
+		if (informerFactory == null) {
+			informerFactory = new SharedInformerFactory(this);
+		}
+		return informerFactory;
+	}
 	
 	/**
 	 * https://appwrite.io/docs/advanced/platform/response-codes
@@ -279,34 +452,44 @@ public class KubernetesClient {
 	 * @param response response
 	 * @return json json
 	 */
-	protected synchronized JsonNode parseResponse(CloseableHttpResponse response) {
+	protected JsonNode parseResponse(ClassicHttpResponse response) {
 
 		switch (response.getCode()) {
 		case 200:
 		case 201:
 			try {
-				ObjectMapper objectMapper = new ObjectMapper();
-				objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
-				return objectMapper.readTree(response.getEntity().getContent());
+				return JsonSupport.readTree(response.getEntity().getContent());
 			} catch (Exception e) {
 				throw new KubernetesUnknownException(e.toString());
 			}
+		default:
+			throw toException(response.getCode(), convertToString(response));
+		}
+
+	}
+	
+	/**
+	 * @param code    http status code
+	 * @param message response body
+	 * @return exception for the status code
+	 */
+	static RuntimeException toException(int code, String message) {
+		switch (code) {
 		case 400:
-			throw new KubernetesBadRequestException(convertToString(response));
+			return new KubernetesBadRequestException(message);
 		case 401:
-			throw new KubernetesUnauthorizedTokenException(convertToString(response));
+			return new KubernetesUnauthorizedTokenException(message);
 		case 403:
-			throw new KubernetesForbiddenAccessException(convertToString(response));
+			return new KubernetesForbiddenAccessException(message);
 		case 404:
-			throw new KubernetesResourceNotFoundException(convertToString(response));
+			return new KubernetesResourceNotFoundException(message);
 		case 409:
-			throw new KubernetesConflictResourceException(convertToString(response));
+			return new KubernetesConflictResourceException(message);
 		case 500:
-			throw new KubernetesInternalServerErrorException(convertToString(response));
+			return new KubernetesInternalServerErrorException(message);
 		default:
-			throw new KubernetesUnknownException(convertToString(response));
+			return new KubernetesUnknownException(message);
 		}
-
 	}
 
 	
@@ -314,7 +497,7 @@ public class KubernetesClient {
 	 * @param resp response
 	 * @return string
 	 */
-	public static String convertToString(CloseableHttpResponse resp) {
+	public static String convertToString(ClassicHttpResponse resp) {
 		try {
 	        ByteArrayOutputStream result = new ByteArrayOutputStream();
 	        byte[] buffer = new byte[1024];
@@ -329,13 +512,94 @@ public class KubernetesClient {
     }
 	
 	/**
+	 * it is thread-safe, and concurrent requests are served by
+	 * different connections of the pool
+	 * 
 	 * @param req req
 	 * @return json 
 	 * @throws Exception exception
 	 */
+	public JsonNode getResponse(HttpUriRequestBase req) throws Exception {
+		try (ClassicHttpResponse response = openResponse(req)) {
+			return parseResponse(response);
+		}
+	}
+
+	/**
+	 * a compressed body is decompressed while it is read, and a write invalidates
+	 * the intent which was applied to the object, see ApplyCache
+	 * 
+	 * @param req request
+	 * @return response, its body is streamed and it must be closed
+	 * @throws IOException IOException
+	 */
+	protected ClassicHttpResponse openResponse(HttpUriRequestBase req) throws IOException {
+		if (options.isCompression() && Method.GET.isSame(req.getMethod())
+				&& !req.containsHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING)) {
+			req.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING, 
+							KubernetesConstants.HTTP_ACCEPT_ENCODING_COMPRESSED);
+		}
+		applyCache.invalidate(req.getMethod(), req.getRequestUri());
+		ClassicHttpResponse response = execute(req);
+		CompressionUtil.decompress(response, req.getMethod(), 
+							req.getRequestUri(), options.getTransferListener());
+		return response;
+	}
+
+	/**
+	 * waits for the rate limits before each attempt, and sends the request again 
+	 * after Retry-After if it is throttled (429), or the api-server is unavailable (503)
+	 * and the request is idempotent
+	 * 
+	 * @param req request
+	 * @return response
+	 * @throws IOException IOException
+	 */
 	@SuppressWarnings("deprecation")
-	public synchronized JsonNode getResponse(HttpUriRequestBase req) throws Exception {
-		return parseResponse(httpClient.execute(req));
+	protected ClassicHttpResponse execute(HttpUriRequestBase req) throws IOException {
+		long interval = options.getRetryInterval().toNanoseconds();
+		for (int retries = 0; ; retries++) {
+			requestLimiter.acquire(req.getMethod(), req.getRequestUri());
+			ClassicHttpResponse response = http2Transport != null 
+							? http2Transport.execute(req, options.getResponseTimeout()) 
+							: httpClient.execute(req);
+			if (retries >= options.getMaxRetries()) {
+				return response;
+			}
+			long wait = RequestLimiter.retryAfter(response.getCode(), req.getMethod(), 
+							response.containsHeader(HttpHeaders.RETRY_AFTER) 
+								? response.getFirstHeader(HttpHeaders.RETRY_AFTER).getValue() : null, 
+							interval);
+			if (wait < 0) {
+				return response;
+			}
+			m_logger.warning(req.getMethod() + " " + req.getRequestUri() + " returns " 
+							+ response.getCode() + ", retry " + (retries + 1));
+			response.close();
+			RequestLimiter.sleep(wait);
+		}
+	}
+
+	/**
+	 * @return limits of the client, verbs and kinds
+	 */
+	protected RequestLimiter createRequestLimiter() {
+		RequestLimiter limiter = new RequestLimiter(options);
+		// the kinds are known after analyzer.initIfNeed
+		limiter.setResolver(kind -> {
+			KubernetesRuleBase ruleBase = analyzer.getConvertor().getRuleBase();
+			String fullkind = kind.indexOf(".") == -1 ? ruleBase.getFullKind(kind) : kind;
+			return ruleBase.getName(fullkind) == null ? null 
+							: RequestLimiter.resource(analyzer.getConvertor().listUrl(fullkind, ""));
+		});
+		return limiter;
+	}
+
+	/**
+	 * @return limits of the client, verbs and kinds
+	 */
+	public RequestLimiter getRequestLimiter() {
+		return requestLimiter;
 	}
 
 	/**
@@ -344,11 +608,91 @@ public class KubernetesClient {
 	public CloseableHttpClient getHttpClient() {
 		return httpClient;
 	}
+
+	/**
+	 * @return http/2 connections, or null if http/2 is not enabled
+	 */
+	public Http2Transport getHttp2Transport() {
+		return http2Transport;
+	}
 	
 	/**
+	 * runs a blocking call, such as <code>client.submit(() -&gt; client.listResources("Pod"))</code>,
+	 * on the executor, which uses virtual threads if <code>KubernetesClientOptions.withVirtualThreads</code>
 	 * 
+	 * @param <T>  type
+	 * @param task task
+	 * @return future
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			try {
+				future.complete(task.call());
+			} catch (Exception ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * @return executor
 	 */
-	protected void close() {
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * a call on one resource, such as <code>createResource</code>
+	 */
+	@FunctionalInterface
+	protected interface ResourceCall {
+		JsonNode call(JsonNode json) throws Exception;
+	}
+	
+	/**
+	 * @param call call
+	 * @return the call for streams, its exceptions are unchecked
+	 */
+	protected static Function<JsonNode, JsonNode> unchecked(ResourceCall call) {
+		return json -> {
+			try {
+				return call.call(json);
+			} catch (RuntimeException ex) {
+				throw ex;
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			} catch (Exception ex) {
+				throw new KubernetesUnknownException(ex.toString());
+			}
+		};
+	}
+
+	/**
+	 * @return bulk operations on the executor of this client
+	 */
+	public BulkOperations bulk() {
+		return new BulkOperations(this);
+	}
+	
+	/**
+	 * closes all watches, the executor if it is created by the client, and the pool
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (informerFactory != null) {
+				informerFactory.close();
+			}
+		}
+		watchManager.close();
+		if (http2Transport != null) {
+			http2Transport.close();
+		}
+		if (executor != null && executor != options.getExecutor()) {
+			executor.shutdown();
+		}
 		if (httpClient != null) {
 			try {
 				httpClient.close();
@@ -389,7 +733,7 @@ public class KubernetesClient {
 	 * @throws Exception see link HttpCaller.getResponse
 	 */
 	public JsonNode createResourceByObject(Object obj) throws Exception {
-		return createResource(new ObjectMapper().valueToTree(obj));
+		return createResource(JsonSupport.valueToTree(obj));
 	}
 	
 	/**
@@ -413,7 +757,7 @@ public class KubernetesClient {
 	 * @throws Exception see link HttpCaller.getResponse
 	 */
 	public JsonNode createResourceByJson(String json) throws Exception {
-		return createResource(new ObjectMapper().readTree(json));
+		return createResource(JsonSupport.readTree(json));
 	}
 
 	/**
@@ -426,6 +770,19 @@ public class KubernetesClient {
 		return KubeUtil.jsonNodeToYamlString(createResource(jsonNode));
 	}
 	
+	/**
+	 * create the resources of a yaml stream one by one while the returned stream is consumed,
+	 * so a large bundle is never held in memory, see <code>ManifestReader</code>.
+	 * Use <code>bulk()</code> for dependency order and parallelism.
+	 * 
+	 * @param yaml yaml documents separated by ---, it is closed with the returned stream
+	 * @return created resources, a failure is thrown while it is consumed
+	 * @throws Exception the stream cannot be read
+	 */
+	public Stream<JsonNode> createResourcesByYaml(InputStream yaml) throws Exception {
+		return new ManifestReader(yaml).stream().map(unchecked(this::createResource));
+	}
+	
 	/**
 	 * create a Kubernetes resource using JSON. <br>
 	 * 
@@ -473,7 +830,7 @@ public class KubernetesClient {
 	 * @throws Exception see HttpCaller.getResponse
 	 */
 	public JsonNode deleteResourceByObject(Object obj) throws Exception {
-		return deleteResource(new ObjectMapper().valueToTree(obj));
+		return deleteResource(JsonSupport.valueToTree(obj));
 	}
 	
 	/**
@@ -497,7 +854,7 @@ public class KubernetesClient {
 	 * @throws Exception see HttpCaller.getResponse
 	 */
 	public JsonNode deleteResourceByJson(String json) throws Exception {
-		return deleteResource(new ObjectMapper().readTree(json));
+		return deleteResource(JsonSupport.readTree(json));
 	}
 
 	/**
@@ -506,9 +863,19 @@ public class KubernetesClient {
 	 * @throws Exception Exception
 	 */
 	public String deleteResourceByYaml(String yaml) throws Exception {
-		ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-		JsonNode jsonNode = mapper.readTree(yaml);
-		return new YAMLMapper().writeValueAsString(deleteResource(jsonNode));
+		JsonNode jsonNode = JsonSupport.readYaml(yaml);
+		return JsonSupport.toYaml(deleteResource(jsonNode));
+	}
+
+	/**
+	 * delete the resources of a yaml stream one by one while the returned stream is consumed
+	 * 
+	 * @param yaml yaml documents separated by ---, it is closed with the returned stream
+	 * @return deleted resources, a failure is thrown while it is consumed
+	 * @throws Exception the stream cannot be read
+	 */
+	public Stream<JsonNode> deleteResourcesByYaml(InputStream yaml) throws Exception {
+		return new ManifestReader(yaml).stream().map(unchecked(this::deleteResource));
 	}
 
 	/**
@@ -593,7 +960,7 @@ public class KubernetesClient {
 	 * @throws Exception see HttpCaller.getResponse
 	 */
 	public JsonNode updateResourceByObject(Object obj) throws Exception {
-		return updateResource(new ObjectMapper().valueToTree(obj));
+		return updateResource(JsonSupport.valueToTree(obj));
 	}
 	
 	/**
@@ -617,7 +984,7 @@ public class KubernetesClient {
 	 * @throws Exception see HttpCaller.getResponse
 	 */
 	public JsonNode updateResourceByJson(String json) throws Exception {
-		return updateResource(new ObjectMapper().readTree(json));
+		return updateResource(JsonSupport.readTree(json));
 	}
 
 	/**
@@ -626,9 +993,19 @@ public class KubernetesClient {
 	 * @throws Exception Exception
 	 */
 	public String updateResourceByYaml(String yaml) throws Exception {
-		ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-		JsonNode jsonNode = mapper.readTree(yaml);
-		return new YAMLMapper().writeValueAsString(updateResource(jsonNode));
+		JsonNode jsonNode = JsonSupport.readYaml(yaml);
+		return JsonSupport.toYaml(updateResource(jsonNode));
+	}
+
+	/**
+	 * update the resources of a yaml stream one by one while the returned stream is consumed
+	 * 
+	 * @param yaml yaml documents separated by ---, it is closed with the returned stream
+	 * @return updated resources, a failure is thrown while it is consumed
+	 * @throws Exception the stream cannot be read
+	 */
+	public Stream<JsonNode> updateResourcesByYaml(InputStream yaml) throws Exception {
+		return new ManifestReader(yaml).stream().map(unchecked(this::updateResource));
 	}
 
 	/**
@@ -664,6 +1041,87 @@ public class KubernetesClient {
 		return getResponse(request);
 	}
 
+	/**
+	 * patch a Kubernetes resource, only the patch is sent, and no resourceVersion
+	 * is needed unless the patch has one, for example, a merge patch can be <br>
+	 * {"metadata": {"labels": {"test": "test"}}}
+	 * 
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch
+	 * @return json patched object with json style
+	 * @throws Exception see HttpCaller.getResponse
+	 */
+	public JsonNode patchResource(String fullkind, String namespace, String name, PatchType type, JsonNode patch) throws Exception {
+		return patchResource(fullkind, namespace, name, type, patch.toString());
+	}
+
+	/**
+	 * patch a Kubernetes resource
+	 * 
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch in json
+	 * @return json patched object with json style
+	 * @throws Exception see HttpCaller.getResponse
+	 */
+	public JsonNode patchResource(String fullkind, String namespace, String name, PatchType type, String patch) throws Exception {
+
+		final String uri = analyzer.getConvertor().updateUrl(fullkind, namespace, name);
+		HttpPatch request = ReqUtil.patch(kubernetesAdminConfig, uri, patch, type.getContentType());
+		return getResponse(request);
+	}
+
+	/**
+	 * apply a Kubernetes resource on the server side, i.e. a PATCH with
+	 * <code>application/apply-patch+yaml</code>, the api-server creates it if it does not
+	 * exist, and merges the fields of the json, which are owned by the field manager, with
+	 * the fields owned by others, so neither a GET nor a resourceVersion is needed. <br>
+	 * 
+	 * The call is skipped if the same json was applied by the same field manager within
+	 * <code>KubernetesClientOptions.getApplyCacheTtl()</code>, and the object returned by
+	 * the last apply is returned instead. The cache is cleared by any write of this client
+	 * or its AsyncKubernetesClient, see openResponse, but not by the changes of others.
+	 * 
+	 * @param json         json object, i.e. the fields the field manager cares about
+	 * @param fieldManager field manager, such as the name of a controller
+	 * @param force        takes the fields which are owned by other managers, or fails
+	 *                     with a conflict
+	 * @return json applied object with json style
+	 * @throws Exception see HttpCaller.getResponse
+	 */
+	public JsonNode applyResource(JsonNode json, String fieldManager, boolean force) throws Exception {
+		Objects.requireNonNull(fieldManager, "fieldManager");
+		final String uri = analyzer.getConvertor().updateUrl(analyzer.getConvertor().fullkind(json),
+				analyzer.getConvertor().namespace(json), analyzer.getConvertor().name(json));
+
+		// json is valid yaml, and it is serialized only once for both the hash and the body
+		final String intent = json.toString();
+		final String hash = ApplyCache.hash(fieldManager, String.valueOf(force), intent);
+		JsonNode applied = applyCache.get(uri, hash);
+		if (applied != null) {
+			return applied.deepCopy();
+		}
+
+		HttpPatch request = ReqUtil.patch(kubernetesAdminConfig, uri 
+				+ KubernetesConstants.HTTP_QUERY_FIELDMANAGER + URLEncoder.encode(fieldManager, StandardCharsets.UTF_8)
+				+ (force ? KubernetesConstants.HTTP_QUERY_FORCE : ""), intent, PatchType.APPLY.getContentType());
+		JsonNode result = getResponse(request);
+		applyCache.put(uri, hash, result.deepCopy());
+		return result;
+	}
+
+	/**
+	 * @return the intents remembered by applyResource
+	 */
+	public ApplyCache getApplyCache() {
+		return applyCache;
+	}
+
 	/**
 	 * get a Kubernetes resource using kind, namespace and name
 	 * 
@@ -822,6 +1280,157 @@ public class KubernetesClient {
 		return listResources(fullkind, namespace, URLUtil.fromMap(fields), URLUtil.fromMap(labels), 0, null);
 	}
 
+	/**
+	 * list all Kubernetes resources using compiled selectors, which support
+	 * the set-based syntax, such as <code>env in (prod,staging)</code>
+	 * 
+	 * @param fullkind      kind
+	 * @param namespace     namespace
+	 * @param fields        fieldSelector, or null
+	 * @param labels        labelSelector, or null
+	 * @return json json
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public JsonNode listResources(String fullkind, String namespace, FieldSelector fields, LabelSelector labels)
+			throws Exception {
+
+		return listResources(fullkind, namespace, URLUtil.fromSelector(fields), URLUtil.fromSelector(labels), 0, null);
+	}
+
+	/**
+	 * stream all Kubernetes resources using kind, the pages are requested one by one
+	 * while the stream is consumed, it should be closed if it is not consumed to the end
+	 * 
+	 * @param fullkind kind
+	 * @return items
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Stream<JsonNode> streamResources(String fullkind) throws Exception {
+		return streamResources(fullkind, KubernetesConstants.VALUE_ALL_NAMESPACES);
+	}
+
+	/**
+	 * stream all Kubernetes resources using kind and namespace
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @return items
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Stream<JsonNode> streamResources(String fullkind, String namespace) throws Exception {
+		return streamResources(fullkind, namespace, null, null, KubernetesPager.DEFAULT_PAGE_SIZE);
+	}
+
+	/**
+	 * stream all Kubernetes resources using kind, namespace, selectors and page size
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param fields    fieldSelector, or null
+	 * @param labels    labelSelector, or null
+	 * @param pageSize  items per request
+	 * @return items
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Stream<JsonNode> streamResources(String fullkind, String namespace, FieldSelector fields, 
+			LabelSelector labels, int pageSize) throws Exception {
+		return pageResources(fullkind, namespace, fields, labels, pageSize).stream();
+	}
+
+	/**
+	 * stream all Kubernetes resources, and request up to <code>prefetch</code> pages ahead
+	 * of the consumer, it is for scanning large kinds
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param fields    fieldSelector, or null
+	 * @param labels    labelSelector, or null
+	 * @param pageSize  items per request
+	 * @param prefetch  max pages ahead of the consumer, 0 disables prefetching
+	 * @return items
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Stream<JsonNode> streamResources(String fullkind, String namespace, FieldSelector fields, 
+			LabelSelector labels, int pageSize, int prefetch) throws Exception {
+		return pageResources(fullkind, namespace, fields, labels, pageSize, prefetch).stream();
+	}
+
+	/**
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param fields    fieldSelector, or null
+	 * @param labels    labelSelector, or null
+	 * @param pageSize  items per request
+	 * @return pager, the first page is requested by <code>hasNext</code>
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public KubernetesPager pageResources(String fullkind, String namespace, FieldSelector fields, 
+			LabelSelector labels, int pageSize) throws Exception {
+		return pageResources(fullkind, namespace, fields, labels, pageSize, 0);
+	}
+
+	/**
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param fields    fieldSelector, or null
+	 * @param labels    labelSelector, or null
+	 * @param pageSize  items per request
+	 * @param prefetch  max pages ahead of the consumer, 0 disables prefetching
+	 * @return pager, the first page is requested by <code>hasNext</code>
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public KubernetesPager pageResources(String fullkind, String namespace, FieldSelector fields, 
+			LabelSelector labels, int pageSize, int prefetch) throws Exception {
+		StringBuilder uri = new StringBuilder();
+		uri.append(analyzer.getConvertor().listUrl(fullkind, namespace));
+		uri.append(KubernetesConstants.HTTP_QUERY_KIND + fullkind);
+		String fieldSelector = URLUtil.fromSelector(fields);
+		if (fieldSelector != null) {
+			uri.append(KubernetesConstants.HTTP_QUERY_FIELDSELECTOR).append(fieldSelector);
+		}
+		String labelSelector = URLUtil.fromSelector(labels);
+		if (labelSelector != null) {
+			uri.append(KubernetesConstants.HTTP_QUERY_LABELSELECTOR).append(labelSelector);
+		}
+		return prefetch > 0 ? new PrefetchingPager(this, uri.toString(), pageSize, prefetch)
+						: new KubernetesPager(this, uri.toString(), pageSize);
+	}
+
+	/**
+	 * list the metadata of all Kubernetes resources using kind and namespace, 
+	 * without spec, status and managedFields
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @return metadata
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public List<ObjectMetadata> listResourcesMetadata(String fullkind, String namespace) throws Exception {
+		try (Stream<ObjectMetadata> items = streamResourcesMetadata(fullkind, namespace, 
+						null, null, KubernetesPager.DEFAULT_PAGE_SIZE)) {
+			return items.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * stream the metadata of all Kubernetes resources, the api-server sends 
+	 * PartialObjectMetadataList, or full lists if it does not support it
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param fields    fieldSelector, or null
+	 * @param labels    labelSelector, or null
+	 * @param pageSize  items per request
+	 * @return metadata
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Stream<ObjectMetadata> streamResourcesMetadata(String fullkind, String namespace, FieldSelector fields, 
+			LabelSelector labels, int pageSize) throws Exception {
+		return pageResources(fullkind, namespace, fields, labels, pageSize)
+						.withAccept(KubernetesConstants.HTTP_ACCEPT_METADATA_LIST)
+						.stream().map(ObjectMetadata::from);
+	}
+
 	/**
 	 * list all Kubernetes resources using kind, namespace, fieldSelector,
 	 * labelSelector, limit and nextId
@@ -870,7 +1479,7 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes cannot parsing this jsonStr
 	 */
 	public JsonNode updateResourceStatusByObject(String obj) throws Exception {
-		return updateResourceStatus(new ObjectMapper().readTree(obj));
+		return updateResourceStatus(JsonSupport.readTree(obj));
 	}
 	
 	/**
@@ -881,7 +1490,7 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes cannot parsing this jsonStr
 	 */
 	public JsonNode updateResourceStatusByJson(String obj) throws Exception {
-		return updateResourceStatus(new ObjectMapper().valueToTree(obj));
+		return updateResourceStatus(JsonSupport.valueToTree(obj));
 	}
 
 	/**
@@ -892,9 +1501,8 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes cannot parsing this jsonStr
 	 */
 	public String updateResourceStatusByYaml(String yaml) throws Exception {
-		ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-		JsonNode jsonNode = mapper.readTree(yaml);
-		return new YAMLMapper().writeValueAsString(updateResourceStatus(jsonNode));
+		JsonNode jsonNode = JsonSupport.readYaml(yaml);
+		return JsonSupport.toYaml(updateResourceStatus(jsonNode));
 	}
 	
 	/**
@@ -914,6 +1522,40 @@ public class KubernetesClient {
 		return getResponse(request);
 	}
 
+	/**
+	 * patch the status of a Kubernetes resource, for example, a merge patch can be <br>
+	 * {"status": {"phase": "Running"}}
+	 * 
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch
+	 * @return json patched object with json style
+	 * @throws Exception see HttpCaller.getResponse
+	 */
+	public JsonNode patchResourceStatus(String fullkind, String namespace, String name, PatchType type, JsonNode patch) throws Exception {
+		return patchResourceStatus(fullkind, namespace, name, type, patch.toString());
+	}
+
+	/**
+	 * patch the status of a Kubernetes resource
+	 * 
+	 * @param fullkind  kind or fullkind
+	 * @param namespace namespace, "" for cluster-scoped kinds
+	 * @param name      name
+	 * @param type      patch format
+	 * @param patch     patch in json
+	 * @return json patched object with json style
+	 * @throws Exception see HttpCaller.getResponse
+	 */
+	public JsonNode patchResourceStatus(String fullkind, String namespace, String name, PatchType type, String patch) throws Exception {
+
+		final String uri = analyzer.getConvertor().updateStatusUrl(fullkind, namespace, name);
+		HttpPatch request = ReqUtil.patch(kubernetesAdminConfig, uri, patch, type.getContentType());
+		return getResponse(request);
+	}
+
 	/**
 	 * watch a Kubernetes resource using kind, namespace, name and WebSocketListener
 	 * 
@@ -957,12 +1599,10 @@ public class KubernetesClient {
 	 */
 	Thread watchResource(String watchName, String fullkind, String namespace, String name, KubernetesWatcher watcher)
 			throws Exception {
-		HttpGet request = ReqUtil.get(kubernetesAdminConfig, analyzer.getConvertor().watchOneUrl(fullkind, namespace, name));
-		request.setHeader("Connection", "keep-alive");
-		watcher.setRequest(request);
-		Thread thread = new Thread(watcher, watchName);
-		thread.start();
-		return thread;
+		watcher.setWatchUrl(analyzer.getConvertor().watchOneUrl(fullkind, namespace, name));
+		watcher.setListUrl(analyzer.getConvertor().listUrl(fullkind, namespace) + KubernetesConstants.HTTP_QUERY_KIND + fullkind
+				+ KubernetesConstants.HTTP_QUERY_FIELDSELECTOR + URLUtil.fromMap(Map.of("metadata.name", name)));
+		return startWatcher(watchName, watcher);
 	}
 
 	/**
@@ -992,6 +1632,21 @@ public class KubernetesClient {
 		return watchResources(watchName, fullkind, namespace, watcher);
 	}
 
+	/**
+	 * watch the metadata of Kubernetes resources using kind and namespace, the watcher
+	 * receives PartialObjectMetadata, see <code>ObjectMetadata.from</code>
+	 * 
+	 * @param fullkind  kind
+	 * @param namespace namespace
+	 * @param watcher   watcher
+	 * @return thread thread
+	 * @throws Exception Kubernetes cannot parsing this jsonStr
+	 */
+	public Thread watchResourcesMetadata(String fullkind, String namespace, KubernetesWatcher watcher) throws Exception {
+		watcher.setMetadataOnly(true);
+		return watchResourcesByFullkindAndNamespace(fullkind, namespace, watcher);
+	}
+
 	/**
 	 * watch a Kubernetes resources using kind, namespace, and WebSocketListener
 	 * 
@@ -1004,10 +1659,20 @@ public class KubernetesClient {
 	 */
 	Thread watchResources(String watchName, String fullkind, String namespace, KubernetesWatcher watcher)
 			throws Exception {
-		HttpGet request = ReqUtil.get(kubernetesAdminConfig, analyzer.getConvertor().watchAllUrl(fullkind, namespace));
-		request.setHeader("Connection", "keep-alive");
-		watcher.setRequest(request);
-		Thread thread = new Thread(watcher, watchName);
+		watcher.setWatchUrl(analyzer.getConvertor().watchAllUrl(fullkind, namespace));
+		watcher.setListUrl(analyzer.getConvertor().listUrl(fullkind, namespace) + KubernetesConstants.HTTP_QUERY_KIND + fullkind);
+		return startWatcher(watchName, watcher);
+	}
+
+	/**
+	 * @param watchName name
+	 * @param watcher   watcher
+	 * @return the started thread, it is a virtual thread if 
+	 *         <code>KubernetesClientOptions.withVirtualThreads</code>
+	 */
+	protected Thread startWatcher(String watchName, KubernetesWatcher watcher) {
+		Thread thread = options.getThreadFactory().newThread(watcher);
+		thread.setName(watchName);
 		thread.start();
 		return thread;
 	}
@@ -1025,13 +1690,10 @@ public class KubernetesClient {
 	 */
 	public Thread watchPodsOnLocalNode(KubernetesWatcher watcher) throws Exception {
 		String hostname = InetAddress.getLocalHost().getHostName().toLowerCase();
-		HttpGet request = ReqUtil.get(kubernetesAdminConfig,
-				analyzer.getConvertor().watchAllUrlWithFieldSelector("Pod", "", "spec.nodeName=" + hostname));
-		request.setHeader("Connection", "keep-alive");
-		watcher.setRequest(request);
-		Thread thread = new Thread(watcher, "watch-pods-by-hostname");
-		thread.start();
-		return thread;
+		watcher.setWatchUrl(analyzer.getConvertor().watchAllUrlWithFieldSelector("Pod", "", "spec.nodeName=" + hostname));
+		watcher.setListUrl(analyzer.getConvertor().listUrl("Pod", "") + KubernetesConstants.HTTP_QUERY_KIND + "Pod"
+				+ KubernetesConstants.HTTP_QUERY_FIELDSELECTOR + URLUtil.fromMap(Map.of("spec.nodeName", hostname)));
+		return startWatcher("watch-pods-by-hostname", watcher);
 	}
 
 	
@@ -1236,8 +1898,7 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes unavailability
 	 */
 	public JsonNode getKinds() throws Exception {
-		return new ObjectMapper().readTree(new ObjectMapper()
-				.writeValueAsString(getAnalyzer().getConvertor().getRuleBase().fullKindToKindMapper.values()));
+		return JsonSupport.valueToTree(getAnalyzer().getConvertor().getRuleBase().fullKindToKindMapper.values());
 	}
 
 	/**
@@ -1245,8 +1906,7 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes unavailability
 	 */
 	public JsonNode getFullKinds() throws Exception {
-		return new ObjectMapper().readTree(new ObjectMapper()
-				.writeValueAsString(getAnalyzer().getConvertor().getRuleBase().fullKindToKindMapper.keySet()));
+		return JsonSupport.valueToTree(getAnalyzer().getConvertor().getRuleBase().fullKindToKindMapper.keySet());
 	}
 	
 	/**
@@ -1255,8 +1915,7 @@ public class KubernetesClient {
 	 * @throws Exception Kubernetes unavailability
 	 */
 	public JsonNode getFullKind(String kind) throws Exception {
-		return new ObjectMapper().readTree(new ObjectMapper()
-				.writeValueAsString(getAnalyzer().getConvertor().getRuleBase().kindToFullKindMapper.get(kind)));
+		return JsonSupport.valueToTree(getAnalyzer().getConvertor().getRuleBase().kindToFullKindMapper.get(kind));
 	}
 
 	/**
@@ -1264,10 +1923,10 @@ public class KubernetesClient {
 	 */
 	public JsonNode getKindDesc() {
 
-		ObjectNode map = new ObjectMapper().createObjectNode();
+		ObjectNode map = JsonSupport.createObjectNode();
 		KubernetesRuleBase ruleBase = analyzer.getConvertor().getRuleBase();
 		for (String kind : ruleBase.fullKindToNamespacedMapper.keySet()) {
-			ObjectNode node = new ObjectMapper().createObjectNode();
+			ObjectNode node = JsonSupport.createObjectNode();
 			node.put(KubernetesConstants.KUBE_APIVERSION, ruleBase.fullKindToVersionMapper.get(kind));
 			node.put(KubernetesConstants.KUBE_KIND, ruleBase.fullKindToKindMapper.get(kind));
 			node.put(KubernetesConstants.KUBE_SPEC_NAMES_PLURAL, ruleBase.fullKindToNameMapper.get(kind));
@@ -1320,26 +1979,11 @@ public class KubernetesClient {
 	public String getPodLog(String namespace, String pod) throws Exception {
 		final String uri = analyzer.getConvertor().getUrl("Pod", namespace, pod) + "/log";
 		HttpGet request = ReqUtil.get(kubernetesAdminConfig, uri);
-		return IOUtils.toString(httpClient.execute(request).getEntity().getContent());
-	}
-	
-	/**
-	 * create a new HttpCaller for each WatchResource or WatchResources API
-	 * 
-	 * @return httpCaller
-	 * @throws Exception exception
-	 */
-	CloseableHttpClient copy() throws Exception {
-		KubernetesAdminConfig kac = (kubernetesAdminConfig.getToken() != null) 
-				? new KubernetesAdminConfig(
-						kubernetesAdminConfig.getMasterUrl(), 
-						kubernetesAdminConfig.getToken()) 
-				: new KubernetesAdminConfig(
-						kubernetesAdminConfig.getMasterUrl(), 
-						kubernetesAdminConfig.getCaCertData(), 
-						kubernetesAdminConfig.getClientCertData(),
-						kubernetesAdminConfig.getClientKeyData());
-		return createDefaultHttpClient(kac);
+		// the log is plain text, see openResponse
+		request.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT, "*/*");
+		try (ClassicHttpResponse response = openResponse(request)) {
+			return IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+		}
 	}
 
 }
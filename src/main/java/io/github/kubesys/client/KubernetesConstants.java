@@ -80,12 +80,57 @@ public final class KubernetesConstants {
 	 */
 	public static final String HTTP_QUERY_NEXTID             = "&continue=";
 	
+	/**
+	 * HTTP_QUERY_RESOURCEVERSION
+	 */
+	public static final String HTTP_QUERY_RESOURCEVERSION    = "&resourceVersion=";
+	
 	/**
 	 * HTTP_QUERY_WATCHER_ENABLE
 	 */
-	public static final String HTTP_QUERY_WATCHER_ENABLE     = "?watch=true&timeoutSeconds=315360000";
+	public static final String HTTP_QUERY_WATCHER_ENABLE     = "?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true";
 //	public static final String HTTP_QUERY_WATCHER_ENABLE     = "?watch=true&timeoutSeconds=0";
 	
+	/**
+	 * HTTP_QUERY_FIELDMANAGER
+	 */
+	public static final String HTTP_QUERY_FIELDMANAGER       = "?fieldManager=";
+	
+	/**
+	 * HTTP_QUERY_FORCE, takes the conflicting fields from other managers
+	 */
+	public static final String HTTP_QUERY_FORCE              = "&force=true";
+	
+	/**
+	 * HTTP_HEADER_ACCEPT
+	 */
+	public static final String HTTP_HEADER_ACCEPT            = "Accept";
+	
+	/**
+	 * HTTP_ACCEPT_METADATA, full objects if the api-server does not support it
+	 */
+	public static final String HTTP_ACCEPT_METADATA          = "application/json;as=PartialObjectMetadata;g=meta.k8s.io;v=v1,application/json";
+	
+	/**
+	 * HTTP_ACCEPT_METADATA_LIST, full lists if the api-server does not support it
+	 */
+	public static final String HTTP_ACCEPT_METADATA_LIST     = "application/json;as=PartialObjectMetadataList;g=meta.k8s.io;v=v1,application/json";
+	
+	/**
+	 * HTTP_HEADER_ACCEPT_ENCODING
+	 */
+	public static final String HTTP_HEADER_ACCEPT_ENCODING   = "Accept-Encoding";
+	
+	/**
+	 * HTTP_HEADER_CONTENT_ENCODING
+	 */
+	public static final String HTTP_HEADER_CONTENT_ENCODING  = "Content-Encoding";
+	
+	/**
+	 * HTTP_ACCEPT_ENCODING_COMPRESSED
+	 */
+	public static final String HTTP_ACCEPT_ENCODING_COMPRESSED = "gzip, deflate";
+	
 	
 	
 	/*************************************
@@ -147,6 +192,26 @@ public final class KubernetesConstants {
 	 */
 	public static final String KUBE_METADATA_NAME           = "name";
 	
+	/**
+	 * KUBE_METADATA_RESOURCEVERSION
+	 */
+	public static final String KUBE_METADATA_RESOURCEVERSION = "resourceVersion";
+	
+	/**
+	 * KUBE_METADATA_CONTINUE
+	 */
+	public static final String KUBE_METADATA_CONTINUE       = "continue";
+	
+	/**
+	 * KUBE_ITEMS
+	 */
+	public static final String KUBE_ITEMS                   = "items";
+	
+	/**
+	 * KUBE_CODE, the http status code in a Status object
+	 */
+	public static final String KUBE_CODE                    = "code";
+	
 	/**
 	 * KUBE_TARGET
 	 */
@@ -346,6 +411,16 @@ public final class KubernetesConstants {
 	 */
 	public static final String JSON_TYPE_DELETED             = "DELETED";
 	
+	/**
+	 * JSON_TYPE_ERROR, its object is a Status
+	 */
+	public static final String JSON_TYPE_ERROR               = "ERROR";
+	
+	/**
+	 * JSON_TYPE_BOOKMARK, its object only has a valid metadata.resourceVersion
+	 */
+	public static final String JSON_TYPE_BOOKMARK            = "BOOKMARK";
+	
 	
 	/*************************************
 	 * 
@@ -15,17 +15,28 @@
  */
 package io.github.kubesys.client;
 
-import java.util.HashMap;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Logger;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import io.github.kubesys.client.watchers.KubernetesObjectWatcher;
+import io.github.kubesys.client.beans.PatchType;
+import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
+import io.github.kubesys.client.exceptions.KubernetesResourceNotFoundException;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ResourceDiff;
 
 /**
  * @author  wuheng09@gmail.com
@@ -33,6 +44,12 @@ import io.github.kubesys.client.watchers.KubernetesObjectWatcher;
  * 
  * it is used for generating Pods and related resources
  * 
+ * The children generated by <code>parseFrom</code> are matched with the children of
+ * the last event of the same object by kind/namespace/name, so only the added ones are
+ * created, the changed ones are patched with the changed fields, and the removed ones
+ * are deleted. Each child is converted to json only once. A child whose call fails
+ * keeps its last state, so the call is sent again by the next event of the object.
+ * 
  **/
 public abstract class KubernetesOperator<O> {
 
@@ -47,92 +64,307 @@ public abstract class KubernetesOperator<O> {
 	protected final KubernetesClient client;
 	
 	/**
-	 * cached
+	 * cached, it is written by the watch thread and can be read by others
+	 */
+	protected final Map<String, Map<String, List<O>>> cached = new ConcurrentHashMap<>();
+	
+	/**
+	 * the children of the last event by identity, see ResourceDiff.identity
 	 */
-	protected final Map<String, Map<String, List<O>>> cached = new HashMap<>();
+	protected final Map<String, Map<String, JsonNode>> children = new ConcurrentHashMap<>();
+	
+	/**
+	 * the type of watched objects
+	 */
+	protected final Class<?> type;
+	
+	/**
+	 * max calls in flight for one event
+	 */
+	protected final int parallelism;
 	
 	
 	protected KubernetesOperator(KubernetesClient client, String kind) throws Exception {
+		this(client, kind, 1);
+	}
+	
+	/**
+	 * @param client      client
+	 * @param kind        kind or fullkind of the watched objects
+	 * @param parallelism max calls in flight for one event, 1 means they are sent one by one
+	 *                    in the watch thread
+	 * @throws Exception  Exception
+	 */
+	protected KubernetesOperator(KubernetesClient client, String kind, int parallelism) throws Exception {
 		this.client = client;
-		client.watchResources(kind, new KubernetesObjectWatcher<O>(client) {
+		this.type = typeOf(getClass());
+		this.parallelism = Math.max(parallelism, 1);
+		client.watchResources(kind, new KubernetesWatcher(client) {
 
 			@Override
-			public void doObjectAdded(O node) {
-				Map<String, List<O>> values = parseFrom(node);
-				doResourceCreate(values);
-				cached.put(getName(node), values);
+			public void doAdded(JsonNode node) {
+				reconcile(node, false);
 			}
 
 			@Override
-			public void doObjectModified(O node) {
-				Map<String, List<O>> current = parseFrom(node);
-				Map<String, List<O>> last = cached.get(getName(node));
-				doResourceCreate(diffAdded(current, last));
-				doResourceRemove(diffAdded(current, last));
-				cached.put(getName(node), current);
+			public void doModified(JsonNode node) {
+				reconcile(node, false);
 			}
 
 			@Override
-			public void doObjectDeleted(O node) {
-				Map<String, List<O>> values = parseFrom(node);
-				doResourceRemove(values);
-				cached.remove(getName(node));
+			public void doDeleted(JsonNode node) {
+				reconcile(node, true);
 			}
 
 			@Override
 			public void doClose() {
-				System.exit(1);
+				KubernetesOperator.this.doClose();
 			}
 		});
 	}
 	
 	public abstract Map<String, List<O>> parseFrom(O currentOne);
 	
-	public abstract Map<String, List<O>> diffAdded(
+	/**
+	 * it is not used by the operator any more, which computes the differences by itself
+	 * 
+	 * @param currentOne current children
+	 * @param lastOne    last children, or null
+	 * @return children of currentOne whose kind/namespace/name are not in lastOne
+	 */
+	public Map<String, List<O>> diffAdded(
 								Map<String, List<O>> currentOne, 
-								Map<String, List<O>> lastOne);
+								Map<String, List<O>> lastOne) {
+		return select(currentOne, lastOne);
+	}
 	
-	public abstract Map<String, List<O>> diffRemoved(
+	/**
+	 * it is not used by the operator any more, which computes the differences by itself
+	 * 
+	 * @param currentOne current children
+	 * @param lastOne    last children, or null
+	 * @return children of lastOne whose kind/namespace/name are not in currentOne
+	 */
+	public Map<String, List<O>> diffRemoved(
 								Map<String, List<O>> currentOne, 
-								Map<String, List<O>> lastOne);
-	
-	private void doResourceCreate(Map<String, List<O>> objects) {
-		for (String key : objects.keySet()) {
-			for (Object obj : objects.get(key)) {
-				try {
-					client.createResource(new ObjectMapper().readTree(
-							new ObjectMapper().writeValueAsString(obj)));
-				} catch (Exception e) {
-					m_logger.severe(e.toString());
+								Map<String, List<O>> lastOne) {
+		return select(lastOne, currentOne);
+	}
+	
+	/**
+	 * the watch cannot be recovered, it exits by default
+	 */
+	protected void doClose() {
+		System.exit(1);
+	}
+	
+	/**
+	 * @param node    the watched object
+	 * @param deleted it is deleted
+	 */
+	@SuppressWarnings("unchecked")
+	protected void reconcile(JsonNode node, boolean deleted) {
+		String key = getName(node.get(KubernetesConstants.KUBE_METADATA));
+		try {
+			Map<String, JsonNode> last = children.get(key);
+			if (deleted) {
+				if (last == null) {
+					last = index(parseFrom((O) toObject(node)));
+				}
+				Set<String> failed = execute(new ResourceDiff(last, Collections.emptyMap()));
+				cached.remove(key);
+				Map<String, JsonNode> remaining = settle(last, Collections.emptyMap(), failed);
+				if (remaining.isEmpty()) {
+					children.remove(key);
+				} else {
+					children.put(key, remaining);
+				}
+			} else {
+				Map<String, List<O>> values = parseFrom((O) toObject(node));
+				Map<String, JsonNode> current = index(values);
+				if (last == null) {
+					last = Collections.emptyMap();
 				}
+				Set<String> failed = execute(new ResourceDiff(last, current));
+				cached.put(key, values);
+				children.put(key, settle(last, current, failed));
 			}
+		} catch (Exception e) {
+			m_logger.severe("fail to reconcile " + key + ": " + e);
 		}
 	}
 	
-	private void doResourceRemove(Map<String, List<O>> objects) {
-		for (String key : objects.keySet()) {
-			for (Object obj : objects.get(key)) {
-				try {
-					client.deleteResource(new ObjectMapper().readTree(
-							new ObjectMapper().writeValueAsString(obj)));
-				} catch (Exception e) {
-					m_logger.severe(e.toString());
+	/**
+	 * deletes the removed children first, then creates the added ones and patches the
+	 * changed ones, a failure is logged and does not stop the others
+	 * 
+	 * @param diff differences
+	 * @return identities of the children whose calls failed
+	 */
+	protected Set<String> execute(ResourceDiff diff) {
+		Map<String, Callable<JsonNode>> calls = new LinkedHashMap<>();
+		for (JsonNode json : diff.getRemoved()) {
+			calls.put(ResourceDiff.identity(json), () -> doResourceRemove(json));
+		}
+		for (JsonNode json : diff.getAdded()) {
+			calls.put(ResourceDiff.identity(json), () -> doResourceCreate(json));
+		}
+		for (ResourceDiff.Change change : diff.getChanged()) {
+			calls.put(ResourceDiff.identity(change.getCurrent()), 
+							() -> doResourcePatch(change.getCurrent(), change.getPatch()));
+		}
+
+		Set<String> failed = ConcurrentHashMap.newKeySet();
+		if (parallelism == 1 || calls.size() <= 1) {
+			calls.forEach((identity, c) -> call(identity, c, failed));
+			return failed;
+		}
+		Queue<Map.Entry<String, Callable<JsonNode>>> queue = new ConcurrentLinkedQueue<>(calls.entrySet());
+		List<CompletableFuture<Void>> lanes = new ArrayList<>();
+		for (int t = 0; t < Math.min(parallelism, calls.size()); t++) {
+			lanes.add(client.submit(() -> {
+				Map.Entry<String, Callable<JsonNode>> c;
+				while ((c = queue.poll()) != null) {
+					call(c.getKey(), c.getValue(), failed);
 				}
+				return null;
+			}));
+		}
+		CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0])).join();
+		return failed;
+	}
+
+	/**
+	 * the children which are recorded for the next diff, a failed child keeps its last
+	 * state, or is left out if it is new, so the next event sends its call again
+	 * 
+	 * @param last    children of the last event
+	 * @param current children of this event
+	 * @param failed  identities of the failed calls
+	 * @return children by identity
+	 */
+	protected static Map<String, JsonNode> settle(Map<String, JsonNode> last, 
+						Map<String, JsonNode> current, Set<String> failed) {
+		if (failed.isEmpty()) {
+			return current;
+		}
+		Map<String, JsonNode> settled = new LinkedHashMap<>(current);
+		for (String identity : failed) {
+			JsonNode old = last.get(identity);
+			if (old == null) {
+				settled.remove(identity);
+			} else {
+				settled.put(identity, old);
 			}
 		}
+		return settled;
 	}
 	
-	private String getName(O o) {
-		JsonNode node = null;
+	/**
+	 * @param json child
+	 * @return created child, or the patched one if it exists, e.g. after a restart
+	 * @throws Exception Exception
+	 */
+	protected JsonNode doResourceCreate(JsonNode json) throws Exception {
 		try {
-			node = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(o));
-		} catch (JsonMappingException e) {
-			m_logger.severe(e.toString());
-		} catch (JsonProcessingException e) {
-			m_logger.severe(e.toString());
+			return client.createResource(json);
+		} catch (KubernetesConflictResourceException e) {
+			return doResourcePatch(json, json);
 		}
-
-		return node == null ? null : getName(node.get("metadata"));
+	}
+	
+	/**
+	 * @param json  child
+	 * @param patch the changed fields of the child
+	 * @return patched child
+	 * @throws Exception Exception
+	 */
+	protected JsonNode doResourcePatch(JsonNode json, JsonNode patch) throws Exception {
+		return client.patchResource(client.getAnalyzer().getConvertor().fullkind(json), 
+				client.getAnalyzer().getConvertor().namespace(json), 
+				client.getAnalyzer().getConvertor().name(json), PatchType.MERGE, patch);
+	}
+	
+	/**
+	 * @param json child
+	 * @return deleted child, or null if it does not exist
+	 * @throws Exception Exception
+	 */
+	protected JsonNode doResourceRemove(JsonNode json) throws Exception {
+		try {
+			return client.deleteResource(json);
+		} catch (KubernetesResourceNotFoundException e) {
+			return null;
+		}
+	}
+	
+	private static void call(String identity, Callable<JsonNode> call, Set<String> failed) {
+		try {
+			call.call();
+		} catch (Exception e) {
+			failed.add(identity);
+			m_logger.severe("fail to reconcile " + identity + ": " + e);
+		}
+	}
+	
+	/**
+	 * @param values children
+	 * @return children by identity
+	 */
+	protected Map<String, JsonNode> index(Map<String, List<O>> values) {
+		List<JsonNode> jsons = new ArrayList<>();
+		if (values != null) {
+			for (List<O> list : values.values()) {
+				for (O obj : list) {
+					jsons.add(toJson(obj));
+				}
+			}
+		}
+		return ResourceDiff.index(jsons);
+	}
+	
+	private Map<String, List<O>> select(Map<String, List<O>> from, Map<String, List<O>> without) {
+		Map<String, JsonNode> excluded = index(without);
+		Map<String, List<O>> selected = new LinkedHashMap<>();
+		if (from != null) {
+			for (Map.Entry<String, List<O>> entry : from.entrySet()) {
+				for (O obj : entry.getValue()) {
+					if (!excluded.containsKey(ResourceDiff.identity(toJson(obj)))) {
+						selected.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(obj);
+					}
+				}
+			}
+		}
+		return selected;
+	}
+	
+	private JsonNode toJson(Object obj) {
+		return obj instanceof JsonNode ? (JsonNode) obj : JsonSupport.valueToTree(obj);
+	}
+	
+	private Object toObject(JsonNode node) throws Exception {
+		return type.isInstance(node) ? node : JsonSupport.treeToValue(node, type);
+	}
+	
+	/**
+	 * @param clz the subclass
+	 * @return the class of O, or JsonNode if it is not a class
+	 */
+	private static Class<?> typeOf(Class<?> clz) {
+		while (clz.getSuperclass() != KubernetesOperator.class) {
+			clz = clz.getSuperclass();
+		}
+		Type type = clz.getGenericSuperclass();
+		if (type instanceof ParameterizedType) {
+			Type arg = ((ParameterizedType) type).getActualTypeArguments()[0];
+			if (arg instanceof Class) {
+				return (Class<?>) arg;
+			}
+			if (arg instanceof ParameterizedType) {
+				return (Class<?>) ((ParameterizedType) arg).getRawType();
+			}
+		}
+		return JsonNode.class;
 	}
 	
 	private String getName(JsonNode meta) {
@@ -0,0 +1,370 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ReqUtil;
+
+/**
+ * Lists a kind page by page with <code>limit</code> and <code>continue</code>, the next
+ * page is requested only when the current one is consumed, and the items are parsed
+ * one by one from the response, so memory does not grow with the size of the cluster.
+ *
+ * Items get the apiVersion and kind of the list, as they have none. It is not thread-safe,
+ * and it should be closed if it is not iterated to the end.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class KubernetesPager implements Iterator<JsonNode>, AutoCloseable {
+
+	public static final Logger m_logger = Logger.getLogger(KubernetesPager.class.getName());
+
+	/**
+	 * default page size
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 500;
+
+	/**
+	 * client
+	 */
+	protected final KubernetesClient client;
+
+	/**
+	 * list url with query, such as /api/v1/pods?kind=Pod
+	 */
+	protected final String listUrl;
+
+	/**
+	 * page size
+	 */
+	protected final int pageSize;
+
+	/**
+	 * Accept header, or null for json
+	 */
+	protected String accept;
+
+	/**
+	 * response of the current page
+	 */
+	protected ClassicHttpResponse response;
+
+	/**
+	 * parser of the current page
+	 */
+	protected JsonParser parser;
+
+	/**
+	 * the parser is in the items array
+	 */
+	protected boolean inItems = false;
+
+	/**
+	 * continue token of the current page
+	 */
+	protected String continueToken;
+
+	/**
+	 * the first page is requested
+	 */
+	protected boolean started = false;
+
+	/**
+	 * all pages are read, or it is closed
+	 */
+	protected boolean finished = false;
+
+	/**
+	 * resourceVersion of the first page
+	 */
+	protected String resourceVersion;
+
+	protected String apiVersion;
+
+	protected String kind;
+
+	/**
+	 * number of requested pages
+	 */
+	protected int pages = 0;
+
+	/**
+	 * the item returned by next
+	 */
+	protected JsonNode next;
+
+	/**
+	 * @param client   client
+	 * @param listUrl  list url with query, such as /api/v1/pods?kind=Pod
+	 * @param pageSize page size
+	 */
+	public KubernetesPager(KubernetesClient client, String listUrl, int pageSize) {
+		super();
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("pageSize must be positive");
+		}
+		this.client = client;
+		this.listUrl = listUrl;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @param accept Accept header, such as <code>KubernetesConstants.HTTP_ACCEPT_METADATA_LIST</code>
+	 * @return this
+	 */
+	public KubernetesPager withAccept(String accept) {
+		this.accept = accept;
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		try {
+			while (!finished) {
+				if (parser == null) {
+					if (started && continueToken == null) {
+						finished = true;
+						break;
+					}
+					openPage();
+					continue;
+				}
+				JsonNode item = nextItem();
+				if (item != null) {
+					next = item;
+					return true;
+				}
+				closePage(true);
+			}
+			return false;
+		} catch (IOException ex) {
+			close();
+			throw new UncheckedIOException(ex);
+		} catch (RuntimeException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	@Override
+	public JsonNode next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		JsonNode item = next;
+		next = null;
+		return item;
+	}
+
+	/**
+	 * @return items as a stream, closing it closes this pager
+	 */
+	public Stream<JsonNode> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+					this, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+	}
+
+	/**
+	 * @throws IOException IOException
+	 */
+	protected void openPage() throws IOException {
+		String nextId = continueToken;
+		started = true;
+		continueToken = null;
+		pages++;
+
+		response = request(nextId);
+		parser = JsonSupport.createParser(response.getEntity().getContent());
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new IOException("list of " + listUrl + " is not an object");
+		}
+		readFields();
+	}
+
+	/**
+	 * @param nextId continue token, or null for the first page
+	 * @return response with status 200, it must be closed
+	 * @throws IOException IOException
+	 */
+	protected ClassicHttpResponse request(String nextId) throws IOException {
+		StringBuilder uri = new StringBuilder(listUrl)
+						.append(KubernetesConstants.HTTP_QUERY_PAGELIMIT).append(pageSize);
+		if (nextId != null) {
+			uri.append(KubernetesConstants.HTTP_QUERY_NEXTID)
+						.append(URLEncoder.encode(nextId, StandardCharsets.UTF_8));
+		}
+
+		HttpGet get = ReqUtil.get(client.getKubernetesAdminConfig(), uri.toString());
+		if (accept != null) {
+			get.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT, accept);
+		}
+		ClassicHttpResponse resp = client.openResponse(get);
+		if (resp.getCode() != 200) {
+			int code = resp.getCode();
+			String message = KubernetesClient.convertToString(resp);
+			resp.close();
+			throw KubernetesClient.toException(code, message);
+		}
+		return resp;
+	}
+
+	/**
+	 * reads the fields of the list until the items array or the end
+	 *
+	 * @throws IOException IOException
+	 */
+	protected void readFields() throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if (KubernetesConstants.KUBE_ITEMS.equals(field) && token == JsonToken.START_ARRAY) {
+				inItems = true;
+				return;
+			} else if (KubernetesConstants.KUBE_METADATA.equals(field)) {
+				JsonNode meta = parser.readValueAsTree();
+				String nextId = meta.path(KubernetesConstants.KUBE_METADATA_CONTINUE).asText("");
+				continueToken = nextId.isEmpty() ? null : nextId;
+				if (resourceVersion == null) {
+					resourceVersion = meta.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText(null);
+				}
+			} else if (KubernetesConstants.KUBE_APIVERSION.equals(field)) {
+				apiVersion = parser.getText();
+			} else if (KubernetesConstants.KUBE_KIND.equals(field)) {
+				kind = itemKind(parser.getText());
+			} else {
+				parser.skipChildren();
+			}
+		}
+		inItems = false;
+	}
+
+	/**
+	 * @return the next item of the page, or null at the end of the page
+	 * @throws IOException IOException
+	 */
+	protected JsonNode nextItem() throws IOException {
+		while (inItems) {
+			JsonToken token = parser.nextToken();
+			if (token == JsonToken.START_OBJECT) {
+				return withKind(parser.readValueAsTree(), apiVersion, kind);
+			} else if (token == JsonToken.END_ARRAY) {
+				// metadata may be written after the items
+				readFields();
+			} else if (token == null) {
+				throw new IOException("list of " + listUrl + " is truncated");
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param listKind kind of the list, such as PodList
+	 * @return kind of the items, or null
+	 */
+	protected static String itemKind(String listKind) {
+		return listKind.endsWith("List") ? listKind.substring(0, listKind.length() - 4) : null;
+	}
+
+	/**
+	 * @param item       item of a list
+	 * @param apiVersion apiVersion of the list, or null
+	 * @param kind       kind of the items, or null
+	 * @return item
+	 */
+	protected static JsonNode withKind(JsonNode item, String apiVersion, String kind) {
+		if (item instanceof ObjectNode) {
+			if (apiVersion != null) {
+				((ObjectNode) item).put(KubernetesConstants.KUBE_APIVERSION, apiVersion);
+			}
+			if (kind != null) {
+				((ObjectNode) item).put(KubernetesConstants.KUBE_KIND, kind);
+			}
+		}
+		return item;
+	}
+
+	/**
+	 * @param consume read the rest of the body, so the connection can be reused
+	 */
+	protected void closePage(boolean consume) {
+		try {
+			if (parser != null) {
+				parser.close();
+			}
+			if (response != null) {
+				if (consume) {
+					EntityUtils.consume(response.getEntity());
+				}
+				response.close();
+			}
+		} catch (IOException ex) {
+			m_logger.warning("fail to close " + listUrl + ": " + ex);
+		} finally {
+			parser = null;
+			response = null;
+			inItems = false;
+		}
+	}
+
+	@Override
+	public void close() {
+		finished = true;
+		next = null;
+		closePage(false);
+	}
+
+	/**
+	 * @return resourceVersion of the list, it is known after the first page
+	 */
+	public String getResourceVersion() {
+		return resourceVersion;
+	}
+
+	/**
+	 * @return number of requested pages
+	 */
+	public int getPages() {
+		return pages;
+	}
+}
@@ -15,34 +15,112 @@
  */
 package io.github.kubesys.client;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ReqUtil;
+import io.github.kubesys.client.watchers.WatchEvent;
+import io.github.kubesys.client.watchers.WatchEventDecoder;
+import io.github.kubesys.client.watchers.WatchManager;
 
 /**
+ * A watcher keeps the last seen <code>metadata.resourceVersion</code>, so that a broken
+ * stream is reopened from where it stopped, with a backoff from 1 to 30 seconds.
+ * Bookmarks are requested, they move the version forward on quiet streams, so that
+ * it is not compacted by etcd before the next reconnect.
+ *
+ * If the version is too old (410 Gone), the objects are listed page by page, and
+ * the differences to the objects seen before are delivered as ADDED, MODIFIED
+ * and DELETED events.
+ *
+ * <code>doClose</code> is only called if the watch cannot be recovered, i.e. 401, or 403 and 404
+ * for <code>MAX_REJECTIONS</code> times in a row, since a CRD may not be established yet, or a
+ * role may not be bound yet, but not after <code>stop</code> or closing the client.
+ *
  * @author  wuheng@iscas.ac.cn
- * 
- * 
+ *
+ *
  **/
 public abstract class KubernetesWatcher implements Runnable {
 
 	public static final Logger m_logger = Logger.getLogger(KubernetesWatcher.class.getName());
+
+	/**
+	 * initial backoff
+	 */
+	protected static final long MIN_BACKOFF = 1000;
+
+	/**
+	 * max backoff
+	 */
+	protected static final long MAX_BACKOFF = 30000;
+
+	/**
+	 * 403 or 404 in a row before the watch is closed, i.e. a few minutes with the backoff
+	 */
+	protected static final int MAX_REJECTIONS = 10;
+
 	/**
 	 * client
 	 */
 	protected KubernetesClient client;
-	
+
 	protected HttpGet request;
-	
+
+	/**
+	 * watch url without resourceVersion
+	 */
+	protected String watchUrl;
+
+	/**
+	 * list url with the same selectors, it is used for re-listing
+	 */
+	protected String listUrl;
+
+	/**
+	 * last seen resourceVersion, null means the watch starts from the current state
+	 */
+	protected volatile String resourceVersion;
+
+	/**
+	 * namespace/name to resourceVersion of all objects seen by this watcher
+	 */
+	protected final Map<String, String> versions = new ConcurrentHashMap<>();
+
+	/**
+	 * apiVersion of the watched kind, it is used by tombstones
+	 */
+	protected volatile String apiVersion;
+
+	/**
+	 * kind of the watched kind, it is used by tombstones
+	 */
+	protected volatile String kind;
+
+	/**
+	 * the open stream, it is shared by all watches of the client
+	 */
+	protected volatile WatchManager.Stream stream;
+
+	/**
+	 * stop is called
+	 */
+	protected volatile boolean stopped = false;
+
+	/**
+	 * watched and re-listed objects keep only apiVersion, kind and metadata
+	 */
+	protected boolean metadataOnly = false;
+
 	protected KubernetesWatcher(KubernetesClient client) {
 		super();
 		this.client = client;
@@ -50,28 +128,131 @@ public abstract class KubernetesWatcher implements Runnable {
 
 	public void setRequest(HttpGet request) {
 		this.request = request;
+		if (this.watchUrl == null) {
+			this.watchUrl = request.getRequestUri();
+		}
+	}
+
+	/**
+	 * @param watchUrl watch url without resourceVersion
+	 */
+	public void setWatchUrl(String watchUrl) {
+		this.watchUrl = watchUrl;
+	}
+
+	/**
+	 * handlers which only need the metadata receive PartialObjectMetadata from the
+	 * api-server, or full objects without spec and status if it is not supported,
+	 * see <code>ObjectMetadata.from</code>
+	 *
+	 * @param metadataOnly metadataOnly
+	 */
+	public void setMetadataOnly(boolean metadataOnly) {
+		this.metadataOnly = metadataOnly;
+	}
+
+	/**
+	 * @param listUrl list url with the same selectors as the watch url
+	 */
+	public void setListUrl(String listUrl) {
+		this.listUrl = listUrl;
 	}
 
 	@Override
 	public void run() {
-		
-		BufferedReader br = null;
-		try {
-			CloseableHttpClient httpClient = client.copy();
-			@SuppressWarnings("deprecation")
-			CloseableHttpResponse execute = httpClient.execute(request);
-			
-			br = new BufferedReader(new InputStreamReader(
-						execute.getEntity().getContent(), Charset.forName("utf-8")));
-		    String line = null;
-		    
-		    while ((line = br.readLine()) != null) {
-		    	JsonNode json = new ObjectMapper().readTree(line);
-		    	if (!json.has(KubernetesConstants.KUBE_TYPE)) {
-		    		continue;
-		    	}
-				String type = json.get(KubernetesConstants.KUBE_TYPE).asText();
-				JsonNode obj = json.get(KubernetesConstants.KUBE_OBJECT);
+
+		long backoff = MIN_BACKOFF;
+		int rejections = 0;
+		while (!isStopped()) {
+			int code;
+			try {
+				code = watch();
+			} catch (Exception ex) {
+				if (isStopped()) {
+					return;
+				}
+				m_logger.warning("watch " + watchUrl + " is broken: " + ex);
+				code = -1;
+			}
+
+			if (code == 200) {
+				// the stream is ended by the api-server, reconnect at once
+				backoff = MIN_BACKOFF;
+				rejections = 0;
+				continue;
+			}
+
+			if (code == 403 || code == 404) {
+				rejections++;
+			}
+			if (code == 401 || rejections >= MAX_REJECTIONS) {
+				m_logger.severe("watch " + watchUrl + " is closed with " + code);
+				doClose();
+				return;
+			}
+
+			if (code == 410) {
+				try {
+					relist();
+					backoff = MIN_BACKOFF;
+					continue;
+				} catch (Exception ex) {
+					m_logger.warning("fail to relist " + listUrl + ": " + ex);
+				}
+			}
+
+			pause(backoff);
+			backoff = Math.min(backoff * 2, MAX_BACKOFF);
+		}
+	}
+
+	/**
+	 * @return 200 if the stream ends normally, or the status code of the failure, or
+	 *         410 if the resourceVersion is too old
+	 * @throws Exception the connection fails
+	 */
+	protected int watch() throws Exception {
+		HttpGet get = ReqUtil.get(client.getKubernetesAdminConfig(),
+						resourceVersion == null ? watchUrl : watchUrl
+								+ KubernetesConstants.HTTP_QUERY_RESOURCEVERSION + resourceVersion);
+		if (metadataOnly) {
+			get.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT, KubernetesConstants.HTTP_ACCEPT_METADATA);
+		}
+
+		boolean received = false;
+		try (WatchManager.Stream current = client.getWatchManager().open(get)) {
+			this.stream = current;
+			if (isStopped()) {
+				return 200;
+			}
+			if (current.getCode() != 200) {
+				return current.getCode();
+			}
+
+			WatchEventDecoder decoder = new WatchEventDecoder(current.getContent(), metadataOnly);
+			WatchEvent event;
+			while ((event = decoder.next()) != null) {
+				String type = event.getType();
+				JsonNode obj = event.getObject();
+				if (type == null || obj == null) {
+					continue;
+				}
+				if (type.equals(KubernetesConstants.JSON_TYPE_BOOKMARK)) {
+					// only the resourceVersion of a bookmark is valid
+					if (event.getResourceVersion() != null) {
+						resourceVersion = event.getResourceVersion();
+					}
+					received = true;
+					continue;
+				}
+				if (type.equals(KubernetesConstants.JSON_TYPE_ERROR)) {
+					int code = obj.path(KubernetesConstants.KUBE_CODE).asInt(500);
+					m_logger.warning("watch " + watchUrl + " receives an error: " + obj);
+					return code;
+				}
+
+				received = true;
+				track(type, obj);
 				if (type.equals(KubernetesConstants.JSON_TYPE_ADDED)) {
 					doAdded(obj);
 				} else if (type.equals(KubernetesConstants.JSON_TYPE_MODIFIED)) {
@@ -79,40 +260,179 @@ public abstract class KubernetesWatcher implements Runnable {
 				} else if (type.equals(KubernetesConstants.JSON_TYPE_DELETED)) {
 					doDeleted(obj);
 				}
-		    }
-		} catch (Exception ex) {
-			m_logger.severe(ex.toString());
+			}
 		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException e) {
-					m_logger.warning(e.toString());
+			this.stream = null;
+		}
+
+		// a stream closed at once is a failure, otherwise it would reconnect in a tight loop
+		return received ? 200 : 500;
+	}
+
+	/**
+	 * @param type type
+	 * @param obj  obj
+	 */
+	protected void track(String type, JsonNode obj) {
+		JsonNode meta = obj.path(KubernetesConstants.KUBE_METADATA);
+		String rv = meta.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText(null);
+		if (rv != null) {
+			resourceVersion = rv;
+		}
+		if (apiVersion == null) {
+			apiVersion = obj.path(KubernetesConstants.KUBE_APIVERSION).asText(null);
+			kind = obj.path(KubernetesConstants.KUBE_KIND).asText(null);
+		}
+
+		String key = key(meta);
+		if (type.equals(KubernetesConstants.JSON_TYPE_DELETED)) {
+			versions.remove(key);
+		} else if (rv != null) {
+			versions.put(key, rv);
+		}
+	}
+
+	/**
+	 * lists all objects page by page, and delivers the differences as events
+	 *
+	 * @throws Exception the list fails
+	 */
+	protected void relist() throws Exception {
+		if (listUrl == null) {
+			// nothing to compare, start from the current state
+			resourceVersion = null;
+			return;
+		}
+
+		Set<String> seen = new HashSet<>();
+		String listVersion;
+		try (KubernetesPager pager = new KubernetesPager(client, listUrl, KubernetesPager.DEFAULT_PAGE_SIZE)
+						.withAccept(metadataOnly ? KubernetesConstants.HTTP_ACCEPT_METADATA_LIST : null)) {
+			while (!isStopped() && pager.hasNext()) {
+				JsonNode item = pager.next();
+				if (!item.has(KubernetesConstants.KUBE_KIND) && item instanceof ObjectNode) {
+					((ObjectNode) item).put(KubernetesConstants.KUBE_KIND, kind);
+				}
+				JsonNode itemMeta = item.path(KubernetesConstants.KUBE_METADATA);
+				String key = key(itemMeta);
+				String rv = itemMeta.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText("");
+				seen.add(key);
+
+				String old = versions.put(key, rv);
+				if (old == null) {
+					doAdded(item);
+				} else if (!old.equals(rv)) {
+					doModified(item);
 				}
 			}
+			listVersion = pager.getResourceVersion();
 		}
-		
+
+		if (isStopped()) {
+			return;
+		}
+
+		for (String key : versions.keySet()) {
+			if (!seen.contains(key)) {
+				versions.remove(key);
+				doDeleted(tombstone(key));
+			}
+		}
+		resourceVersion = listVersion;
+	}
+
+	/**
+	 * the object deleted while the watch was broken, subclasses with a cache can return
+	 * the last known state
+	 *
+	 * @param key namespace/name, or name
+	 * @return an object with apiVersion, kind, metadata.name and metadata.namespace
+	 */
+	protected JsonNode tombstone(String key) {
+		ObjectNode node = JsonSupport.createObjectNode();
+		node.put(KubernetesConstants.KUBE_APIVERSION, apiVersion);
+		node.put(KubernetesConstants.KUBE_KIND, kind);
+		ObjectNode meta = node.putObject(KubernetesConstants.KUBE_METADATA);
+		int idx = key.indexOf('/');
+		if (idx != -1) {
+			meta.put(KubernetesConstants.KUBE_METADATA_NAMESPACE, key.substring(0, idx));
+		}
+		meta.put(KubernetesConstants.KUBE_METADATA_NAME, key.substring(idx + 1));
+		return node;
+	}
+
+	/**
+	 * @param meta metadata
+	 * @return namespace/name, or name for cluster-scoped objects
+	 */
+	protected static String key(JsonNode meta) {
+		String name = meta.path(KubernetesConstants.KUBE_METADATA_NAME).asText();
+		String ns = meta.path(KubernetesConstants.KUBE_METADATA_NAMESPACE).asText("");
+		return ns.isEmpty() ? name : ns + "/" + name;
+	}
+
+	/**
+	 * @param millis millis
+	 */
+	protected synchronized void pause(long millis) {
+		if (isStopped()) {
+			return;
+		}
+		try {
+			wait(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stop();
+		}
+	}
+
+	/**
+	 * closes the stream, and the thread running this watcher returns
+	 */
+	public void stop() {
+		this.stopped = true;
+		WatchManager.Stream current = stream;
+		if (current != null) {
+			current.close();
+		}
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @return true if stop is called or the client is closed
+	 */
+	public boolean isStopped() {
+		return stopped || client.getWatchManager().isClosed();
 	}
-	
+
+	/**
+	 * @return last seen resourceVersion
+	 */
+	public String getResourceVersion() {
+		return resourceVersion;
+	}
+
 
 	/**
 	 * @param node                  node
 	 */
 	public abstract void doAdded(JsonNode node);
-	
+
 	/**
 	 * @param node                  node
 	 */
 	public abstract void doModified(JsonNode node);
-	
+
 	/**
 	 * @param node                  node
 	 */
 	public abstract void doDeleted(JsonNode node);
-	
+
 	/**
-	 * 
+	 *
 	 */
 	public abstract void doClose();
-	
+
 }
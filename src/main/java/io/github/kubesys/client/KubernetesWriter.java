@@ -22,7 +22,8 @@ import java.util.logging.Logger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import io.github.kubesys.client.utils.JsonSupport;
 
 /**
  * @author wuheng@iscas.ac.cn
@@ -52,7 +53,7 @@ public class KubernetesWriter {
 		String yaml = null;
 		
 		try {
-			yaml = new YAMLMapper().writeValueAsString(json);
+			yaml = JsonSupport.toYaml(json);
 		} catch (JsonProcessingException e) {
 			m_logger.warning(e.toString());
 		}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * A <code>KubernetesPager</code> which requests the next page as soon as the continue
+ * token is read from the metadata of the current one, so that the network overlaps
+ * with the consumer. At most <code>prefetch</code> pages are requested or buffered ahead
+ * of the consumer, the rest wait until the consumer takes a page.
+ *
+ * Pages are read on the executor of the client, and the consumer receives them in order.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class PrefetchingPager extends KubernetesPager {
+
+	/**
+	 * max pages ahead of the consumer
+	 */
+	protected final int prefetch;
+
+	/**
+	 * executor
+	 */
+	protected final Executor executor;
+
+	/**
+	 * requested pages in order, guarded by this
+	 */
+	protected final Deque<CompletableFuture<List<JsonNode>>> queue = new ArrayDeque<>();
+
+	/**
+	 * requested pages which are not taken by the consumer, guarded by this
+	 */
+	protected int inFlight = 0;
+
+	/**
+	 * continue token waiting for a free slot, guarded by this
+	 */
+	protected String pendingId;
+
+	/**
+	 * items of the page taken by the consumer
+	 */
+	protected Iterator<JsonNode> current = Collections.emptyIterator();
+
+	/**
+	 * @param client   client
+	 * @param listUrl  list url with query, such as /api/v1/pods?kind=Pod
+	 * @param pageSize page size
+	 * @param prefetch max pages ahead of the consumer
+	 */
+	public PrefetchingPager(KubernetesClient client, String listUrl, int pageSize, int prefetch) {
+		super(client, listUrl, pageSize);
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch must be positive");
+		}
+		this.prefetch = prefetch;
+		this.executor = client.getExecutor();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (!started) {
+			started = true;
+			launch(null);
+		}
+		while (!finished) {
+			if (current.hasNext()) {
+				next = current.next();
+				return true;
+			}
+
+			CompletableFuture<List<JsonNode>> page;
+			synchronized (this) {
+				page = queue.poll();
+			}
+			if (page == null) {
+				finished = true;
+				break;
+			}
+
+			try {
+				current = page.join().iterator();
+			} catch (CompletionException ex) {
+				close();
+				if (ex.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) ex.getCause();
+				}
+				throw new UncheckedIOException(new IOException(ex.getCause()));
+			}
+
+			synchronized (this) {
+				inFlight--;
+				if (pendingId != null) {
+					String nextId = pendingId;
+					pendingId = null;
+					launch(nextId);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * requests a page, or keeps the token until a slot is free
+	 *
+	 * @param nextId continue token, or null for the first page
+	 */
+	protected synchronized void launch(String nextId) {
+		if (finished) {
+			return;
+		}
+		if (inFlight >= prefetch) {
+			pendingId = nextId;
+			return;
+		}
+		inFlight++;
+		pages++;
+		CompletableFuture<List<JsonNode>> page = new CompletableFuture<>();
+		queue.add(page);
+		executor.execute(() -> fetch(nextId, page));
+	}
+
+	/**
+	 * reads a whole page, the next one is launched once its continue token is known
+	 *
+	 * @param nextId continue token
+	 * @param page   page
+	 */
+	protected void fetch(String nextId, CompletableFuture<List<JsonNode>> page) {
+		List<JsonNode> items = new ArrayList<>(pageSize);
+		String pageVersion = null;
+		String pageKind = null;
+		try (ClassicHttpResponse resp = request(nextId);
+				JsonParser p = JsonSupport.createParser(resp.getEntity().getContent())) {
+			if (p.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("list of " + listUrl + " is not an object");
+			}
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				JsonToken token = p.nextToken();
+				if (KubernetesConstants.KUBE_METADATA.equals(field)) {
+					JsonNode meta = p.readValueAsTree();
+					if (resourceVersion == null) {
+						resourceVersion = meta.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText(null);
+					}
+					String nextToken = meta.path(KubernetesConstants.KUBE_METADATA_CONTINUE).asText("");
+					if (!nextToken.isEmpty()) {
+						// before the items are read
+						launch(nextToken);
+					}
+				} else if (KubernetesConstants.KUBE_ITEMS.equals(field) && token == JsonToken.START_ARRAY) {
+					while (p.nextToken() == JsonToken.START_OBJECT) {
+						items.add(p.readValueAsTree());
+					}
+				} else if (KubernetesConstants.KUBE_APIVERSION.equals(field)) {
+					pageVersion = p.getText();
+				} else if (KubernetesConstants.KUBE_KIND.equals(field)) {
+					pageKind = itemKind(p.getText());
+				} else {
+					p.skipChildren();
+				}
+			}
+			EntityUtils.consume(resp.getEntity());
+			for (JsonNode item : items) {
+				withKind(item, pageVersion, pageKind);
+			}
+			page.complete(items);
+		} catch (Exception ex) {
+			page.completeExceptionally(ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		current = Collections.emptyIterator();
+		synchronized (this) {
+			queue.clear();
+			pendingId = null;
+		}
+	}
+
+	/**
+	 * @return max pages ahead of the consumer
+	 */
+	public int getPrefetch() {
+		return prefetch;
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The report of <code>BulkOperations</code>, one item for each resource
+ * in the order they were given.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class BulkResult {
+
+	/**
+	 * what was done to a resource
+	 */
+	public enum Status {
+		CREATED, UPDATED, DELETED, NOT_FOUND, FAILED
+	}
+
+	/**
+	 * items, in the order of the input
+	 */
+	private final List<Item> items;
+
+	/**
+	 * @param items items, in the order of the input
+	 */
+	public BulkResult(List<Item> items) {
+		super();
+		this.items = Collections.unmodifiableList(items);
+	}
+
+	/**
+	 * @return all items
+	 */
+	public List<Item> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return items which are failed
+	 */
+	public List<Item> getFailed() {
+		return items.stream().filter(item -> !item.isSuccess()).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return true if no item is failed
+	 */
+	public boolean isSuccess() {
+		return items.stream().allMatch(Item::isSuccess);
+	}
+
+	@Override
+	public String toString() {
+		return items.size() + " items, " + getFailed().size() + " failed";
+	}
+
+	/**
+	 * the result of one resource
+	 */
+	public static final class Item {
+
+		/**
+		 * position in the input
+		 */
+		private final int index;
+
+		/**
+		 * fullkind
+		 */
+		private final String fullkind;
+
+		/**
+		 * namespace, or "" for cluster-scoped kinds
+		 */
+		private final String namespace;
+
+		/**
+		 * name
+		 */
+		private final String name;
+
+		/**
+		 * status
+		 */
+		private final Status status;
+
+		/**
+		 * the object returned by the api-server, or null
+		 */
+		private final JsonNode result;
+
+		/**
+		 * the cause if it is failed, or null
+		 */
+		private final Exception error;
+
+		/**
+		 * @param index     position in the input
+		 * @param fullkind  fullkind
+		 * @param namespace namespace
+		 * @param name      name
+		 * @param status    status
+		 * @param result    result, or null
+		 * @param error     error, or null
+		 */
+		public Item(int index, String fullkind, String namespace, String name, 
+						Status status, JsonNode result, Exception error) {
+			super();
+			this.index = index;
+			this.fullkind = fullkind;
+			this.namespace = namespace;
+			this.name = name;
+			this.status = status;
+			this.result = result;
+			this.error = error;
+		}
+
+		/**
+		 * @return position in the input
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return fullkind
+		 */
+		public String getFullkind() {
+			return fullkind;
+		}
+
+		/**
+		 * @return namespace
+		 */
+		public String getNamespace() {
+			return namespace;
+		}
+
+		/**
+		 * @return name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return status
+		 */
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return the object returned by the api-server, or null
+		 */
+		public JsonNode getResult() {
+			return result;
+		}
+
+		/**
+		 * @return the cause if it is failed, or null
+		 */
+		public Exception getError() {
+			return error;
+		}
+
+		/**
+		 * @return true unless it is failed
+		 */
+		public boolean isSuccess() {
+			return status != Status.FAILED;
+		}
+
+		@Override
+		public String toString() {
+			return fullkind + " " + (namespace == null || namespace.isEmpty() ? "" : namespace + "/") 
+							+ name + ": " + status + (error == null ? "" : " " + error.getMessage());
+		}
+	}
+}
@@ -0,0 +1,891 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import io.github.kubesys.client.utils.ThreadUtil;
+
+/**
+ * Options used by <code>KubernetesClient</code> to create its HTTP connection pool.
+ *
+ * The defaults are sized for controllers with tens of concurrent workers
+ * talking to a single api-server, i.e. all connections share one route.
+ *
+ * <pre>
+ * KubernetesClientOptions options = KubernetesClientOptions.builder()
+ *                                       .withMaxTotal(100)
+ *                                       .withMaxPerRoute(100)
+ *                                       .build();
+ * </pre>
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class KubernetesClientOptions {
+
+	/**
+	 * verbs which can be limited, a watch is limited by its backoff
+	 */
+	public static final Set<String> VERBS = Set.of("get", "list", "create", "update", 
+						"patch", "delete", "deletecollection");
+
+	/**
+	 * max open watch streams over http/1.1
+	 */
+	public static final int DEFAULT_MAX_WATCHES = 256;
+
+	/**
+	 * default options
+	 */
+	public static final KubernetesClientOptions DEFAULT = builder().build();
+
+	/**
+	 * max connections in the pool
+	 */
+	private final int maxTotal;
+
+	/**
+	 * max connections for each route (api-server)
+	 */
+	private final int maxPerRoute;
+
+	/**
+	 * how long an idle connection is kept alive if the server does not say
+	 */
+	private final TimeValue keepAlive;
+
+	/**
+	 * idle connections are closed after this time
+	 */
+	private final TimeValue idleEviction;
+
+	/**
+	 * a pooled connection is validated if it is idle longer than this time
+	 */
+	private final TimeValue validateAfterInactivity;
+
+	/**
+	 * max lifetime of a pooled connection
+	 */
+	private final TimeValue timeToLive;
+
+	/**
+	 * connect timeout
+	 */
+	private final Timeout connectTimeout;
+
+	/**
+	 * socket timeout, zero means infinite
+	 */
+	private final Timeout socketTimeout;
+
+	/**
+	 * response timeout, zero means infinite
+	 */
+	private final Timeout responseTimeout;
+
+	/**
+	 * how long to wait for a free connection from the pool, zero means infinite
+	 */
+	private final Timeout connectionRequestTimeout;
+
+	/**
+	 * retries for a request which fails with an I/O error, 429 or 503
+	 */
+	private final int maxRetries;
+
+	/**
+	 * interval between retries, unless the api-server sends Retry-After
+	 */
+	private final TimeValue retryInterval;
+
+	/**
+	 * max open watch streams, they are served by a separated pool, or by a part of the http/2 streams
+	 */
+	private final int maxWatches;
+
+	/**
+	 * a watch stream which receives nothing for this time is closed, zero means never
+	 */
+	private final Timeout watchIdleTimeout;
+
+	/**
+	 * factory for watcher threads
+	 */
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * executor for blocking requests submitted to the client, null means
+	 * the client creates its own one with <code>threadFactory</code>
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * ask for gzip or deflate bodies in get and list
+	 */
+	private final boolean compression;
+
+	/**
+	 * ask for gzip or deflate bodies in watch streams
+	 */
+	private final boolean watchCompression;
+
+	/**
+	 * receives the wire and decoded bytes of each response, or null
+	 */
+	private final TransferStats.Listener transferListener;
+
+	/**
+	 * multiplex requests and watches over http/2 connections
+	 */
+	private final boolean http2;
+
+	/**
+	 * http/2 connections to the api-server
+	 */
+	private final int http2Connections;
+
+	/**
+	 * max concurrent http/2 streams of each connection, including watches
+	 */
+	private final int maxConcurrentStreams;
+
+	/**
+	 * http/2 flow control window of each stream
+	 */
+	private final int initialWindowSize;
+
+	/**
+	 * how long an applied intent is remembered
+	 */
+	private final TimeValue applyCacheTtl;
+
+	/**
+	 * max objects whose applied intent is remembered
+	 */
+	private final int maxApplyCache;
+
+	/**
+	 * requests per second of the client, 0 means unlimited
+	 */
+	private final double qps;
+
+	/**
+	 * requests which can be sent at once
+	 */
+	private final int burst;
+
+	/**
+	 * rate limits by verb
+	 */
+	private final Map<String, RateLimit> verbRateLimits;
+
+	/**
+	 * rate limits by kind or fullkind
+	 */
+	private final Map<String, RateLimit> kindRateLimits;
+
+
+	private KubernetesClientOptions(Builder builder) {
+		this.maxTotal = builder.maxTotal;
+		this.maxPerRoute = builder.maxPerRoute;
+		this.keepAlive = builder.keepAlive;
+		this.idleEviction = builder.idleEviction;
+		this.validateAfterInactivity = builder.validateAfterInactivity;
+		this.timeToLive = builder.timeToLive;
+		this.connectTimeout = builder.connectTimeout;
+		this.socketTimeout = builder.socketTimeout;
+		this.responseTimeout = builder.responseTimeout;
+		this.connectionRequestTimeout = builder.connectionRequestTimeout;
+		this.maxRetries = builder.maxRetries;
+		this.retryInterval = builder.retryInterval;
+		this.maxWatches = builder.maxWatches > 0 ? builder.maxWatches : builder.http2 
+							? builder.http2Connections * builder.maxConcurrentStreams / 2 : DEFAULT_MAX_WATCHES;
+		this.watchIdleTimeout = builder.watchIdleTimeout;
+		this.threadFactory = builder.threadFactory;
+		this.executor = builder.executor;
+		this.compression = builder.compression;
+		this.watchCompression = builder.watchCompression;
+		this.transferListener = builder.transferListener;
+		this.http2 = builder.http2;
+		this.http2Connections = builder.http2Connections;
+		this.maxConcurrentStreams = builder.maxConcurrentStreams;
+		this.initialWindowSize = builder.initialWindowSize;
+		this.applyCacheTtl = builder.applyCacheTtl;
+		this.maxApplyCache = builder.maxApplyCache;
+		this.qps = builder.qps;
+		this.burst = builder.burst;
+		this.verbRateLimits = Collections.unmodifiableMap(new LinkedHashMap<>(builder.verbRateLimits));
+		this.kindRateLimits = Collections.unmodifiableMap(new LinkedHashMap<>(builder.kindRateLimits));
+	}
+
+	/**
+	 * @return builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return maxTotal
+	 */
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	/**
+	 * @return maxPerRoute
+	 */
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	/**
+	 * @return keepAlive
+	 */
+	public TimeValue getKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * @return idleEviction
+	 */
+	public TimeValue getIdleEviction() {
+		return idleEviction;
+	}
+
+	/**
+	 * @return validateAfterInactivity
+	 */
+	public TimeValue getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+
+	/**
+	 * @return timeToLive
+	 */
+	public TimeValue getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * @return connectTimeout
+	 */
+	public Timeout getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * @return socketTimeout
+	 */
+	public Timeout getSocketTimeout() {
+		return socketTimeout;
+	}
+
+	/**
+	 * @return responseTimeout
+	 */
+	public Timeout getResponseTimeout() {
+		return responseTimeout;
+	}
+
+	/**
+	 * @return connectionRequestTimeout
+	 */
+	public Timeout getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+
+	/**
+	 * @return maxRetries
+	 */
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @return retryInterval
+	 */
+	public TimeValue getRetryInterval() {
+		return retryInterval;
+	}
+
+	/**
+	 * @return maxWatches
+	 */
+	public int getMaxWatches() {
+		return maxWatches;
+	}
+
+	/**
+	 * @return watchIdleTimeout
+	 */
+	public Timeout getWatchIdleTimeout() {
+		return watchIdleTimeout;
+	}
+
+	/**
+	 * @return threadFactory
+	 */
+	public ThreadFactory getThreadFactory() {
+		return threadFactory;
+	}
+
+	/**
+	 * @return executor, or null
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return compression
+	 */
+	public boolean isCompression() {
+		return compression;
+	}
+
+	/**
+	 * @return watchCompression
+	 */
+	public boolean isWatchCompression() {
+		return watchCompression;
+	}
+
+	/**
+	 * @return transferListener
+	 */
+	public TransferStats.Listener getTransferListener() {
+		return transferListener;
+	}
+
+	/**
+	 * @return http2
+	 */
+	public boolean isHttp2() {
+		return http2;
+	}
+
+	/**
+	 * @return http2Connections
+	 */
+	public int getHttp2Connections() {
+		return http2Connections;
+	}
+
+	/**
+	 * @return maxConcurrentStreams
+	 */
+	public int getMaxConcurrentStreams() {
+		return maxConcurrentStreams;
+	}
+
+	/**
+	 * @return initialWindowSize
+	 */
+	public int getInitialWindowSize() {
+		return initialWindowSize;
+	}
+
+	/**
+	 * @return applyCacheTtl
+	 */
+	public TimeValue getApplyCacheTtl() {
+		return applyCacheTtl;
+	}
+
+	/**
+	 * @return maxApplyCache
+	 */
+	public int getMaxApplyCache() {
+		return maxApplyCache;
+	}
+
+	/**
+	 * @return qps
+	 */
+	public double getQps() {
+		return qps;
+	}
+
+	/**
+	 * @return burst
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * @return verbRateLimits
+	 */
+	public Map<String, RateLimit> getVerbRateLimits() {
+		return verbRateLimits;
+	}
+
+	/**
+	 * @return kindRateLimits
+	 */
+	public Map<String, RateLimit> getKindRateLimits() {
+		return kindRateLimits;
+	}
+
+	/**
+	 * builder
+	 */
+	public static final class Builder {
+
+		private int maxTotal = 64;
+
+		private int maxPerRoute = 64;
+
+		private TimeValue keepAlive = TimeValue.ofMinutes(3);
+
+		private TimeValue idleEviction = TimeValue.ofMinutes(1);
+
+		private TimeValue validateAfterInactivity = TimeValue.ofSeconds(2);
+
+		private TimeValue timeToLive = TimeValue.ofMinutes(30);
+
+		private Timeout connectTimeout = Timeout.ofSeconds(30);
+
+		private Timeout socketTimeout = Timeout.ZERO_MILLISECONDS;
+
+		private Timeout responseTimeout = Timeout.ZERO_MILLISECONDS;
+
+		private Timeout connectionRequestTimeout = Timeout.ZERO_MILLISECONDS;
+
+		private int maxRetries = 3;
+
+		private TimeValue retryInterval = TimeValue.ofSeconds(1);
+
+		private int maxWatches = 0;
+
+		private Timeout watchIdleTimeout = Timeout.ZERO_MILLISECONDS;
+
+		private ThreadFactory threadFactory = Thread::new;
+
+		private ExecutorService executor;
+
+		private boolean compression = true;
+
+		private boolean watchCompression = false;
+
+		private TransferStats.Listener transferListener;
+
+		private boolean http2 = false;
+
+		private int http2Connections = 1;
+
+		private int maxConcurrentStreams = 100;
+
+		private int initialWindowSize = 256 * 1024;
+
+		private TimeValue applyCacheTtl = TimeValue.ofMinutes(10);
+
+		private int maxApplyCache = 10000;
+
+		private double qps = 50;
+
+		private int burst = 100;
+
+		private final Map<String, RateLimit> verbRateLimits = new LinkedHashMap<>();
+
+		private final Map<String, RateLimit> kindRateLimits = new LinkedHashMap<>();
+
+		private Builder() {
+			super();
+		}
+
+		/**
+		 * @param maxTotal max connections in the pool
+		 * @return builder
+		 */
+		public Builder withMaxTotal(int maxTotal) {
+			this.maxTotal = requirePositive(maxTotal, "maxTotal");
+			return this;
+		}
+
+		/**
+		 * @param maxPerRoute max connections for each route
+		 * @return builder
+		 */
+		public Builder withMaxPerRoute(int maxPerRoute) {
+			this.maxPerRoute = requirePositive(maxPerRoute, "maxPerRoute");
+			return this;
+		}
+
+		/**
+		 * @param keepAlive keep-alive used when the server sends no Keep-Alive header
+		 * @return builder
+		 */
+		public Builder withKeepAlive(TimeValue keepAlive) {
+			this.keepAlive = keepAlive;
+			return this;
+		}
+
+		/**
+		 * @param idleEviction idle connections are closed after this time, null disables eviction
+		 * @return builder
+		 */
+		public Builder withIdleEviction(TimeValue idleEviction) {
+			this.idleEviction = idleEviction;
+			return this;
+		}
+
+		/**
+		 * @param validateAfterInactivity validate a connection idle longer than this time
+		 * @return builder
+		 */
+		public Builder withValidateAfterInactivity(TimeValue validateAfterInactivity) {
+			this.validateAfterInactivity = validateAfterInactivity;
+			return this;
+		}
+
+		/**
+		 * @param timeToLive max lifetime of a pooled connection, null means unlimited
+		 * @return builder
+		 */
+		public Builder withTimeToLive(TimeValue timeToLive) {
+			this.timeToLive = timeToLive;
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout connect timeout
+		 * @return builder
+		 */
+		public Builder withConnectTimeout(Timeout connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * @param socketTimeout socket timeout, zero means infinite
+		 * @return builder
+		 */
+		public Builder withSocketTimeout(Timeout socketTimeout) {
+			this.socketTimeout = socketTimeout;
+			return this;
+		}
+
+		/**
+		 * @param responseTimeout response timeout, zero means infinite
+		 * @return builder
+		 */
+		public Builder withResponseTimeout(Timeout responseTimeout) {
+			this.responseTimeout = responseTimeout;
+			return this;
+		}
+
+		/**
+		 * @param connectionRequestTimeout max time to wait for a pooled connection
+		 * @return builder
+		 */
+		public Builder withConnectionRequestTimeout(Timeout connectionRequestTimeout) {
+			this.connectionRequestTimeout = connectionRequestTimeout;
+			return this;
+		}
+
+		/**
+		 * retries a request which fails with an I/O error, or with 429, which is sent by
+		 * API Priority and Fairness before the request is executed, or 503 if it is
+		 * idempotent. Each retry takes a token of the rate limits again
+		 * 
+		 * @param maxRetries    retries for a failed request, 3 by default
+		 * @param retryInterval interval between retries, unless the api-server sends Retry-After
+		 * @return builder
+		 */
+		public Builder withRetries(int maxRetries, TimeValue retryInterval) {
+			this.maxRetries = maxRetries;
+			this.retryInterval = retryInterval;
+			return this;
+		}
+
+		/**
+		 * with http/2, watches and requests share the streams, so maxWatches must be smaller
+		 * than <code>http2Connections * maxConcurrentStreams</code>, and the other streams are
+		 * left to requests. It is 256, or half of the http/2 streams, by default
+		 * 
+		 * @param maxWatches max open watch streams
+		 * @return builder
+		 */
+		public Builder withMaxWatches(int maxWatches) {
+			this.maxWatches = requirePositive(maxWatches, "maxWatches");
+			return this;
+		}
+
+		/**
+		 * @param watchIdleTimeout a watch stream which receives nothing for this time is closed,
+		 *                         zero means never
+		 * @return builder
+		 */
+		public Builder withWatchIdleTimeout(Timeout watchIdleTimeout) {
+			this.watchIdleTimeout = watchIdleTimeout;
+			return this;
+		}
+
+		/**
+		 * @param threadFactory factory for watcher threads
+		 * @return builder
+		 */
+		public Builder withThreadFactory(ThreadFactory threadFactory) {
+			this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+			return this;
+		}
+
+		/**
+		 * @param executor executor for blocking requests, it is not shut down by the client
+		 * @return builder
+		 */
+		public Builder withExecutor(ExecutorService executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * runs watchers and submitted requests on virtual threads, it requires Java 21+,
+		 * and falls back to daemon platform threads on older runtimes
+		 *
+		 * @return builder
+		 */
+		public Builder withVirtualThreads() {
+			return withThreadFactory(ThreadUtil.virtualThreadFactory());
+		}
+
+		/**
+		 * asks for gzip or deflate bodies in get and list, which is on by default,
+		 * the bodies are decompressed while they are read
+		 *
+		 * @param compression compression
+		 * @return builder
+		 */
+		public Builder withCompression(boolean compression) {
+			this.compression = compression;
+			return this;
+		}
+
+		/**
+		 * asks for gzip or deflate bodies in watch streams, which is off by default,
+		 * since small events gain little and each stream keeps an inflater
+		 *
+		 * @param watchCompression watchCompression
+		 * @return builder
+		 */
+		public Builder withWatchCompression(boolean watchCompression) {
+			this.watchCompression = watchCompression;
+			return this;
+		}
+
+		/**
+		 * receives the wire and decoded bytes of each response when its body is closed
+		 *
+		 * @param transferListener listener
+		 * @return builder
+		 */
+		public Builder withTransferListener(TransferStats.Listener transferListener) {
+			this.transferListener = transferListener;
+			return this;
+		}
+
+		/**
+		 * multiplexes blocking, async and watch requests over a few http/2 connections
+		 * instead of one http/1.1 connection for each request in flight, the api-server
+		 * must support http/2, which is negotiated by ALPN over TLS, or is assumed over http
+		 *
+		 * @param http2 http2
+		 * @return builder
+		 */
+		public Builder withHttp2(boolean http2) {
+			this.http2 = http2;
+			return this;
+		}
+
+		/**
+		 * @param http2Connections http/2 connections to the api-server, streams are
+		 *                         opened on the connection with the most free streams
+		 * @return builder
+		 */
+		public Builder withHttp2Connections(int http2Connections) {
+			this.http2Connections = requirePositive(http2Connections, "http2Connections");
+			return this;
+		}
+
+		/**
+		 * @param maxConcurrentStreams max concurrent http/2 streams of each connection,
+		 *                             including watches, more requests wait for a free stream
+		 * @return builder
+		 */
+		public Builder withMaxConcurrentStreams(int maxConcurrentStreams) {
+			this.maxConcurrentStreams = requirePositive(maxConcurrentStreams, "maxConcurrentStreams");
+			return this;
+		}
+
+		/**
+		 * @param initialWindowSize http/2 flow control window of each stream, i.e. the
+		 *                          bytes which are buffered before they are read
+		 * @return builder
+		 */
+		public Builder withInitialWindowSize(int initialWindowSize) {
+			this.initialWindowSize = requirePositive(initialWindowSize, "initialWindowSize");
+			return this;
+		}
+
+		/**
+		 * applyResource skips the call if the same intent was applied by the same field manager
+		 * within the ttl, a drift made by others is corrected when it expires, and zero disables it
+		 *
+		 * @param applyCacheTtl ttl
+		 * @return builder
+		 */
+		public Builder withApplyCacheTtl(TimeValue applyCacheTtl) {
+			this.applyCacheTtl = Objects.requireNonNull(applyCacheTtl, "applyCacheTtl");
+			return this;
+		}
+
+		/**
+		 * @param maxApplyCache max objects whose applied intent is remembered
+		 * @return builder
+		 */
+		public Builder withMaxApplyCache(int maxApplyCache) {
+			this.maxApplyCache = requirePositive(maxApplyCache, "maxApplyCache");
+			return this;
+		}
+
+		/**
+		 * limits the requests of the client, including retries, with a token bucket, a
+		 * request waits for a token, it is 50 requests per second with a burst of 100 by default
+		 *
+		 * @param qps   requests per second, 0 means unlimited
+		 * @param burst requests which can be sent at once
+		 * @return builder
+		 */
+		public Builder withRateLimit(double qps, int burst) {
+			this.qps = requireNonNegative(qps, "qps");
+			this.burst = requirePositive(burst, "burst");
+			return this;
+		}
+
+		/**
+		 * limits a verb in addition to the rate limit of the client
+		 *
+		 * @param verb  get, list, create, update, patch, delete or deletecollection
+		 * @param qps   requests per second
+		 * @param burst requests which can be sent at once
+		 * @return builder
+		 */
+		public Builder withVerbRateLimit(String verb, double qps, int burst) {
+			if (!VERBS.contains(verb)) {
+				throw new IllegalArgumentException("verb must be one of " + VERBS + ", but it is " + verb);
+			}
+			this.verbRateLimits.put(verb, new RateLimit(requireNonNegative(qps, "qps"), requirePositive(burst, "burst")));
+			return this;
+		}
+
+		/**
+		 * limits all verbs of a kind in addition to the rate limit of the client
+		 *
+		 * @param fullkind kind or fullkind, such as apps.Deployment
+		 * @param qps      requests per second
+		 * @param burst    requests which can be sent at once
+		 * @return builder
+		 */
+		public Builder withKindRateLimit(String fullkind, double qps, int burst) {
+			this.kindRateLimits.put(Objects.requireNonNull(fullkind, "fullkind"), 
+							new RateLimit(requireNonNegative(qps, "qps"), requirePositive(burst, "burst")));
+			return this;
+		}
+
+		/**
+		 * @return options
+		 */
+		public KubernetesClientOptions build() {
+			if (maxPerRoute > maxTotal) {
+				throw new IllegalArgumentException("maxPerRoute " + maxPerRoute
+						+ " is larger than maxTotal " + maxTotal);
+			}
+			if (http2 && maxWatches >= http2Connections * maxConcurrentStreams) {
+				throw new IllegalArgumentException("maxWatches " + maxWatches + " leaves no http/2 stream for requests, "
+						+ "it must be smaller than http2Connections * maxConcurrentStreams " 
+						+ http2Connections * maxConcurrentStreams);
+			}
+			return new KubernetesClientOptions(this);
+		}
+
+		private static int requirePositive(int value, String name) {
+			if (value <= 0) {
+				throw new IllegalArgumentException(name + " must be positive, but it is " + value);
+			}
+			return value;
+		}
+
+		private static double requireNonNegative(double value, String name) {
+			if (!(value >= 0)) {
+				throw new IllegalArgumentException(name + " must not be negative, but it is " + value);
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * a token bucket
+	 */
+	public static final class RateLimit {
+
+		/**
+		 * requests per second, 0 means unlimited
+		 */
+		private final double qps;
+
+		/**
+		 * requests which can be sent at once
+		 */
+		private final int burst;
+
+		/**
+		 * @param qps   requests per second, 0 means unlimited
+		 * @param burst requests which can be sent at once
+		 */
+		public RateLimit(double qps, int burst) {
+			this.qps = qps;
+			this.burst = burst;
+		}
+
+		/**
+		 * @return requests per second, 0 means unlimited
+		 */
+		public double getQps() {
+			return qps;
+		}
+
+		/**
+		 * @return requests which can be sent at once
+		 */
+		public int getBurst() {
+			return burst;
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * The metadata of an object without spec, status, managedFields and the
+ * last-applied-configuration annotation, such as a <code>PartialObjectMetadata</code>
+ * returned by <code>KubernetesClient.listResourcesMetadata</code>.
+ *
+ * It is immutable, and it is serialized as a Kubernetes object with only metadata.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class ObjectMetadata {
+
+	/**
+	 * it is often larger than the object itself
+	 */
+	static final String LAST_APPLIED = "kubectl.kubernetes.io/last-applied-configuration";
+
+	private final String apiVersion;
+
+	private final String kind;
+
+	private final String name;
+
+	private final String namespace;
+
+	private final String uid;
+
+	private final String resourceVersion;
+
+	private final long generation;
+
+	private final String creationTimestamp;
+
+	private final String deletionTimestamp;
+
+	private final Map<String, String> labels;
+
+	private final Map<String, String> annotations;
+
+	private final List<OwnerReference> ownerReferences;
+
+	private final List<String> finalizers;
+
+	private ObjectMetadata(JsonNode obj, JsonNode meta) {
+		super();
+		this.apiVersion = obj.path(KubernetesConstants.KUBE_APIVERSION).asText(null);
+		this.kind = obj.path(KubernetesConstants.KUBE_KIND).asText(null);
+		this.name = meta.path(KubernetesConstants.KUBE_METADATA_NAME).asText(null);
+		this.namespace = meta.path(KubernetesConstants.KUBE_METADATA_NAMESPACE).asText(null);
+		this.uid = meta.path("uid").asText(null);
+		this.resourceVersion = meta.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText(null);
+		this.generation = meta.path("generation").asLong(0);
+		this.creationTimestamp = meta.path("creationTimestamp").asText(null);
+		this.deletionTimestamp = meta.path("deletionTimestamp").asText(null);
+		this.labels = toMap(meta.path("labels"));
+		this.annotations = toMap(meta.path("annotations"));
+
+		JsonNode owners = meta.path("ownerReferences");
+		List<OwnerReference> list = new ArrayList<>(owners.size());
+		for (JsonNode owner : owners) {
+			list.add(new OwnerReference(owner));
+		}
+		this.ownerReferences = list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+
+		JsonNode items = meta.path("finalizers");
+		List<String> values = new ArrayList<>(items.size());
+		for (JsonNode item : items) {
+			values.add(item.asText());
+		}
+		this.finalizers = values.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * @param obj a Kubernetes object, or a PartialObjectMetadata
+	 * @return metadata
+	 */
+	public static ObjectMetadata from(JsonNode obj) {
+		return new ObjectMetadata(obj, obj.path(KubernetesConstants.KUBE_METADATA));
+	}
+
+	/**
+	 * @param node labels or annotations
+	 * @return map without the last-applied-configuration
+	 */
+	static Map<String, String> toMap(JsonNode node) {
+		if (node.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> map = new HashMap<>(node.size() * 2);
+		Iterator<Map.Entry<String, JsonNode>> iter = node.fields();
+		while (iter.hasNext()) {
+			Map.Entry<String, JsonNode> entry = iter.next();
+			if (!LAST_APPLIED.equals(entry.getKey())) {
+				map.put(entry.getKey(), entry.getValue().asText());
+			}
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * @return the object with apiVersion, kind and metadata
+	 */
+	@JsonValue
+	public JsonNode toJson() {
+		ObjectNode node = JsonSupport.createObjectNode();
+		node.put(KubernetesConstants.KUBE_APIVERSION, apiVersion);
+		node.put(KubernetesConstants.KUBE_KIND, kind);
+		ObjectNode meta = node.putObject(KubernetesConstants.KUBE_METADATA);
+		meta.put(KubernetesConstants.KUBE_METADATA_NAME, name);
+		if (namespace != null) {
+			meta.put(KubernetesConstants.KUBE_METADATA_NAMESPACE, namespace);
+		}
+		meta.put("uid", uid);
+		meta.put(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION, resourceVersion);
+		meta.put("generation", generation);
+		meta.put("creationTimestamp", creationTimestamp);
+		if (deletionTimestamp != null) {
+			meta.put("deletionTimestamp", deletionTimestamp);
+		}
+		if (!labels.isEmpty()) {
+			labels.forEach(meta.putObject("labels")::put);
+		}
+		if (!annotations.isEmpty()) {
+			annotations.forEach(meta.putObject("annotations")::put);
+		}
+		if (!ownerReferences.isEmpty()) {
+			for (OwnerReference owner : ownerReferences) {
+				meta.withArray("ownerReferences").addObject()
+						.put(KubernetesConstants.KUBE_APIVERSION, owner.apiVersion)
+						.put(KubernetesConstants.KUBE_KIND, owner.kind)
+						.put(KubernetesConstants.KUBE_METADATA_NAME, owner.name)
+						.put("uid", owner.uid)
+						.put("controller", owner.controller);
+			}
+		}
+		if (!finalizers.isEmpty()) {
+			finalizers.forEach(meta.putArray("finalizers")::add);
+		}
+		return node;
+	}
+
+	public String getApiVersion() {
+		return apiVersion;
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	public String getUid() {
+		return uid;
+	}
+
+	public String getResourceVersion() {
+		return resourceVersion;
+	}
+
+	public long getGeneration() {
+		return generation;
+	}
+
+	public String getCreationTimestamp() {
+		return creationTimestamp;
+	}
+
+	public String getDeletionTimestamp() {
+		return deletionTimestamp;
+	}
+
+	public Map<String, String> getLabels() {
+		return labels;
+	}
+
+	public Map<String, String> getAnnotations() {
+		return annotations;
+	}
+
+	public List<OwnerReference> getOwnerReferences() {
+		return ownerReferences;
+	}
+
+	public List<String> getFinalizers() {
+		return finalizers;
+	}
+
+	@Override
+	public String toString() {
+		return toJson().toString();
+	}
+
+	/**
+	 * An owner of the object
+	 */
+	public static final class OwnerReference {
+
+		private final String apiVersion;
+
+		private final String kind;
+
+		private final String name;
+
+		private final String uid;
+
+		private final boolean controller;
+
+		OwnerReference(JsonNode owner) {
+			this.apiVersion = owner.path(KubernetesConstants.KUBE_APIVERSION).asText(null);
+			this.kind = owner.path(KubernetesConstants.KUBE_KIND).asText(null);
+			this.name = owner.path(KubernetesConstants.KUBE_METADATA_NAME).asText(null);
+			this.uid = owner.path("uid").asText(null);
+			this.controller = owner.path("controller").asBoolean(false);
+		}
+
+		public String getApiVersion() {
+			return apiVersion;
+		}
+
+		public String getKind() {
+			return kind;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getUid() {
+			return uid;
+		}
+
+		public boolean isController() {
+			return controller;
+		}
+	}
+}
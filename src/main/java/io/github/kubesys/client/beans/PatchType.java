@@ -0,0 +1,66 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+/**
+ * Patch formats of the api-server, see
+ * https://kubernetes.io/docs/tasks/manage-kubernetes-objects/update-api-object-kubectl-patch/
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public enum PatchType {
+
+	/**
+	 * RFC 6902, a list of operations, such as
+	 * <code>[{"op": "replace", "path": "/spec/replicas", "value": 3}]</code>
+	 */
+	JSON("application/json-patch+json"),
+
+	/**
+	 * RFC 7386, the fields to change, null removes a field and lists are replaced
+	 */
+	MERGE("application/merge-patch+json"),
+
+	/**
+	 * as MERGE, but lists of built-in kinds are merged by their keys, such as the
+	 * name of containers, it is not supported by custom resources
+	 */
+	STRATEGIC_MERGE("application/strategic-merge-patch+json"),
+
+	/**
+	 * server-side apply, the whole intent of a field manager, the api-server merges
+	 * it with the intents of other managers, and needs <code>?fieldManager=</code>
+	 */
+	APPLY("application/apply-patch+yaml");
+
+	/**
+	 * Content-Type
+	 */
+	private final String contentType;
+
+	PatchType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	/**
+	 * @return Content-Type of the patch
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+}
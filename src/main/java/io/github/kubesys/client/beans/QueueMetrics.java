@@ -0,0 +1,154 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the counters of a <code>WorkQueue</code> since it was created.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class QueueMetrics {
+
+	/**
+	 * keys waiting for a worker
+	 */
+	private final int depth;
+
+	/**
+	 * keys added, including the coalesced ones
+	 */
+	private final long adds;
+
+	/**
+	 * keys added while they were waiting already
+	 */
+	private final long coalesced;
+
+	/**
+	 * keys added again after a failure
+	 */
+	private final long retries;
+
+	/**
+	 * keys processed by workers
+	 */
+	private final long processed;
+
+	/**
+	 * sum of the time between adding and taking a key
+	 */
+	private final long latencyNanos;
+
+	/**
+	 * max time between adding and taking a key
+	 */
+	private final long maxLatencyNanos;
+
+	/**
+	 * sum of the time between taking a key and its done
+	 */
+	private final long workNanos;
+
+	/**
+	 * @param depth           keys waiting for a worker
+	 * @param adds            keys added
+	 * @param coalesced       keys added while they were waiting already
+	 * @param retries         keys added again after a failure
+	 * @param processed       keys processed
+	 * @param latencyNanos    sum of queue latencies
+	 * @param maxLatencyNanos max queue latency
+	 * @param workNanos       sum of work durations
+	 */
+	public QueueMetrics(int depth, long adds, long coalesced, long retries, long processed,
+						long latencyNanos, long maxLatencyNanos, long workNanos) {
+		super();
+		this.depth = depth;
+		this.adds = adds;
+		this.coalesced = coalesced;
+		this.retries = retries;
+		this.processed = processed;
+		this.latencyNanos = latencyNanos;
+		this.maxLatencyNanos = maxLatencyNanos;
+		this.workNanos = workNanos;
+	}
+
+	/**
+	 * @return keys waiting for a worker
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return keys added, including the coalesced ones
+	 */
+	public long getAdds() {
+		return adds;
+	}
+
+	/**
+	 * @return keys added while they were waiting already
+	 */
+	public long getCoalesced() {
+		return coalesced;
+	}
+
+	/**
+	 * @return keys added again after a failure
+	 */
+	public long getRetries() {
+		return retries;
+	}
+
+	/**
+	 * @return keys processed by workers
+	 */
+	public long getProcessed() {
+		return processed;
+	}
+
+	/**
+	 * @return average time in milliseconds between adding and taking a key
+	 */
+	public double getAverageLatencyMillis() {
+		return processed == 0 ? 0 : (double) latencyNanos / processed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * @return max time in milliseconds between adding and taking a key
+	 */
+	public double getMaxLatencyMillis() {
+		return (double) maxLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * @return average time in milliseconds between taking a key and its done
+	 */
+	public double getAverageWorkMillis() {
+		return processed == 0 ? 0 : (double) workNanos / processed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return "depth " + depth + ", adds " + adds + ", coalesced " + coalesced + ", retries " + retries
+				+ ", processed " + processed + ", latency " + getAverageLatencyMillis() + "ms/"
+				+ getMaxLatencyMillis() + "ms, work " + getAverageWorkMillis() + "ms";
+	}
+}
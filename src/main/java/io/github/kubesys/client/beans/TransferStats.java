@@ -0,0 +1,131 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.beans;
+
+/**
+ * Bytes of one response body, as they were received and after they were decompressed.
+ *
+ * It is reported to the <code>Listener</code> of <code>KubernetesClientOptions</code>
+ * when the body is closed, so a body which is not read to the end, such as a stopped
+ * watch, reports only the bytes which have been read.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class TransferStats {
+
+	/**
+	 * http method
+	 */
+	private final String method;
+
+	/**
+	 * request uri
+	 */
+	private final String uri;
+
+	/**
+	 * gzip, deflate, or null if the body is not compressed
+	 */
+	private final String encoding;
+
+	/**
+	 * bytes received from the connection
+	 */
+	private final long wireBytes;
+
+	/**
+	 * bytes after decompression
+	 */
+	private final long bytes;
+
+	/**
+	 * @param method    method
+	 * @param uri       uri
+	 * @param encoding  encoding, or null
+	 * @param wireBytes bytes received from the connection
+	 * @param bytes     bytes after decompression
+	 */
+	public TransferStats(String method, String uri, String encoding, long wireBytes, long bytes) {
+		super();
+		this.method = method;
+		this.uri = uri;
+		this.encoding = encoding;
+		this.wireBytes = wireBytes;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return method
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return uri
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * @return encoding, or null
+	 */
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * @return bytes received from the connection
+	 */
+	public long getWireBytes() {
+		return wireBytes;
+	}
+
+	/**
+	 * @return bytes after decompression
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return wireBytes / bytes, 1 if the body is empty
+	 */
+	public double getRatio() {
+		return bytes == 0 ? 1 : (double) wireBytes / bytes;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + uri + " " + (encoding == null ? "identity" : encoding) 
+				+ " " + wireBytes + "/" + bytes;
+	}
+
+	/**
+	 * it is called by the thread which closes the body, and it must not block
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * @param stats stats
+		 */
+		void onTransfer(TransferStats stats);
+	}
+}
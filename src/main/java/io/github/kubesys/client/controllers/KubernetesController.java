@@ -0,0 +1,245 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.beans.QueueMetrics;
+import io.github.kubesys.client.informers.InformerCache;
+import io.github.kubesys.client.informers.ResourceEventHandler;
+import io.github.kubesys.client.informers.SharedInformer;
+
+/**
+ * A controller, which reconciles the objects of a kind with workers instead of the watch thread.
+ *
+ * The events of the shared informer of the kind only add the key, i.e. namespace/name,
+ * of the object to a <code>WorkQueue</code>, so a slow reconcile never blocks the watch,
+ * and a burst of events for an object is reconciled once. <code>reconcile</code> reads
+ * the latest object from the informer cache. A failed key is retried with backoff
+ * until maxRetries, and then dropped until its next event.
+ *
+ * <pre>
+ * KubernetesController controller = new KubernetesController(client, "apps.Deployment", 4) {
+ *     public void reconcile(String key, JsonNode deployment) throws Exception {
+ *         // deployment is null if it is deleted
+ *     }
+ * };
+ * controller.start();
+ * </pre>
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public abstract class KubernetesController implements ResourceEventHandler<JsonNode>, AutoCloseable {
+
+	public static final Logger m_logger = Logger.getLogger(KubernetesController.class.getName());
+
+	/**
+	 * client
+	 */
+	protected final KubernetesClient client;
+
+	/**
+	 * kind or fullkind
+	 */
+	protected final String fullkind;
+
+	/**
+	 * worker threads
+	 */
+	protected final int workers;
+
+	/**
+	 * keys to reconcile
+	 */
+	protected final WorkQueue<String> queue;
+
+	/**
+	 * retries of a key before it is dropped
+	 */
+	protected final int maxRetries;
+
+	/**
+	 * started workers
+	 */
+	protected final List<Thread> threads = new ArrayList<>();
+
+	/**
+	 * informer of the kind, it is set by start
+	 */
+	protected SharedInformer<JsonNode> informer;
+
+	/**
+	 * @param client   client
+	 * @param fullkind kind or fullkind
+	 * @param workers  worker threads
+	 */
+	protected KubernetesController(KubernetesClient client, String fullkind, int workers) {
+		this(client, fullkind, workers, new WorkQueue<>(), 15);
+	}
+
+	/**
+	 * @param client     client
+	 * @param fullkind   kind or fullkind
+	 * @param workers    worker threads
+	 * @param queue      queue, such as one with another backoff or rate
+	 * @param maxRetries retries of a key before it is dropped
+	 */
+	protected KubernetesController(KubernetesClient client, String fullkind, int workers, 
+						WorkQueue<String> queue, int maxRetries) {
+		super();
+		if (workers <= 0) {
+			throw new IllegalArgumentException("workers must be positive, but it is " + workers);
+		}
+		this.client = client;
+		this.fullkind = fullkind;
+		this.workers = workers;
+		this.queue = queue;
+		this.maxRetries = maxRetries;
+	}
+
+	/**
+	 * @param key namespace/name, or name of cluster-scoped objects
+	 * @param obj the cached object, or null if it is deleted
+	 * @throws Exception the key is retried
+	 */
+	public abstract void reconcile(String key, JsonNode obj) throws Exception;
+
+	/**
+	 * starts the informer, which is shared with others, and the workers
+	 * 
+	 * @throws Exception the informer cannot be started
+	 */
+	public synchronized void start() throws Exception {
+		if (informer != null) {
+			return;
+		}
+		informer = client.getInformerFactory().informerFor(fullkind, JsonNode.class);
+		informer.addEventHandler(this);
+		informer.start();
+		for (int i = 0; i < workers; i++) {
+			Thread thread = client.getOptions().getThreadFactory().newThread(this::work);
+			thread.start();
+			threads.add(thread);
+		}
+	}
+
+	/**
+	 * @param timeout timeout
+	 * @param unit    unit
+	 * @return the informer has listed all objects
+	 * @throws InterruptedException InterruptedException
+	 */
+	public boolean waitForSync(long timeout, TimeUnit unit) throws InterruptedException {
+		SharedInformer<JsonNode> current;
+		synchronized (this) {
+			current = informer;
+		}
+		return current != null && current.waitForSync(timeout, unit);
+	}
+
+	@Override
+	public void onAdd(JsonNode obj) {
+		queue.add(key(obj));
+	}
+
+	@Override
+	public void onUpdate(JsonNode oldObj, JsonNode newObj) {
+		queue.add(key(newObj));
+	}
+
+	@Override
+	public void onDelete(JsonNode obj) {
+		queue.add(key(obj));
+	}
+
+	/**
+	 * @param obj object
+	 * @return namespace/name, or name of cluster-scoped objects
+	 */
+	protected String key(JsonNode obj) {
+		JsonNode meta = obj.path(KubernetesConstants.KUBE_METADATA);
+		return InformerCache.key(meta.path(KubernetesConstants.KUBE_METADATA_NAMESPACE).asText(""),
+						meta.path(KubernetesConstants.KUBE_METADATA_NAME).asText());
+	}
+
+	/**
+	 * takes keys until the queue is shut down
+	 */
+	protected void work() {
+		try {
+			String key;
+			while ((key = queue.take()) != null) {
+				process(key);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @param key key taken from the queue
+	 */
+	protected void process(String key) {
+		try {
+			reconcile(key, informer.getCache().get(key));
+			queue.forget(key);
+		} catch (Exception ex) {
+			if (queue.numRequeues(key) < maxRetries) {
+				m_logger.warning("fail to reconcile " + fullkind + " " + key + ", retry: " + ex);
+				queue.addRateLimited(key);
+			} else {
+				m_logger.severe("fail to reconcile " + fullkind + " " + key + ", drop it: " + ex);
+				queue.forget(key);
+			}
+		} finally {
+			queue.done(key);
+		}
+	}
+
+	/**
+	 * @return keys to reconcile
+	 */
+	public WorkQueue<String> getQueue() {
+		return queue;
+	}
+
+	/**
+	 * @return queue depth, latency and retries
+	 */
+	public QueueMetrics getMetrics() {
+		return queue.getMetrics();
+	}
+
+	/**
+	 * stops the workers after their current keys, the shared informer keeps running
+	 */
+	@Override
+	public synchronized void close() {
+		queue.shutDown();
+		if (informer != null) {
+			informer.removeEventHandler(this);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.controllers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.github.kubesys.client.beans.QueueMetrics;
+import io.github.kubesys.client.utils.RateLimiter;
+import io.github.kubesys.client.utils.ThreadUtil;
+
+/**
+ * A queue of keys, such as namespace/name, for controllers.
+ *
+ * A key which is added while it is waiting is coalesced, so a burst of events
+ * for an object is processed once. A key which is added while a worker is
+ * processing it waits until the worker calls <code>done</code>, so one key is
+ * never processed by two workers at the same time.
+ *
+ * A failed key is added again by <code>addRateLimited</code> after the longer of an
+ * exponential backoff of the key, from baseDelay to maxDelay, and a token of a
+ * bucket which is shared by all keys, so a failing api-server is not flooded.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ * @param <K> key type
+ */
+public class WorkQueue<K> {
+
+	/**
+	 * keys ready for workers, in order
+	 */
+	protected final Deque<K> queue = new ArrayDeque<>();
+
+	/**
+	 * keys to be processed, and when they were added
+	 */
+	protected final Map<K, Long> dirty = new HashMap<>();
+
+	/**
+	 * keys being processed, and their queue latency and start
+	 */
+	protected final Map<K, long[]> processing = new HashMap<>();
+
+	/**
+	 * keys waiting for their delay, and when they are added
+	 */
+	protected final Map<K, Long> waiting = new HashMap<>();
+
+	/**
+	 * failures of keys
+	 */
+	protected final Map<K, Integer> failures = new ConcurrentHashMap<>();
+
+	/**
+	 * bucket shared by all retries
+	 */
+	protected final RateLimiter limiter;
+
+	/**
+	 * first backoff in nanoseconds
+	 */
+	protected final long baseDelay;
+
+	/**
+	 * max backoff in nanoseconds
+	 */
+	protected final long maxDelay;
+
+	/**
+	 * adds delayed keys, it is created when a key is delayed at first
+	 */
+	protected ScheduledExecutorService scheduler;
+
+	/**
+	 * no more keys are accepted
+	 */
+	protected boolean shuttingDown;
+
+	/**
+	 * counters of QueueMetrics
+	 */
+	protected long adds;
+
+	protected long coalesced;
+
+	protected long retries;
+
+	protected long processed;
+
+	protected long latencyNanos;
+
+	protected long maxLatencyNanos;
+
+	protected long workNanos;
+
+	/**
+	 * backoff from 5ms to 1000s, and 10 retries per second with a burst of 100
+	 */
+	public WorkQueue() {
+		this(new RateLimiter(10, 100), 5, 1000_000, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param limiter   bucket shared by all retries
+	 * @param baseDelay first backoff of a key
+	 * @param maxDelay  max backoff of a key
+	 * @param unit      unit of delays
+	 */
+	public WorkQueue(RateLimiter limiter, long baseDelay, long maxDelay, TimeUnit unit) {
+		super();
+		this.limiter = limiter;
+		this.baseDelay = unit.toNanos(baseDelay);
+		this.maxDelay = unit.toNanos(maxDelay);
+	}
+
+	/**
+	 * @param key key, it is ignored after shutDown
+	 */
+	public synchronized void add(K key) {
+		if (shuttingDown) {
+			return;
+		}
+		adds++;
+		if (dirty.containsKey(key)) {
+			coalesced++;
+			return;
+		}
+		dirty.put(key, System.nanoTime());
+		if (!processing.containsKey(key)) {
+			queue.add(key);
+			notify();
+		}
+	}
+
+	/**
+	 * @param key   key
+	 * @param delay delay, the key is added at once if it is not positive
+	 * @param unit  unit
+	 */
+	public synchronized void addAfter(K key, long delay, TimeUnit unit) {
+		if (shuttingDown) {
+			return;
+		}
+		if (delay <= 0) {
+			add(key);
+			return;
+		}
+		long readyAt = System.nanoTime() + unit.toNanos(delay);
+		Long earlier = waiting.get(key);
+		if (earlier != null && earlier - readyAt <= 0) {
+			return;
+		}
+		waiting.put(key, readyAt);
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(
+								ThreadUtil.platformThreadFactory("workqueue-", true));
+		}
+		scheduler.schedule(() -> ready(key, readyAt), delay, unit);
+	}
+
+	/**
+	 * adds a failed key again after its backoff or a token of the shared bucket,
+	 * whichever is later
+	 * 
+	 * @param key key
+	 */
+	public void addRateLimited(K key) {
+		int n = failures.merge(key, 1, Integer::sum) - 1;
+		// baseDelay * 2^n, unless it overflows
+		long backoff = n < Long.numberOfLeadingZeros(baseDelay) - 1 ? Math.min(maxDelay, baseDelay << n) : maxDelay;
+		long delay = Math.max(backoff, limiter.reserve());
+		synchronized (this) {
+			retries++;
+		}
+		addAfter(key, delay, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * resets the backoff of a key, it should be called when the key is processed successfully
+	 * 
+	 * @param key key
+	 */
+	public void forget(K key) {
+		failures.remove(key);
+	}
+
+	/**
+	 * @param key key
+	 * @return failures since the last forget
+	 */
+	public int numRequeues(K key) {
+		return failures.getOrDefault(key, 0);
+	}
+
+	/**
+	 * waits for a key, which must be passed to <code>done</code> after it is processed
+	 * 
+	 * @return key, or null if the queue is shut down
+	 * @throws InterruptedException InterruptedException
+	 */
+	public synchronized K take() throws InterruptedException {
+		while (queue.isEmpty() && !shuttingDown) {
+			wait();
+		}
+		K key = queue.poll();
+		if (key == null) {
+			return null;
+		}
+		long now = System.nanoTime();
+		processing.put(key, new long[] {now - dirty.remove(key), now});
+		return key;
+	}
+
+	/**
+	 * @param key key returned by take, it is queued again if it was added while it was processed
+	 */
+	public synchronized void done(K key) {
+		long[] started = processing.remove(key);
+		if (started == null) {
+			return;
+		}
+		processed++;
+		latencyNanos += started[0];
+		maxLatencyNanos = Math.max(maxLatencyNanos, started[0]);
+		workNanos += System.nanoTime() - started[1];
+		if (dirty.containsKey(key) && !shuttingDown) {
+			queue.add(key);
+			notify();
+		}
+	}
+
+	/**
+	 * @return keys ready for workers
+	 */
+	public synchronized int length() {
+		return queue.size();
+	}
+
+	/**
+	 * workers get null from take once the queue is shut down, waiting keys are dropped
+	 */
+	public synchronized void shutDown() {
+		shuttingDown = true;
+		queue.clear();
+		waiting.clear();
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * @return shutDown is called
+	 */
+	public synchronized boolean isShuttingDown() {
+		return shuttingDown;
+	}
+
+	/**
+	 * @return counters since the queue was created
+	 */
+	public synchronized QueueMetrics getMetrics() {
+		return new QueueMetrics(queue.size(), adds, coalesced, retries, processed, 
+						latencyNanos, maxLatencyNanos, workNanos);
+	}
+
+	private synchronized void ready(K key, long readyAt) {
+		Long current = waiting.get(key);
+		// the key may be waiting for an earlier time now
+		if (current != null && current == readyAt) {
+			waiting.remove(key);
+			add(key);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.informers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+
+/**
+ * Common index functions for <code>SharedInformer.addIndexer</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class Indexers {
+
+	/**
+	 * metadata.namespace, it is added to all informers
+	 */
+	public static final String NAMESPACE = "namespace";
+
+	/**
+	 * spec.nodeName of pods
+	 */
+	public static final String NODE_NAME = "nodeName";
+
+	/**
+	 * metadata.ownerReferences[*].uid
+	 */
+	public static final String OWNER_UID = "ownerUid";
+
+	/**
+	 * key=value of all metadata.labels
+	 */
+	public static final String LABELS = "labels";
+
+	private Indexers() {
+		super();
+	}
+
+	/**
+	 * @return index by metadata.namespace
+	 */
+	public static IndexFunction namespace() {
+		return field(KubernetesConstants.KUBE_METADATA + "." + KubernetesConstants.KUBE_METADATA_NAMESPACE);
+	}
+
+	/**
+	 * @return index by spec.nodeName
+	 */
+	public static IndexFunction nodeName() {
+		return field("spec.nodeName");
+	}
+
+	/**
+	 * @return index by the uid of each owner
+	 */
+	public static IndexFunction ownerUid() {
+		return obj -> {
+			JsonNode owners = obj.path(KubernetesConstants.KUBE_METADATA).path("ownerReferences");
+			if (owners.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<String> uids = new ArrayList<>(owners.size());
+			for (JsonNode owner : owners) {
+				if (owner.hasNonNull("uid")) {
+					uids.add(owner.get("uid").asText());
+				}
+			}
+			return uids;
+		};
+	}
+
+	/**
+	 * @param key label key
+	 * @return index by the value of the label
+	 */
+	public static IndexFunction label(String key) {
+		return obj -> {
+			JsonNode value = obj.path(KubernetesConstants.KUBE_METADATA).path("labels").get(key);
+			return value == null || value.isNull() ? Collections.emptyList() : List.of(value.asText());
+		};
+	}
+
+	/**
+	 * @return index by key=value of each label, see <code>labelValue</code>
+	 */
+	public static IndexFunction labels() {
+		return obj -> {
+			JsonNode labels = obj.path(KubernetesConstants.KUBE_METADATA).path("labels");
+			if (labels.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<String> values = new ArrayList<>(labels.size());
+			Iterator<Map.Entry<String, JsonNode>> iter = labels.fields();
+			while (iter.hasNext()) {
+				Map.Entry<String, JsonNode> label = iter.next();
+				values.add(labelValue(label.getKey(), label.getValue().asText()));
+			}
+			return values;
+		};
+	}
+
+	/**
+	 * @param key   label key
+	 * @param value label value
+	 * @return the value of the labels index
+	 */
+	public static String labelValue(String key, String value) {
+		return key + "=" + value;
+	}
+
+	/**
+	 * @param path dotted path, such as spec.nodeName or spec.containers.image,
+	 *             arrays are indexed element by element
+	 * @return index by the values of the field
+	 */
+	public static IndexFunction field(String path) {
+		String[] names = path.split("\\.");
+		return obj -> {
+			List<String> values = new ArrayList<>(1);
+			collect(obj, names, 0, values);
+			return values;
+		};
+	}
+
+	/**
+	 * @param node   node
+	 * @param names  path
+	 * @param idx    the next name
+	 * @param values values
+	 */
+	static void collect(JsonNode node, String[] names, int idx, List<String> values) {
+		if (node.isArray()) {
+			for (JsonNode item : node) {
+				collect(item, names, idx, values);
+			}
+		} else if (idx < names.length) {
+			collect(node.path(names[idx]), names, idx + 1, values);
+		} else if (!node.isMissingNode() && !node.isNull()) {
+			values.add(node.asText());
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.informers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * The thread-safe local cache of a <code>SharedInformer</code>, the objects are keyed by
+ * namespace/name, or name for cluster-scoped objects. It is only written by the watch
+ * thread, and can be read by any thread.
+ *
+ * The indexes map each value of an <code>IndexFunction</code> to the keys of the objects,
+ * they are updated on each change, so <code>byIndex</code> is a map lookup.
+ *
+ * Selectors are evaluated on JsonNode objects directly, and on a view of other objects
+ * which is kept when they are stored, so a query does not convert any object.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ * @param <T> object type
+ */
+public class InformerCache<T> {
+
+	/**
+	 * namespace/name to object
+	 */
+	protected final Map<String, T> items = new ConcurrentHashMap<>();
+
+	/**
+	 * index name to index function
+	 */
+	protected final Map<String, IndexFunction> indexers = new ConcurrentHashMap<>();
+
+	/**
+	 * index name to index value to keys
+	 */
+	protected final Map<String, Map<String, Set<String>>> indices = new ConcurrentHashMap<>();
+
+	/**
+	 * key to index name to index values, they are removed when the object changes
+	 */
+	protected final Map<String, Map<String, List<String>>> indexed = new ConcurrentHashMap<>();
+
+	/**
+	 * key to the selectable view of objects which are not JsonNode, see <code>view</code>
+	 */
+	protected final Map<String, JsonNode> views = new ConcurrentHashMap<>();
+
+	/**
+	 * @param namespace namespace, null or empty for cluster-scoped objects
+	 * @param name      name
+	 * @return key
+	 */
+	public static String key(String namespace, String name) {
+		return namespace == null || namespace.isEmpty() ? name : namespace + "/" + name;
+	}
+
+	/**
+	 * The fields which selectors can use: apiVersion, kind, metadata without managedFields,
+	 * and the scalar fields of the object and of its top-level objects, such as spec.nodeName
+	 * or status.phase. It shares the nodes of the object.
+	 *
+	 * @param node the object as json
+	 * @return view
+	 */
+	public static JsonNode view(JsonNode node) {
+		ObjectNode view = JsonSupport.createObjectNode();
+		Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode value = field.getValue();
+			if (value.isValueNode()) {
+				view.set(field.getKey(), value);
+			} else if (value.isObject()) {
+				boolean metadata = KubernetesConstants.KUBE_METADATA.equals(field.getKey());
+				ObjectNode child = view.putObject(field.getKey());
+				Iterator<Map.Entry<String, JsonNode>> children = value.fields();
+				while (children.hasNext()) {
+					Map.Entry<String, JsonNode> c = children.next();
+					if (metadata ? !"managedFields".equals(c.getKey()) : c.getValue().isValueNode()) {
+						child.set(c.getKey(), c.getValue());
+					}
+				}
+			}
+		}
+		return view;
+	}
+
+	/**
+	 * existing objects are indexed at once, an object which is not JsonNode is
+	 * converted once here, since the index function may use any field
+	 *
+	 * @param name    index name
+	 * @param indexer index function
+	 */
+	public synchronized void addIndexer(String name, IndexFunction indexer) {
+		if (indexers.putIfAbsent(name, indexer) != null) {
+			throw new IllegalArgumentException("index " + name + " exists");
+		}
+		indices.put(name, new ConcurrentHashMap<>());
+		for (Map.Entry<String, T> item : items.entrySet()) {
+			T obj = item.getValue();
+			JsonNode node = obj instanceof JsonNode ? (JsonNode) obj : JsonSupport.valueToTree(obj);
+			index(item.getKey(), name, indexer.index(node));
+		}
+	}
+
+	/**
+	 * @param key  key
+	 * @param node the object as json, it is used by index functions
+	 * @param obj  obj
+	 * @return the replaced object, or null
+	 */
+	public synchronized T put(String key, JsonNode node, T obj) {
+		// the view is there before the object can be listed
+		if (obj instanceof JsonNode) {
+			views.remove(key);
+		} else {
+			views.put(key, view(node));
+		}
+		T old = items.put(key, obj);
+		unindex(key);
+		for (Map.Entry<String, IndexFunction> indexer : indexers.entrySet()) {
+			index(key, indexer.getKey(), indexer.getValue().index(node));
+		}
+		return old;
+	}
+
+	/**
+	 * @param key key
+	 * @return the removed object, or null
+	 */
+	public synchronized T remove(String key) {
+		unindex(key);
+		views.remove(key);
+		return items.remove(key);
+	}
+
+	/**
+	 * @param key    key
+	 * @param name   index name
+	 * @param values index values
+	 */
+	protected void index(String key, String name, List<String> values) {
+		if (values == null || values.isEmpty()) {
+			return;
+		}
+		Map<String, Set<String>> index = indices.get(name);
+		for (String value : values) {
+			index.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+		}
+		indexed.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(name, values);
+	}
+
+	/**
+	 * @param key key
+	 */
+	protected void unindex(String key) {
+		Map<String, List<String>> old = indexed.remove(key);
+		if (old == null) {
+			return;
+		}
+		for (Map.Entry<String, List<String>> entry : old.entrySet()) {
+			Map<String, Set<String>> index = indices.get(entry.getKey());
+			for (String value : entry.getValue()) {
+				index.computeIfPresent(value, (v, keys) -> {
+					keys.remove(key);
+					return keys.isEmpty() ? null : keys;
+				});
+			}
+		}
+	}
+
+	/**
+	 * @param key namespace/name, or name
+	 * @return object, or null
+	 */
+	public T get(String key) {
+		return items.get(key);
+	}
+
+	/**
+	 * @param namespace namespace
+	 * @param name      name
+	 * @return object, or null
+	 */
+	public T get(String namespace, String name) {
+		return items.get(key(namespace, name));
+	}
+
+	/**
+	 * @param name  index name
+	 * @param value index value
+	 * @return keys of the indexed objects
+	 */
+	public Set<String> indexKeys(String name, String value) {
+		Map<String, Set<String>> index = indices.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("index " + name + " does not exist");
+		}
+		Set<String> keys = index.get(value);
+		return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+	}
+
+	/**
+	 * @param name  index name
+	 * @param value index value
+	 * @return the indexed objects
+	 */
+	public List<T> byIndex(String name, String value) {
+		Set<String> keys = indexKeys(name, value);
+		List<T> list = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			T obj = items.get(key);
+			if (obj != null) {
+				list.add(obj);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @return index names
+	 */
+	public Set<String> indexNames() {
+		return indexers.keySet();
+	}
+
+	/**
+	 * @return a snapshot of all objects
+	 */
+	public List<T> list() {
+		return new ArrayList<>(items.values());
+	}
+
+	/**
+	 * @param selector selector, such as a <code>LabelSelector</code>, objects which
+	 *                 are not JsonNode are tested with their <code>view</code>
+	 * @return the selected objects
+	 */
+	public List<T> list(Predicate<JsonNode> selector) {
+		List<T> list = new ArrayList<>();
+		for (Map.Entry<String, T> item : items.entrySet()) {
+			T obj = item.getValue();
+			JsonNode node = obj instanceof JsonNode ? (JsonNode) obj : views.get(item.getKey());
+			if (node != null && selector.test(node)) {
+				list.add(obj);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @return keys
+	 */
+	public Set<String> keys() {
+		return items.keySet();
+	}
+
+	/**
+	 * @return size
+	 */
+	public int size() {
+		return items.size();
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.informers;
+
+/**
+ * Receives the changes of a <code>SharedInformer</code> cache, all handlers of an informer
+ * are called one by one on its watch thread, so they should not block.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ * @param <T> object type
+ */
+public interface ResourceEventHandler<T> {
+
+	/**
+	 * @param obj the new object, or an existing object when the handler is added late
+	 */
+	default void onAdd(T obj) {
+	}
+
+	/**
+	 * @param oldObj the cached object
+	 * @param newObj the new object
+	 */
+	default void onUpdate(T oldObj, T newObj) {
+	}
+
+	/**
+	 * @param obj the last known state of the deleted object
+	 */
+	default void onDelete(T obj) {
+	}
+}
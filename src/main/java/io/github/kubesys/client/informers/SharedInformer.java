@@ -0,0 +1,314 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.informers;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.ObjectMetadata;
+import io.github.kubesys.client.selectors.Selector;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * Lists all objects of a kind page by page, then watches them from the version of the
+ * list, and keeps them in a local <code>InformerCache</code>. Any number of handlers
+ * and readers share the same list and watch, see <code>SharedInformerFactory</code>.
+ *
+ * The cache can be queried by indexes, such as all pods on a node, see <code>addIndexer</code>.
+ *
+ * A broken watch is resumed, and re-listed if its version is too old, as
+ * <code>KubernetesWatcher</code> does, so the cache is eventually consistent.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ * @param <T> object type, JsonNode, ObjectMetadata, or a bean which Jackson can convert to
+ */
+public class SharedInformer<T> extends KubernetesWatcher {
+
+	public static final Logger m_logger = Logger.getLogger(SharedInformer.class.getName());
+
+	/**
+	 * fullkind
+	 */
+	protected final String fullkind;
+
+	/**
+	 * namespace, null or empty for all namespaces
+	 */
+	protected final String namespace;
+
+	/**
+	 * object type
+	 */
+	protected final Class<T> type;
+
+	/**
+	 * cache
+	 */
+	protected final InformerCache<T> cache = new InformerCache<>();
+
+	/**
+	 * handlers
+	 */
+	protected final List<ResourceEventHandler<T>> handlers = new CopyOnWriteArrayList<>();
+
+	/**
+	 * released after the first list
+	 */
+	protected final CountDownLatch synced = new CountDownLatch(1);
+
+	/**
+	 * the watch thread
+	 */
+	protected Thread thread;
+
+	/**
+	 * @param client    client
+	 * @param fullkind  fullkind
+	 * @param namespace namespace, null or empty for all namespaces
+	 * @param type      object type, the informer is metadata-only if it is <code>ObjectMetadata</code>
+	 */
+	public SharedInformer(KubernetesClient client, String fullkind, String namespace, Class<T> type) {
+		super(client);
+		this.fullkind = fullkind;
+		this.namespace = namespace == null ? KubernetesConstants.VALUE_ALL_NAMESPACES : namespace;
+		this.type = type;
+		this.metadataOnly = type == ObjectMetadata.class;
+		this.cache.addIndexer(Indexers.NAMESPACE, Indexers.namespace());
+	}
+
+	/**
+	 * starts the list and watch once, later calls return the same thread
+	 *
+	 * @return thread
+	 * @throws Exception the kind is unknown
+	 */
+	public synchronized Thread start() throws Exception {
+		if (thread == null) {
+			thread = metadataOnly ? client.watchResourcesMetadata(fullkind, namespace, this)
+						: client.watchResourcesByFullkindAndNamespace(fullkind, namespace, this);
+		}
+		return thread;
+	}
+
+	/**
+	 * the handler first receives <code>onAdd</code> for all cached objects
+	 *
+	 * @param handler handler
+	 */
+	public void addEventHandler(ResourceEventHandler<T> handler) {
+		synchronized (handlers) {
+			for (T obj : cache.list()) {
+				handler.onAdd(obj);
+			}
+			handlers.add(handler);
+		}
+	}
+
+	/**
+	 * @param handler handler
+	 */
+	public void removeEventHandler(ResourceEventHandler<T> handler) {
+		handlers.remove(handler);
+	}
+
+	/**
+	 * @return true if the first list is in the cache
+	 */
+	public boolean hasSynced() {
+		return synced.getCount() == 0;
+	}
+
+	/**
+	 * @param timeout timeout
+	 * @param unit    unit
+	 * @return true if it is synced in time
+	 * @throws InterruptedException InterruptedException
+	 */
+	public boolean waitForSync(long timeout, TimeUnit unit) throws InterruptedException {
+		return synced.await(timeout, unit);
+	}
+
+	/**
+	 * adds an index to the cache, e.g. <code>addIndexer(Indexers.NODE_NAME, Indexers.nodeName())</code>,
+	 * the namespace index exists already
+	 *
+	 * @param name    index name
+	 * @param indexer index function
+	 */
+	public void addIndexer(String name, IndexFunction indexer) {
+		cache.addIndexer(name, indexer);
+	}
+
+	/**
+	 * @param name  index name
+	 * @param value index value
+	 * @return the cached objects with this index value
+	 */
+	public List<T> byIndex(String name, String value) {
+		return cache.byIndex(name, value);
+	}
+
+	/**
+	 * @return cache
+	 */
+	public InformerCache<T> getCache() {
+		return cache;
+	}
+
+	/**
+	 * @return a snapshot of all cached objects
+	 */
+	public List<T> list() {
+		return cache.list();
+	}
+
+	/**
+	 * @param selector selector, such as <code>LabelSelector.parse("app in (web,api)")</code>
+	 * @return the selected cached objects
+	 */
+	public List<T> list(Selector selector) {
+		return cache.list(selector);
+	}
+
+	/**
+	 * @param namespace namespace
+	 * @param name      name
+	 * @return cached object, or null
+	 */
+	public T get(String namespace, String name) {
+		return cache.get(namespace, name);
+	}
+
+	/**
+	 * @return fullkind
+	 */
+	public String getFullkind() {
+		return fullkind;
+	}
+
+	/**
+	 * @return type
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/***********************************************************
+	 * 
+	 *                    List and watch
+	 * 
+	 ***********************************************************/
+
+	@Override
+	public void run() {
+		long backoff = MIN_BACKOFF;
+		while (!isStopped()) {
+			try {
+				relist();
+				synced.countDown();
+				break;
+			} catch (Exception ex) {
+				m_logger.warning("fail to list " + listUrl + ": " + ex);
+				pause(backoff);
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			}
+		}
+		super.run();
+	}
+
+	@Override
+	public void doAdded(JsonNode node) {
+		T obj = convert(node);
+		if (obj == null) {
+			return;
+		}
+		synchronized (handlers) {
+			T old = cache.put(key(node.path(KubernetesConstants.KUBE_METADATA)), node, obj);
+			for (ResourceEventHandler<T> handler : handlers) {
+				try {
+					if (old == null) {
+						handler.onAdd(obj);
+					} else {
+						handler.onUpdate(old, obj);
+					}
+				} catch (Exception ex) {
+					m_logger.severe("handler of " + fullkind + " fails: " + ex);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void doModified(JsonNode node) {
+		doAdded(node);
+	}
+
+	@Override
+	public void doDeleted(JsonNode node) {
+		synchronized (handlers) {
+			T old = cache.remove(key(node.path(KubernetesConstants.KUBE_METADATA)));
+			T obj = old != null ? old : convert(node);
+			if (obj == null) {
+				return;
+			}
+			for (ResourceEventHandler<T> handler : handlers) {
+				try {
+					handler.onDelete(obj);
+				} catch (Exception ex) {
+					m_logger.severe("handler of " + fullkind + " fails: " + ex);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected JsonNode tombstone(String key) {
+		// the last known state, instead of only the name
+		T obj = cache.get(key);
+		return obj == null ? super.tombstone(key) : JsonSupport.valueToTree(obj);
+	}
+
+	@Override
+	public void doClose() {
+		m_logger.severe("informer of " + fullkind + " is closed");
+	}
+
+	/**
+	 * @param node node
+	 * @return object, or null if it cannot be converted
+	 */
+	protected T convert(JsonNode node) {
+		if (type == ObjectMetadata.class) {
+			return type.cast(ObjectMetadata.from(node));
+		}
+		try {
+			return JsonSupport.treeToValue(node, type);
+		} catch (Exception ex) {
+			m_logger.severe("fail to convert " + fullkind + ": " + ex);
+			return null;
+		}
+	}
+}
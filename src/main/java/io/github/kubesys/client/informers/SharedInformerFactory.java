@@ -0,0 +1,127 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.informers;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.ObjectMetadata;
+
+/**
+ * Keeps one <code>SharedInformer</code> per kind and namespace, so that all components
+ * of a process share one list and watch, see <code>KubernetesClient.getInformerFactory</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class SharedInformerFactory implements Closeable {
+
+	/**
+	 * client
+	 */
+	protected final KubernetesClient client;
+
+	/**
+	 * fullkind/namespace, or fullkind/namespace/metadata, to informer
+	 */
+	protected final Map<String, SharedInformer<?>> informers = new ConcurrentHashMap<>();
+
+	/**
+	 * @param client client
+	 */
+	public SharedInformerFactory(KubernetesClient client) {
+		super();
+		this.client = client;
+	}
+
+	/**
+	 * @param <T>      object type
+	 * @param fullkind fullkind
+	 * @param type     object type
+	 * @return the informer for all namespaces, it is not started
+	 */
+	public <T> SharedInformer<T> informerFor(String fullkind, Class<T> type) {
+		return informerFor(fullkind, null, type);
+	}
+
+	/**
+	 * @param <T>       object type
+	 * @param fullkind  fullkind
+	 * @param namespace namespace, null or empty for all namespaces
+	 * @param type      object type
+	 * @return the informer, it is not started
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> SharedInformer<T> informerFor(String fullkind, String namespace, Class<T> type) {
+		String key = fullkind + "/" + (namespace == null ? "" : namespace)
+						+ (type == ObjectMetadata.class ? "/metadata" : "");
+		SharedInformer<?> informer = informers.computeIfAbsent(key,
+						k -> new SharedInformer<>(client, fullkind, namespace, type));
+		if (!informer.getType().equals(type)) {
+			throw new IllegalArgumentException("informer of " + key + " uses " + informer.getType().getName());
+		}
+		return (SharedInformer<T>) informer;
+	}
+
+	/**
+	 * the cache keeps <code>ObjectMetadata</code> instead of full objects, it is for
+	 * controllers which only need names, labels and owners
+	 *
+	 * @param fullkind  fullkind
+	 * @param namespace namespace, null or empty for all namespaces
+	 * @return the metadata-only informer, it is not started
+	 */
+	public SharedInformer<ObjectMetadata> metadataInformerFor(String fullkind, String namespace) {
+		return informerFor(fullkind, namespace, ObjectMetadata.class);
+	}
+
+	/**
+	 * @throws Exception a kind is unknown
+	 */
+	public void startAll() throws Exception {
+		for (SharedInformer<?> informer : informers.values()) {
+			informer.start();
+		}
+	}
+
+	/**
+	 * @param timeout timeout for all informers
+	 * @param unit    unit
+	 * @return true if all informers are synced in time
+	 * @throws InterruptedException InterruptedException
+	 */
+	public boolean waitForCacheSync(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (SharedInformer<?> informer : informers.values()) {
+			if (!informer.waitForSync(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void close() {
+		for (SharedInformer<?> informer : informers.values()) {
+			informer.stop();
+		}
+		informers.clear();
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.selectors;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Field selector, e.g. <code>spec.nodeName=node1,status.phase!=Running</code>,
+ * a missing field is treated as an empty value, as the api-server does.
+ *
+ * see https://kubernetes.io/docs/concepts/overview/working-with-objects/field-selectors/
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class FieldSelector implements Selector {
+
+	/**
+	 * selects everything
+	 */
+	static final FieldSelector EVERYTHING = new FieldSelector(new Requirement[0]);
+
+	/**
+	 * all of them must match
+	 */
+	private final Requirement[] requirements;
+
+	private FieldSelector(Requirement[] requirements) {
+		super();
+		this.requirements = requirements;
+	}
+
+	/**
+	 * @return a selector matching everything
+	 */
+	public static FieldSelector everything() {
+		return EVERYTHING;
+	}
+
+	/**
+	 * @param selector selector, null or empty matches everything
+	 * @return compiled selector
+	 * @throws IllegalArgumentException the syntax is invalid
+	 */
+	public static FieldSelector parse(String selector) {
+		if (selector == null || selector.isBlank()) {
+			return EVERYTHING;
+		}
+		List<Requirement> list = new ArrayList<>();
+		for (String part : selector.split(",")) {
+			String requirement = part.trim();
+			int idx = requirement.indexOf("!=");
+			if (idx != -1) {
+				list.add(new Requirement(requirement.substring(0, idx).trim(), true,
+								requirement.substring(idx + 2).trim()));
+				continue;
+			}
+			idx = requirement.indexOf('=');
+			if (idx == -1) {
+				throw new IllegalArgumentException("invalid field requirement '" + requirement + "'");
+			}
+			int len = requirement.startsWith("==", idx) ? 2 : 1;
+			list.add(new Requirement(requirement.substring(0, idx).trim(), false,
+								requirement.substring(idx + len).trim()));
+		}
+		return new FieldSelector(list.toArray(new Requirement[0]));
+	}
+
+	/**
+	 * @param fields fields, all of them must be equal
+	 * @return compiled selector
+	 */
+	public static FieldSelector fromMap(Map<String, String> fields) {
+		if (fields == null || fields.isEmpty()) {
+			return EVERYTHING;
+		}
+		List<Requirement> list = new ArrayList<>();
+		for (Map.Entry<String, String> field : fields.entrySet()) {
+			list.add(new Requirement(field.getKey(), false, field.getValue()));
+		}
+		return new FieldSelector(list.toArray(new Requirement[0]));
+	}
+
+	@Override
+	public boolean test(JsonNode obj) {
+		for (Requirement requirement : requirements) {
+			if (!requirement.matches(obj)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return requirements.length == 0;
+	}
+
+	@Override
+	public String toQueryParam() {
+		return URLEncoder.encode(toString(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Requirement requirement : requirements) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(requirement.field).append(requirement.negated ? "!=" : "=").append(requirement.value);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * One requirement of a selector
+	 */
+	static final class Requirement {
+
+		final String field;
+
+		/**
+		 * the field split by dots
+		 */
+		final String[] path;
+
+		final boolean negated;
+
+		final String value;
+
+		Requirement(String field, boolean negated, String value) {
+			if (field.isEmpty()) {
+				throw new IllegalArgumentException("empty field");
+			}
+			this.field = field;
+			this.path = field.split("\\.");
+			this.negated = negated;
+			this.value = value;
+		}
+
+		boolean matches(JsonNode obj) {
+			JsonNode node = obj;
+			for (String name : path) {
+				node = node.path(name);
+			}
+			String actual = node.isValueNode() ? node.asText() : "";
+			return negated != value.equals(actual);
+		}
+	}
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.selectors;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+
+/**
+ * Label selector with the full Kubernetes syntax, e.g.
+ * <code>app=web,tier!=cache,env in (prod,staging),release notin (canary),owner,!legacy</code>
+ *
+ * see https://kubernetes.io/docs/concepts/overview/working-with-objects/labels/#label-selectors
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class LabelSelector implements Selector {
+
+	/**
+	 * key in (a,b), key notin (a,b)
+	 */
+	static final Pattern SET_BASED = Pattern.compile("^(\\S+)\\s+(in|notin)\\s*\\((.*)\\)$");
+
+	/**
+	 * selects everything
+	 */
+	static final LabelSelector EVERYTHING = new LabelSelector(new Requirement[0]);
+
+	/**
+	 * operators
+	 */
+	public enum Operator {
+		EQUALS, NOT_EQUALS, IN, NOT_IN, EXISTS, DOES_NOT_EXIST
+	}
+
+	/**
+	 * all of them must match
+	 */
+	private final Requirement[] requirements;
+
+	private LabelSelector(Requirement[] requirements) {
+		super();
+		this.requirements = requirements;
+	}
+
+	/**
+	 * @return a selector matching everything
+	 */
+	public static LabelSelector everything() {
+		return EVERYTHING;
+	}
+
+	/**
+	 * @param selector selector, null or empty matches everything
+	 * @return compiled selector
+	 * @throws IllegalArgumentException the syntax is invalid
+	 */
+	public static LabelSelector parse(String selector) {
+		if (selector == null || selector.isBlank()) {
+			return EVERYTHING;
+		}
+		List<Requirement> list = new ArrayList<>();
+		for (String part : split(selector)) {
+			list.add(Requirement.parse(part.trim()));
+		}
+		return new LabelSelector(list.toArray(new Requirement[0]));
+	}
+
+	/**
+	 * @param labels labels, all of them must be equal
+	 * @return compiled selector
+	 */
+	public static LabelSelector fromMap(Map<String, String> labels) {
+		if (labels == null || labels.isEmpty()) {
+			return EVERYTHING;
+		}
+		List<Requirement> list = new ArrayList<>();
+		for (Map.Entry<String, String> label : labels.entrySet()) {
+			list.add(new Requirement(label.getKey(), Operator.EQUALS, Set.of(label.getValue())));
+		}
+		return new LabelSelector(list.toArray(new Requirement[0]));
+	}
+
+	/**
+	 * @param selector selector
+	 * @return requirements, commas inside parentheses are values
+	 */
+	static List<String> split(String selector) {
+		List<String> parts = new ArrayList<>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < selector.length(); i++) {
+			char c = selector.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				parts.add(selector.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if (depth != 0) {
+			throw new IllegalArgumentException("unbalanced parentheses in " + selector);
+		}
+		parts.add(selector.substring(start));
+		return parts;
+	}
+
+	@Override
+	public boolean test(JsonNode obj) {
+		JsonNode labels = obj.path(KubernetesConstants.KUBE_METADATA).path("labels");
+		for (Requirement requirement : requirements) {
+			JsonNode value = labels.get(requirement.key);
+			if (!requirement.matches(value == null || value.isNull() ? null : value.asText())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param labels labels
+	 * @return true if the labels are selected
+	 */
+	public boolean matches(Map<String, String> labels) {
+		for (Requirement requirement : requirements) {
+			if (!requirement.matches(labels == null ? null : labels.get(requirement.key))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return requirements
+	 */
+	public List<Requirement> getRequirements() {
+		return List.of(requirements);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return requirements.length == 0;
+	}
+
+	@Override
+	public String toQueryParam() {
+		return URLEncoder.encode(toString(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Requirement requirement : requirements) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(requirement);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * One requirement of a selector
+	 */
+	public static final class Requirement {
+
+		private final String key;
+
+		private final Operator operator;
+
+		private final Set<String> values;
+
+		/**
+		 * the only value of EQUALS and NOT_EQUALS
+		 */
+		private final String value;
+
+		Requirement(String key, Operator operator, Set<String> values) {
+			if (key == null || key.isEmpty() || key.chars().anyMatch(Character::isWhitespace)) {
+				throw new IllegalArgumentException("invalid label key '" + key + "'");
+			}
+			this.key = key;
+			this.operator = operator;
+			this.values = values;
+			this.value = values.isEmpty() ? null : values.iterator().next();
+		}
+
+		/**
+		 * @param requirement requirement
+		 * @return compiled requirement
+		 */
+		static Requirement parse(String requirement) {
+			if (requirement.isEmpty()) {
+				throw new IllegalArgumentException("empty requirement");
+			}
+			if (requirement.startsWith("!")) {
+				return new Requirement(requirement.substring(1).trim(), Operator.DOES_NOT_EXIST, Collections.emptySet());
+			}
+			Matcher matcher = SET_BASED.matcher(requirement);
+			if (matcher.matches()) {
+				Set<String> values = new LinkedHashSet<>();
+				for (String value : matcher.group(3).split(",")) {
+					if (!value.isBlank()) {
+						values.add(value.trim());
+					}
+				}
+				return new Requirement(matcher.group(1), "in".equals(matcher.group(2))
+									? Operator.IN : Operator.NOT_IN, Collections.unmodifiableSet(values));
+			}
+			int idx = requirement.indexOf("!=");
+			if (idx != -1) {
+				return new Requirement(requirement.substring(0, idx).trim(), Operator.NOT_EQUALS,
+									Set.of(requirement.substring(idx + 2).trim()));
+			}
+			idx = requirement.indexOf('=');
+			if (idx != -1) {
+				int len = requirement.startsWith("==", idx) ? 2 : 1;
+				return new Requirement(requirement.substring(0, idx).trim(), Operator.EQUALS,
+									Set.of(requirement.substring(idx + len).trim()));
+			}
+			return new Requirement(requirement, Operator.EXISTS, Collections.emptySet());
+		}
+
+		/**
+		 * @param actual the label value, or null if it does not exist
+		 * @return true if it matches
+		 */
+		boolean matches(String actual) {
+			switch (operator) {
+			case EQUALS:
+				return value.equals(actual);
+			case NOT_EQUALS:
+				return !value.equals(actual);
+			case IN:
+				return actual != null && values.contains(actual);
+			case NOT_IN:
+				return actual == null || !values.contains(actual);
+			case EXISTS:
+				return actual != null;
+			default:
+				return actual == null;
+			}
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public Operator getOperator() {
+			return operator;
+		}
+
+		public Set<String> getValues() {
+			return values;
+		}
+
+		@Override
+		public String toString() {
+			switch (operator) {
+			case EQUALS:
+				return key + "=" + value;
+			case NOT_EQUALS:
+				return key + "!=" + value;
+			case IN:
+				return key + " in (" + String.join(",", values) + ")";
+			case NOT_IN:
+				return key + " notin (" + String.join(",", values) + ")";
+			case EXISTS:
+				return key;
+			default:
+				return "!" + key;
+			}
+		}
+	}
+}
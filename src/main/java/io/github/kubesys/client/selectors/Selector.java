@@ -0,0 +1,51 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.selectors;
+
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A compiled label or field selector, it is both a query parameter for the api-server,
+ * and a predicate for local objects, such as the cache of a <code>SharedInformer</code>.
+ *
+ * Selectors are immutable, so they can be compiled once and shared by threads.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public interface Selector extends Predicate<JsonNode> {
+
+	/**
+	 * @param obj a Kubernetes object
+	 * @return true if the object is selected
+	 */
+	@Override
+	boolean test(JsonNode obj);
+
+	/**
+	 * @return true if it selects everything
+	 */
+	boolean isEmpty();
+
+	/**
+	 * @return the url-encoded selector, it can be appended to
+	 *         <code>labelSelector=</code> or <code>fieldSelector=</code>
+	 */
+	String toQueryParam();
+}
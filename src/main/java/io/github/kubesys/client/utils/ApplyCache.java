@@ -0,0 +1,213 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Remembers the SHA-256 of the last intent applied to each object and the
+ * object returned by the api-server, so a GitOps loop which applies the same
+ * manifests again and again only sends the ones which have changed.
+ *
+ * An entry expires after the ttl, so a drift made by others is corrected by
+ * the next apply after it. The cache does not see changes made by others.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class ApplyCache {
+
+	/**
+	 * methods which do not change objects
+	 */
+	protected static final Set<String> READS = Set.of("GET", "HEAD", "OPTIONS");
+
+	/**
+	 * status of an object
+	 */
+	protected static final String STATUS = "/status";
+
+	/**
+	 * ttl in nanoseconds, zero disables the cache
+	 */
+	protected final long ttl;
+
+	/**
+	 * max entries
+	 */
+	protected final int maxSize;
+
+	/**
+	 * key, i.e. the path of the object, and its entry
+	 */
+	protected final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param ttlMillis ttl in milliseconds, zero disables the cache
+	 * @param maxSize   max entries
+	 */
+	public ApplyCache(long ttlMillis, int maxSize) {
+		super();
+		this.ttl = Math.max(ttlMillis, 0) * 1_000_000L;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param key  key
+	 * @param hash hash of the intent
+	 * @return the object of the last apply if the intent is the same and not expired, or null
+	 */
+	public JsonNode get(String key, String hash) {
+		key = key(key);
+		Entry entry = entries.get(key);
+		if (entry == null || !entry.hash.equals(hash)) {
+			return null;
+		}
+		if (System.nanoTime() - entry.expiresAt >= 0) {
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry.result;
+	}
+
+	/**
+	 * @param key    key
+	 * @param hash   hash of the intent
+	 * @param result the object returned by the api-server
+	 */
+	public void put(String key, String hash, JsonNode result) {
+		if (ttl == 0) {
+			return;
+		}
+		key = key(key);
+		if (entries.size() >= maxSize && !entries.containsKey(key)) {
+			evict();
+		}
+		entries.put(key, new Entry(hash, result, System.nanoTime() + ttl));
+	}
+
+	/**
+	 * @param key key, it is applied next time
+	 */
+	public void invalidate(String key) {
+		entries.remove(key(key));
+	}
+
+	/**
+	 * it is called for each request of the clients, so a write by any verb or client
+	 * invalidates the object, and a delete invalidates the objects under it as well,
+	 * such as the objects of a deleted namespace
+	 * 
+	 * @param method http method
+	 * @param uri    request uri
+	 */
+	public void invalidate(String method, String uri) {
+		if (entries.isEmpty() || READS.contains(method.toUpperCase())) {
+			return;
+		}
+		String key = key(uri);
+		entries.remove(key);
+		if ("DELETE".equalsIgnoreCase(method)) {
+			entries.keySet().removeIf(k -> k.startsWith(key + "/"));
+		}
+	}
+
+	/**
+	 * @param uri url or path of an object, or of its status
+	 * @return path of the object, such as /api/v1/namespaces/demo/configmaps/config
+	 */
+	public static String key(String uri) {
+		int start = uri.indexOf("://");
+		String path = start == -1 ? uri : uri.substring(Math.max(uri.indexOf('/', start + 3), start + 3));
+		int query = path.indexOf('?');
+		path = query == -1 ? path : path.substring(0, query);
+		return path.endsWith(STATUS) ? path.substring(0, path.length() - STATUS.length()) : path;
+	}
+
+	/**
+	 * all objects are applied next time
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return entries, including the expired ones
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * removes the expired entries, or any one if none is expired
+	 */
+	protected void evict() {
+		long now = System.nanoTime();
+		entries.values().removeIf(e -> now - e.expiresAt >= 0);
+		Iterator<String> keys = entries.keySet().iterator();
+		while (entries.size() >= maxSize && keys.hasNext()) {
+			keys.next();
+			keys.remove();
+		}
+	}
+
+	/**
+	 * @param parts such as the field manager and the intent
+	 * @return SHA-256 in hex
+	 */
+	public static String hash(String... parts) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String part : parts) {
+				digest.update(part.getBytes(StandardCharsets.UTF_8));
+				// separates the parts, so ("ab", "c") differs from ("a", "bc")
+				digest.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException ex) {
+			// every Java platform has SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * an applied intent
+	 */
+	protected static final class Entry {
+
+		final String hash;
+
+		final JsonNode result;
+
+		final long expiresAt;
+
+		Entry(String hash, JsonNode result, long expiresAt) {
+			this.hash = hash;
+			this.result = result;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.hc.client5.http.entity.DeflateInputStream;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import io.github.kubesys.client.beans.TransferStats;
+
+/**
+ * Decompresses gzip and deflate response bodies while they are read.
+ *
+ * The content compression of HttpClient is disabled, since it hides the
+ * compressed length and it asks for compressed watch streams as well. Instead,
+ * <code>Accept-Encoding</code> is set per request, and the body is wrapped here,
+ * so only the bytes read so far are decompressed, and the bytes on the wire
+ * and after decompression are counted for <code>TransferStats</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class CompressionUtil {
+
+	/**
+	 * gzip
+	 */
+	public static final String GZIP    = "gzip";
+
+	/**
+	 * deflate
+	 */
+	public static final String DEFLATE = "deflate";
+
+	private CompressionUtil() {
+		super();
+	}
+
+	/**
+	 * @param contentEncoding Content-Encoding
+	 * @return gzip, deflate, another encoding, or null if it is not compressed
+	 */
+	public static String encoding(String contentEncoding) {
+		if (contentEncoding == null) {
+			return null;
+		}
+		String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+		if (encoding.isEmpty() || encoding.equals("identity")) {
+			return null;
+		}
+		return encoding.equals("x-gzip") ? GZIP : encoding;
+	}
+
+	/**
+	 * @param is       compressed stream
+	 * @param encoding gzip or deflate, or null
+	 * @return decompressed stream
+	 * @throws IOException the encoding is unsupported or the stream is broken
+	 */
+	public static InputStream decompress(InputStream is, String encoding) throws IOException {
+		if (encoding == null) {
+			return is;
+		}
+		try {
+			if (GZIP.equals(encoding)) {
+				return new GZIPInputStream(is);
+			} else if (DEFLATE.equals(encoding)) {
+				// zlib or raw deflate, servers differ
+				return new DeflateInputStream(is);
+			}
+		} catch (EOFException ex) {
+			// an empty body
+			return InputStream.nullInputStream();
+		}
+		throw new IOException("unsupported Content-Encoding: " + encoding);
+	}
+
+	/**
+	 * @param bytes    compressed bytes
+	 * @param encoding gzip or deflate, or null
+	 * @return decompressed bytes
+	 * @throws IOException the encoding is unsupported or the bytes are broken
+	 */
+	public static byte[] decompress(byte[] bytes, String encoding) throws IOException {
+		if (encoding == null || bytes == null) {
+			return bytes;
+		}
+		try (InputStream is = decompress(new ByteArrayInputStream(bytes), encoding)) {
+			return is.readAllBytes();
+		}
+	}
+
+	/**
+	 * replaces the body of the response with a decompressing and counting one
+	 *
+	 * @param response response
+	 * @param method   method
+	 * @param uri      uri
+	 * @param listener listener, or null
+	 */
+	public static void decompress(ClassicHttpResponse response, String method, String uri, TransferStats.Listener listener) {
+		HttpEntity entity = response.getEntity();
+		if (entity == null) {
+			return;
+		}
+		String encoding = encoding(entity.getContentEncoding());
+		if (encoding == null && listener == null) {
+			return;
+		}
+		response.setEntity(new CountingEntity(entity, encoding, method, uri, listener));
+		if (encoding != null) {
+			response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+			response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+			response.removeHeaders(HttpHeaders.CONTENT_MD5);
+		}
+	}
+
+	/**
+	 * the decompressed body of a response
+	 */
+	static final class CountingEntity extends HttpEntityWrapper {
+
+		private final String encoding;
+
+		private final String method;
+
+		private final String uri;
+
+		private final TransferStats.Listener listener;
+
+		private CountingStream content;
+
+		CountingEntity(HttpEntity entity, String encoding, String method, String uri, TransferStats.Listener listener) {
+			super(entity);
+			this.encoding = encoding;
+			this.method = method;
+			this.uri = uri;
+			this.listener = listener;
+		}
+
+		@Override
+		public synchronized InputStream getContent() throws IOException {
+			if (content == null) {
+				content = new CountingStream(super.getContent(), this);
+			}
+			return content;
+		}
+
+		@Override
+		public String getContentEncoding() {
+			return null;
+		}
+
+		@Override
+		public long getContentLength() {
+			return encoding == null ? super.getContentLength() : -1;
+		}
+
+		@Override
+		public void writeTo(OutputStream os) throws IOException {
+			try (InputStream is = getContent()) {
+				is.transferTo(os);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			CountingStream current;
+			synchronized (this) {
+				current = content;
+			}
+			try {
+				if (current != null) {
+					current.close();
+				}
+			} finally {
+				super.close();
+			}
+		}
+
+		void report(long wireBytes, long bytes) {
+			if (listener != null) {
+				listener.onTransfer(new TransferStats(method, uri, encoding, wireBytes, bytes));
+			}
+		}
+	}
+
+	/**
+	 * counts the bytes on both sides of the decompression, the decompressing
+	 * stream is created on the first read, since it reads the gzip header.
+	 *
+	 * A watch is stopped by closing its body from another thread, so close()
+	 * closes only the connection side, and the inflater is released by the
+	 * reading thread or by the garbage collector.
+	 */
+	static final class CountingStream extends InputStream {
+
+		private final WireStream wire;
+
+		private final CountingEntity entity;
+
+		private InputStream decoded;
+
+		private long bytes;
+
+		private volatile boolean closed;
+
+		CountingStream(InputStream wire, CountingEntity entity) {
+			super();
+			this.wire = new WireStream(wire);
+			this.entity = entity;
+		}
+
+		private InputStream decoded() throws IOException {
+			if (closed) {
+				throw new IOException("stream is closed");
+			}
+			if (decoded == null) {
+				decoded = decompress(wire, entity.encoding);
+			}
+			return decoded;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = decoded().read();
+			if (b >= 0) {
+				bytes++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = decoded().read(b, off, len);
+			if (n > 0) {
+				bytes += n;
+			}
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return decoded == null || closed ? 0 : decoded.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+			}
+			try {
+				wire.close();
+			} finally {
+				entity.report(wire.count, bytes);
+			}
+		}
+	}
+
+	/**
+	 * counts the bytes received from the connection
+	 */
+	static final class WireStream extends FilterInputStream {
+
+		private long count;
+
+		WireStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+/**
+ * Shared Jackson instances for the whole client.
+ *
+ * Creating an <code>ObjectMapper</code> is expensive since each one builds its
+ * own serializer and deserializer caches. The mappers here are configured once
+ * and never changed afterwards, only the thread-safe <code>ObjectReader</code>
+ * and <code>ObjectWriter</code> are handed out.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class JsonSupport {
+
+	/**
+	 * json mapper, it must not be reconfigured
+	 */
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+							.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+	/**
+	 * yaml mapper, it must not be reconfigured
+	 */
+	private static final YAMLMapper YAML_MAPPER = new YAMLMapper();
+
+	/**
+	 * json reader
+	 */
+	private static final ObjectReader JSON_READER = JSON_MAPPER.readerFor(JsonNode.class);
+
+	/**
+	 * json writer
+	 */
+	private static final ObjectWriter JSON_WRITER = JSON_MAPPER.writer();
+
+	/**
+	 * yaml reader
+	 */
+	private static final ObjectReader YAML_READER = YAML_MAPPER.readerFor(JsonNode.class);
+
+	/**
+	 * yaml writer
+	 */
+	private static final ObjectWriter YAML_WRITER = YAML_MAPPER.writer();
+
+
+	private JsonSupport() {
+		super();
+	}
+
+	/**********************************************************
+	 *
+	 * Readers and writers
+	 *
+	 **********************************************************/
+
+	/**
+	 * @return reader for JsonNode
+	 */
+	public static ObjectReader reader() {
+		return JSON_READER;
+	}
+
+	/**
+	 * @return writer
+	 */
+	public static ObjectWriter writer() {
+		return JSON_WRITER;
+	}
+
+	/**
+	 * @return reader for JsonNode in yaml
+	 */
+	public static ObjectReader yamlReader() {
+		return YAML_READER;
+	}
+
+	/**
+	 * @return writer for yaml
+	 */
+	public static ObjectWriter yamlWriter() {
+		return YAML_WRITER;
+	}
+
+	/**
+	 * @return json factory, it is used for streaming parsers
+	 */
+	public static JsonFactory factory() {
+		return JSON_MAPPER.getFactory();
+	}
+
+	/**
+	 * @param is input stream
+	 * @return parser which can read trees with <code>readValueAsTree</code>
+	 * @throws IOException IOException
+	 */
+	public static JsonParser createParser(InputStream is) throws IOException {
+		return JSON_MAPPER.createParser(is);
+	}
+
+	/**********************************************************
+	 *
+	 * Json
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param json json
+	 * @return jsonNode
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static JsonNode readTree(String json) throws JsonProcessingException {
+		return JSON_READER.readTree(json);
+	}
+
+	/**
+	 * @param is input stream, it is closed after reading
+	 * @return jsonNode
+	 * @throws IOException IOException
+	 */
+	public static JsonNode readTree(InputStream is) throws IOException {
+		return JSON_READER.readTree(is);
+	}
+
+	/**
+	 * @param bytes bytes
+	 * @return jsonNode
+	 * @throws IOException IOException
+	 */
+	public static JsonNode readTree(byte[] bytes) throws IOException {
+		return JSON_READER.readTree(bytes);
+	}
+
+	/**
+	 * @param obj obj
+	 * @return json string
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static String toJson(Object obj) throws JsonProcessingException {
+		return JSON_WRITER.writeValueAsString(obj);
+	}
+
+	/**
+	 * @param obj obj
+	 * @return json bytes
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static byte[] toBytes(Object obj) throws JsonProcessingException {
+		return JSON_WRITER.writeValueAsBytes(obj);
+	}
+
+	/**
+	 * @param obj obj
+	 * @return jsonNode
+	 */
+	public static JsonNode valueToTree(Object obj) {
+		return JSON_MAPPER.valueToTree(obj);
+	}
+
+	/**
+	 * @param <T>  type
+	 * @param node node
+	 * @param clz  clz
+	 * @return object
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static <T> T treeToValue(JsonNode node, Class<T> clz) throws JsonProcessingException {
+		return JSON_MAPPER.treeToValue(node, clz);
+	}
+
+	/**
+	 * @return objectNode
+	 */
+	public static ObjectNode createObjectNode() {
+		return JsonNodeFactory.instance.objectNode();
+	}
+
+	/**
+	 * @return arrayNode
+	 */
+	public static ArrayNode createArrayNode() {
+		return JsonNodeFactory.instance.arrayNode();
+	}
+
+	/**********************************************************
+	 *
+	 * Yaml
+	 *
+	 **********************************************************/
+
+	/**
+	 * @param yaml yaml
+	 * @return jsonNode
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static JsonNode readYaml(String yaml) throws JsonProcessingException {
+		return YAML_READER.readTree(yaml);
+	}
+
+	/**
+	 * @param file file
+	 * @return jsonNode
+	 * @throws IOException IOException
+	 */
+	public static JsonNode readYaml(File file) throws IOException {
+		return YAML_READER.readValue(file);
+	}
+
+	/**
+	 * @param yaml documents separated by <code>---</code>, a json document is valid yaml as well
+	 * @return the documents, the empty ones are skipped
+	 * @throws IOException IOException
+	 */
+	public static List<JsonNode> readYamlDocuments(String yaml) throws IOException {
+		List<JsonNode> documents = new ArrayList<>();
+		try (MappingIterator<JsonNode> it = YAML_READER.readValues(yaml)) {
+			while (it.hasNextValue()) {
+				JsonNode document = it.nextValue();
+				if (document != null && !document.isNull() && !document.isMissingNode()) {
+					documents.add(document);
+				}
+			}
+		}
+		return documents;
+	}
+
+	/**
+	 * @param obj obj
+	 * @return yaml string
+	 * @throws JsonProcessingException JsonProcessingException
+	 */
+	public static String toYaml(Object obj) throws JsonProcessingException {
+		return YAML_WRITER.writeValueAsString(obj);
+	}
+}
@@ -17,10 +17,7 @@ package io.github.kubesys.client.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 
 import io.github.kubesys.client.KubernetesConstants;
 
@@ -45,7 +42,7 @@ public class KubeUtil {
 	 * @throws JsonProcessingException JsonProcessingException
 	 */
 	public static String jsonNodeToYamlString(JsonNode json) throws JsonProcessingException {
-		return new YAMLMapper().writeValueAsString(json);
+		return JsonSupport.toYaml(json);
 	}
 	
 	/**
@@ -54,8 +51,7 @@ public class KubeUtil {
 	 * @throws JsonProcessingException JsonProcessingException
 	 */
 	public static JsonNode yamlStringToJsonNode(String yaml) throws JsonProcessingException {
-		ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-		return mapper.readTree(yaml);
+		return JsonSupport.readYaml(yaml);
 	}
 	
 	/**
@@ -71,16 +67,16 @@ public class KubeUtil {
 	 */
 	public static JsonNode toBinding(String podNamespace, String podName, String hostName) {
 
-		ObjectNode binding = new ObjectMapper().createObjectNode();
+		ObjectNode binding = JsonSupport.createObjectNode();
 		binding.put(KubernetesConstants.KUBE_APIVERSION, KubernetesConstants.DEFAULT_APIVERSION);
 		binding.put(KubernetesConstants.KUBE_KIND, KubernetesConstants.KUBD_KIND_BINDING);
 
-		ObjectNode metadata = new ObjectMapper().createObjectNode();
+		ObjectNode metadata = JsonSupport.createObjectNode();
 		metadata.put(KubernetesConstants.KUBE_METADATA_NAME, podName);
 		metadata.put(KubernetesConstants.KUBE_METADATA_NAMESPACE, podNamespace);
 		binding.set(KubernetesConstants.KUBE_METADATA, metadata);
 
-		ObjectNode target = new ObjectMapper().createObjectNode();
+		ObjectNode target = JsonSupport.createObjectNode();
 		target.put(KubernetesConstants.KUBE_APIVERSION, KubernetesConstants.DEFAULT_APIVERSION);
 		target.put(KubernetesConstants.KUBE_KIND, KubernetesConstants.NODE_KIND);
 		target.put(KubernetesConstants.KUBE_METADATA_NAME, hostName);
@@ -0,0 +1,161 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import io.github.kubesys.client.KubernetesConstants;
+
+/**
+ * Reads manifests, i.e. yaml documents separated by <code>---</code>, one by one
+ * from a stream with one yaml parser, so a large bundle such as the output of
+ * <code>helm template</code> is never held in memory as a whole.
+ *
+ * Empty documents are skipped, and arrays and List kinds, such as ConfigMapList,
+ * are expanded into their items. Json is valid yaml, so it can be read as well.
+ *
+ * It is not thread-safe, and it should be closed if it is not iterated to the end.
+ * Closing it closes the stream.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class ManifestReader implements Iterator<JsonNode>, AutoCloseable {
+
+	public static final Logger m_logger = Logger.getLogger(ManifestReader.class.getName());
+
+	/**
+	 * documents of the stream
+	 */
+	protected final MappingIterator<JsonNode> documents;
+
+	/**
+	 * items of the current document
+	 */
+	protected final Deque<JsonNode> items = new ArrayDeque<>();
+
+	/**
+	 * @param is yaml stream
+	 * @throws IOException IOException
+	 */
+	public ManifestReader(InputStream is) throws IOException {
+		super();
+		this.documents = JsonSupport.yamlReader().readValues(is);
+	}
+
+	/**
+	 * @param path yaml file
+	 * @throws IOException IOException
+	 */
+	public ManifestReader(Path path) throws IOException {
+		this(Files.newInputStream(path));
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			while (items.isEmpty()) {
+				if (!documents.hasNextValue()) {
+					return false;
+				}
+				JsonNode document = documents.nextValue();
+				if (document != null) {
+					expand(document, items);
+				}
+			}
+			return true;
+		} catch (IOException ex) {
+			close();
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public JsonNode next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return items.poll();
+	}
+
+	/**
+	 * @return resources as a stream, closing it closes this reader
+	 */
+	public Stream<JsonNode> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+					this, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+	}
+
+	@Override
+	public void close() {
+		items.clear();
+		try {
+			documents.close();
+		} catch (IOException ex) {
+			m_logger.warning("fail to close manifests: " + ex);
+		}
+	}
+
+	/**
+	 * @param json a resource, an array or a List kind
+	 * @return resources
+	 */
+	public static List<JsonNode> expand(JsonNode json) {
+		List<JsonNode> resources = new ArrayList<>();
+		expand(json, resources);
+		return resources;
+	}
+
+	/**
+	 * @param json      a resource, an array or a List kind
+	 * @param resources the resources are added to it
+	 */
+	static void expand(JsonNode json, Collection<JsonNode> resources) {
+		if (json.isNull() || json.isMissingNode()) {
+			return;
+		}
+		if (json.isArray()) {
+			for (JsonNode item : json) {
+				expand(item, resources);
+			}
+		} else if (json.has(KubernetesConstants.KUBE_ITEMS) && json.has(KubernetesConstants.KUBE_KIND)
+						&& json.get(KubernetesConstants.KUBE_KIND).asText().endsWith("List")) {
+			expand(json.get(KubernetesConstants.KUBE_ITEMS), resources);
+		} else {
+			resources.add(json);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket, which holds up to <code>burst</code> tokens and is refilled
+ * with <code>qps</code> tokens per second. Each request takes a token, and a
+ * request which finds the bucket empty reserves a future token and waits for it,
+ * so requests are served in order and the rate never exceeds qps after a burst.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class RateLimiter {
+
+	/**
+	 * tokens per second, 0 means unlimited
+	 */
+	protected final double qps;
+
+	/**
+	 * max tokens
+	 */
+	protected final int burst;
+
+	/**
+	 * tokens, it is negative if tokens are reserved
+	 */
+	protected double tokens;
+
+	/**
+	 * last refill in nanoseconds
+	 */
+	protected long last;
+
+	/**
+	 * @param qps   tokens per second, 0 means unlimited
+	 * @param burst max tokens, which can be taken at once
+	 */
+	public RateLimiter(double qps, int burst) {
+		super();
+		if (qps < 0 || burst <= 0) {
+			throw new IllegalArgumentException("invalid qps " + qps + " or burst " + burst);
+		}
+		this.qps = qps;
+		this.burst = burst;
+		this.tokens = burst;
+		this.last = System.nanoTime();
+	}
+
+	/**
+	 * takes a token, which may be a future one
+	 *
+	 * @return nanoseconds to wait before the token is available, 0 if it is available now
+	 */
+	public synchronized long reserve() {
+		if (qps == 0) {
+			return 0;
+		}
+		refill();
+		tokens -= 1;
+		return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / qps * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * @return a token is taken, or false without waiting
+	 */
+	public synchronized boolean tryAcquire() {
+		if (qps == 0) {
+			return true;
+		}
+		refill();
+		if (tokens < 1) {
+			return false;
+		}
+		tokens -= 1;
+		return true;
+	}
+
+	/**
+	 * takes a token, and waits until it is available
+	 *
+	 * @throws InterruptedException InterruptedException
+	 */
+	public void acquire() throws InterruptedException {
+		long wait = reserve();
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * @return tokens per second, 0 means unlimited
+	 */
+	public double getQps() {
+		return qps;
+	}
+
+	/**
+	 * @return max tokens
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		tokens = Math.min(burst, tokens + (now - last) * qps / TimeUnit.SECONDS.toNanos(1));
+		last = now;
+	}
+}
@@ -17,14 +17,19 @@ package io.github.kubesys.client.utils;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
 import org.apache.hc.client5.http.classic.methods.HttpDelete;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPatch;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 
 import io.github.kubesys.client.beans.KubernetesAdminConfig;
@@ -55,38 +60,44 @@ public class ReqUtil {
 	 * @return request
 	 */
 	private static HttpUriRequestBase createRequest(HttpUriRequestBase url, KubernetesAdminConfig config, String body) {
+		return createRequest(url, config, body, ContentType.APPLICATION_JSON);
+	}
+
+	/**
+	 * @param url         request
+	 * @param config      config
+	 * @param body        body
+	 * @param contentType Content-Type of the body
+	 * @return request
+	 */
+	private static HttpUriRequestBase createRequest(HttpUriRequestBase url, KubernetesAdminConfig config, 
+						String body, ContentType contentType) {
 		try {
-			url.setEntity(new StringEntity(body == null ? "" : body, ContentType.APPLICATION_JSON));
+			url.setEntity(new StringEntity(body == null ? "" : body, contentType));
 		} catch (Exception ex) {
 			// ignore here
 		}
 		
-		if (config.getToken() != null) {
-			setBearerHeader(url, config.getToken());
-		} else if (config.getUsername() != null) {
-			setBasicHeader(url, config.getUsername(), config.getPassword());
+		String authorization = authorization(config);
+		if (authorization != null) {
+			url.addHeader("Authorization", authorization);
+			url.addHeader("Connection", "keep-alive");
 		}
 		return url;
 	}
 	
 	/**
-	 * @param request request
-	 * @param token   token
-	 */
-	private static void setBearerHeader(HttpUriRequestBase request, String token) {
-		request.addHeader("Authorization", "Bearer " + token);
-		request.addHeader("Connection", "keep-alive");
-	}
-	
-	/**
-	 * @param request request
-	 * @param token   token
+	 * @param config config
+	 * @return bearer or basic authorization, or null if the config uses certificates
 	 */
-	private static void setBasicHeader(HttpUriRequestBase request, String username, String password) {
-		request.addHeader("Authorization", "Basic " 
-							+ Base64.getEncoder().encodeToString(
-								(username + ":" + password).getBytes()));
-		request.addHeader("Connection", "keep-alive");
+	private static String authorization(KubernetesAdminConfig config) {
+		if (config.getToken() != null) {
+			return "Bearer " + config.getToken();
+		} else if (config.getUsername() != null) {
+			return "Basic " + Base64.getEncoder().encodeToString(
+								(config.getUsername() + ":" + config.getPassword()).getBytes());
+		}
+		return null;
 	}
 	
 
@@ -117,6 +128,19 @@ public class ReqUtil {
 		return (HttpPut) createRequest(new HttpPut(new URL(uri).toString()), config, body);
 	}
 
+	/**
+	 * @param config      config
+	 * @param uri         uri
+	 * @param body        patch
+	 * @param contentType Content-Type of the patch, see <code>PatchType</code>
+	 * @return request or null
+	 * @throws MalformedURLException MalformedURLException
+	 */
+	public static HttpPatch patch(KubernetesAdminConfig config, String uri, String body, String contentType) throws MalformedURLException {
+		return (HttpPatch) createRequest(new HttpPatch(new URL(uri).toString()), config, body, 
+						ContentType.create(contentType, StandardCharsets.UTF_8));
+	}
+
 	/**
 	 * @param config config
 	 * @param uri   uri
@@ -137,4 +161,46 @@ public class ReqUtil {
 		return (HttpGet) createRequest(new HttpGet(new URL(uri).toString()), config, null);
 	}
 
+	/**********************************************************
+	 * 
+	 * Async
+	 * 
+	 **********************************************************/
+	
+	/**
+	 * the Connection header is not set, since it is not allowed in HTTP/2
+	 * 
+	 * @param method method, such as POST, PUT, GET and DELETE
+	 * @param config config
+	 * @param uri    uri
+	 * @param body   body, or null
+	 * @return request
+	 * @throws MalformedURLException MalformedURLException
+	 */
+	public static SimpleHttpRequest async(Method method, KubernetesAdminConfig config, String uri, String body) throws MalformedURLException {
+		return async(method, config, uri, body, ContentType.APPLICATION_JSON);
+	}
+
+	/**
+	 * @param method      method, such as PATCH
+	 * @param config      config
+	 * @param uri         uri
+	 * @param body        body, or null
+	 * @param contentType Content-Type of the body
+	 * @return request
+	 * @throws MalformedURLException MalformedURLException
+	 */
+	public static SimpleHttpRequest async(Method method, KubernetesAdminConfig config, String uri, 
+						String body, ContentType contentType) throws MalformedURLException {
+		SimpleRequestBuilder builder = SimpleRequestBuilder.create(method).setUri(new URL(uri).toString());
+		if (body != null) {
+			builder.setBody(body, contentType);
+		}
+		String authorization = authorization(config);
+		if (authorization != null) {
+			builder.addHeader("Authorization", authorization);
+		}
+		return builder.build();
+	}
+
 }
@@ -0,0 +1,289 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.KubernetesClientOptions.RateLimit;
+
+/**
+ * Limits the requests of a client with the token buckets of <code>KubernetesClientOptions</code>,
+ * i.e. one for the client, one for each limited verb and one for each limited kind. A request
+ * takes a token of each bucket it belongs to, and waits for the latest one.
+ *
+ * The verb and the resource of a request are parsed from its method and path, such as
+ * GET /apis/apps/v1/namespaces/default/deployments, which is list of apps.Deployment.
+ * A kind is mapped to its path by the resolver once the kinds are registered.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class RequestLimiter {
+
+	public static final Logger m_logger = Logger.getLogger(RequestLimiter.class.getName());
+
+	/**
+	 * max wait for Retry-After
+	 */
+	public static final long MAX_RETRY_AFTER = TimeUnit.SECONDS.toNanos(60);
+
+	/**
+	 * methods which can be sent again if the api-server is unavailable
+	 */
+	protected static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+	/**
+	 * bucket of the client, or null if it is unlimited
+	 */
+	protected final RateLimiter global;
+
+	/**
+	 * buckets by verb
+	 */
+	protected final Map<String, RateLimiter> verbs = new HashMap<>();
+
+	/**
+	 * buckets by kind, until they are resolved
+	 */
+	protected final Map<String, RateLimiter> kinds = new ConcurrentHashMap<>();
+
+	/**
+	 * buckets by resource path, such as /apis/apps/v1/deployments
+	 */
+	protected final Map<String, RateLimiter> resources = new ConcurrentHashMap<>();
+
+	/**
+	 * kind to resource path
+	 */
+	protected volatile Function<String, String> resolver;
+
+	/**
+	 * @param options options
+	 */
+	public RequestLimiter(KubernetesClientOptions options) {
+		super();
+		this.global = options.getQps() > 0 ? new RateLimiter(options.getQps(), options.getBurst()) : null;
+		for (Map.Entry<String, RateLimit> entry : options.getVerbRateLimits().entrySet()) {
+			verbs.put(entry.getKey(), new RateLimiter(entry.getValue().getQps(), entry.getValue().getBurst()));
+		}
+		for (Map.Entry<String, RateLimit> entry : options.getKindRateLimits().entrySet()) {
+			kinds.put(entry.getKey(), new RateLimiter(entry.getValue().getQps(), entry.getValue().getBurst()));
+		}
+	}
+
+	/**
+	 * @param resolver kind or fullkind to resource path, it may throw if the kind is unknown
+	 */
+	public void setResolver(Function<String, String> resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * takes a token of each bucket of the request
+	 * 
+	 * @param method http method
+	 * @param uri    request uri, with or without scheme and host
+	 * @return nanoseconds to wait before the request is sent
+	 */
+	public long reserve(String method, String uri) {
+		long wait = global == null ? 0 : global.reserve();
+		if (verbs.isEmpty() && kinds.isEmpty() && resources.isEmpty()) {
+			return wait;
+		}
+		String[] resource = parse(uri);
+		if (resource == null) {
+			return wait;
+		}
+		RateLimiter verb = verbs.get(verb(method, resource));
+		if (verb != null) {
+			wait = Math.max(wait, verb.reserve());
+		}
+		resolve();
+		RateLimiter kind = resources.get(resource[0]);
+		if (kind != null) {
+			wait = Math.max(wait, kind.reserve());
+		}
+		return wait;
+	}
+
+	/**
+	 * waits for a token of each bucket of the request
+	 * 
+	 * @param method http method
+	 * @param uri    request uri
+	 * @throws InterruptedIOException interrupted while waiting
+	 */
+	public void acquire(String method, String uri) throws InterruptedIOException {
+		sleep(reserve(method, uri));
+	}
+
+	/**
+	 * maps the limited kinds, which are registered now, to their paths
+	 */
+	protected void resolve() {
+		Function<String, String> current = resolver;
+		if (current == null || kinds.isEmpty()) {
+			return;
+		}
+		for (Map.Entry<String, RateLimiter> entry : kinds.entrySet()) {
+			try {
+				String path = current.apply(entry.getKey());
+				if (path != null) {
+					resources.put(path, entry.getValue());
+					kinds.remove(entry.getKey());
+				}
+			} catch (RuntimeException ex) {
+				// it is not registered yet
+			}
+		}
+	}
+
+	/**
+	 * @param method   http method
+	 * @param resource see parse
+	 * @return get, list, watch, create, update, patch, delete or deletecollection
+	 */
+	protected static String verb(String method, String[] resource) {
+		boolean named = resource[1] != null;
+		switch (method.toUpperCase()) {
+		case "GET":
+			return resource[2] != null ? "watch" : named ? "get" : "list";
+		case "POST":
+			return "create";
+		case "PUT":
+			return "update";
+		case "PATCH":
+			return "patch";
+		case "DELETE":
+			return named ? "delete" : "deletecollection";
+		default:
+			return method.toLowerCase();
+		}
+	}
+
+	/**
+	 * @param method http method
+	 * @param uri    request uri
+	 * @return get, list, watch, create, update, patch, delete or deletecollection, or null for discovery
+	 */
+	public static String verb(String method, String uri) {
+		String[] resource = parse(uri);
+		return resource == null ? null : verb(method, resource);
+	}
+
+	/**
+	 * @param uri request uri
+	 * @return resource path, such as /api/v1/pods, or null for discovery
+	 */
+	public static String resource(String uri) {
+		String[] resource = parse(uri);
+		return resource == null ? null : resource[0];
+	}
+
+	/**
+	 * @param uri request uri
+	 * @return resource path, name or null, and "watch" or null, or null for discovery
+	 */
+	protected static String[] parse(String uri) {
+		int start = uri.indexOf("://");
+		String path = start == -1 ? uri : uri.substring(Math.max(uri.indexOf('/', start + 3), start + 3));
+		int query = path.indexOf('?');
+		boolean watch = query != -1 && path.indexOf("watch=true", query) != -1;
+		String[] segments = (query == -1 ? path : path.substring(0, query)).split("/");
+
+		// "", "api", version or "", "apis", group, version
+		int i;
+		if (segments.length > 2 && segments[1].equals("api")) {
+			i = 3;
+		} else if (segments.length > 3 && segments[1].equals("apis")) {
+			i = 4;
+		} else {
+			return null;
+		}
+		String prefix = String.join("/", Arrays.copyOfRange(segments, 0, i));
+		if (i < segments.length && segments[i].equals("watch")) {
+			watch = true;
+			i++;
+		}
+		// namespaces/{namespace}/{resource} but not namespaces/{name}
+		if (i + 2 < segments.length && segments[i].equals("namespaces")) {
+			i += 2;
+		}
+		if (i >= segments.length) {
+			return null;
+		}
+		return new String[] {prefix + "/" + segments[i], 
+					i + 1 < segments.length ? segments[i + 1] : null, watch ? "watch" : null};
+	}
+
+	/**
+	 * @param code       http status code
+	 * @param method     http method
+	 * @param retryAfter Retry-After header, or null
+	 * @param interval   wait in nanoseconds if there is no Retry-After
+	 * @return nanoseconds to wait before the request is sent again, or -1 if it should not
+	 */
+	public static long retryAfter(int code, String method, String retryAfter, long interval) {
+		// 429 is sent before the request is executed, e.g. by API Priority and Fairness
+		if (code != 429 && !(code == 503 && IDEMPOTENT.contains(method.toUpperCase()))) {
+			return -1;
+		}
+		long wait = interval;
+		if (retryAfter != null) {
+			try {
+				wait = TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+			} catch (NumberFormatException ex) {
+				try {
+					wait = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter.trim(),
+									DateTimeFormatter.RFC_1123_DATE_TIME)).toNanos();
+				} catch (DateTimeParseException e) {
+					m_logger.warning("invalid Retry-After " + retryAfter);
+				}
+			}
+		}
+		return Math.min(Math.max(wait, 0), MAX_RETRY_AFTER);
+	}
+
+	/**
+	 * @param nanos nanoseconds
+	 * @throws InterruptedIOException interrupted while waiting
+	 */
+	public static void sleep(long nanos) throws InterruptedIOException {
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for the rate limit");
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+
+/**
+ * The differences between two sets of resources, which are matched by their
+ * identity, i.e. kind/namespace/name. A resource which only exists in the
+ * current set is added, one which only exists in the last set is removed, and
+ * one whose json is changed comes with a json merge patch (RFC 7386), which
+ * only has the changed fields.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class ResourceDiff {
+
+	/**
+	 * resources in the current set only
+	 */
+	protected final List<JsonNode> added = new ArrayList<>();
+
+	/**
+	 * resources in the last set only
+	 */
+	protected final List<JsonNode> removed = new ArrayList<>();
+
+	/**
+	 * changed resources
+	 */
+	protected final List<Change> changed = new ArrayList<>();
+
+	/**
+	 * @param last    last resources by identity
+	 * @param current current resources by identity
+	 */
+	public ResourceDiff(Map<String, JsonNode> last, Map<String, JsonNode> current) {
+		super();
+		for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+			JsonNode before = last.get(entry.getKey());
+			if (before == null) {
+				added.add(entry.getValue());
+			} else if (!before.equals(entry.getValue())) {
+				changed.add(new Change(entry.getValue(), mergePatch(before, entry.getValue())));
+			}
+		}
+		for (Map.Entry<String, JsonNode> entry : last.entrySet()) {
+			if (!current.containsKey(entry.getKey())) {
+				removed.add(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * @return resources in the current set only
+	 */
+	public List<JsonNode> getAdded() {
+		return Collections.unmodifiableList(added);
+	}
+
+	/**
+	 * @return resources in the last set only
+	 */
+	public List<JsonNode> getRemoved() {
+		return Collections.unmodifiableList(removed);
+	}
+
+	/**
+	 * @return changed resources
+	 */
+	public List<Change> getChanged() {
+		return Collections.unmodifiableList(changed);
+	}
+
+	/**
+	 * @return nothing is added, removed or changed
+	 */
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+	}
+
+	/**
+	 * @param json resource
+	 * @return kind/namespace/name, the namespace is "" if it is not set
+	 */
+	public static String identity(JsonNode json) {
+		JsonNode meta = json.path(KubernetesConstants.KUBE_METADATA);
+		return json.path(KubernetesConstants.KUBE_KIND).asText() + "/" 
+				+ meta.path(KubernetesConstants.KUBE_METADATA_NAMESPACE).asText() + "/" 
+				+ meta.path(KubernetesConstants.KUBE_METADATA_NAME).asText();
+	}
+
+	/**
+	 * @param resources resources
+	 * @return resources by identity, a later one replaces an earlier one with the same identity
+	 */
+	public static Map<String, JsonNode> index(Collection<? extends JsonNode> resources) {
+		Map<String, JsonNode> index = new LinkedHashMap<>();
+		for (JsonNode json : resources) {
+			index.put(identity(json), json);
+		}
+		return index;
+	}
+
+	/**
+	 * @param source the last json
+	 * @param target the current json
+	 * @return a merge patch which changes source to target, it is an empty object if they are equal
+	 */
+	public static JsonNode mergePatch(JsonNode source, JsonNode target) {
+		if (!source.isObject() || !target.isObject()) {
+			// arrays and values are replaced as a whole
+			return target;
+		}
+		ObjectNode patch = JsonNodeFactory.instance.objectNode();
+		Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode before = source.get(field.getKey());
+			if (before == null || before.isNull()) {
+				patch.set(field.getKey(), field.getValue());
+			} else if (!before.equals(field.getValue())) {
+				JsonNode value = field.getValue().isObject() && before.isObject()
+						? mergePatch(before, field.getValue()) : field.getValue();
+				patch.set(field.getKey(), value);
+			}
+		}
+		Iterator<String> names = source.fieldNames();
+		while (names.hasNext()) {
+			String name = names.next();
+			if (!target.has(name)) {
+				// null removes the field
+				patch.putNull(name);
+			}
+		}
+		return patch;
+	}
+
+	/**
+	 * a changed resource
+	 */
+	public static final class Change {
+
+		/**
+		 * current json
+		 */
+		private final JsonNode current;
+
+		/**
+		 * merge patch from the last json
+		 */
+		private final JsonNode patch;
+
+		Change(JsonNode current, JsonNode patch) {
+			this.current = current;
+			this.patch = patch;
+		}
+
+		/**
+		 * @return current json
+		 */
+		public JsonNode getCurrent() {
+			return current;
+		}
+
+		/**
+		 * @return merge patch from the last json
+		 */
+		public JsonNode getPatch() {
+			return patch;
+		}
+	}
+}
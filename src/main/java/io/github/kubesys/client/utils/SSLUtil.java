@@ -28,7 +28,9 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
 import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 
 /**
  * 
@@ -54,16 +56,34 @@ public class SSLUtil {
 				createX509SocketFactory(km, tm), new NoopHostnameVerifier());
 	}
 
+	/**
+	 * @return TlsStrategy, it is used by async clients
+	 */
+	public static TlsStrategy createTlsStrategy(KeyManager[] km, TrustManager[] tm) {
+		return ClientTlsStrategyBuilder.create()
+				.setSslContext(createSSLContext(km, tm))
+				.setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+				.build();
+	}
+
 	/**
 	 * @return SocketFactory
 	 */
 	public static SSLSocketFactory createX509SocketFactory(KeyManager[] km, TrustManager[] tm) {
+		SSLContext sc = createSSLContext(km, tm);
+		return sc == null ? null : sc.getSocketFactory();
+	}
+	
+	/**
+	 * @return SSLContext, it is shared by classic and async clients
+	 */
+	public static SSLContext createSSLContext(KeyManager[] km, TrustManager[] tm) {
 		try {
 			SSLContext sc = SSLContext.getInstance("TLS");
 			sc.init(km, tm == null ? createDefaultTrustManager(): tm, new SecureRandom());
-			return sc.getSocketFactory();
+			return sc;
 		} catch (Exception ex) {
-			m_logger.severe("unable to create X509 SocketFactory, " + ex);
+			m_logger.severe("unable to create X509 SSLContext, " + ex);
 			return null;
 		}
 	}
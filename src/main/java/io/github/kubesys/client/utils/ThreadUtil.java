@@ -0,0 +1,126 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Threads for watchers and blocking requests.
+ *
+ * The client is built for Java 17, so virtual threads (Java 21+) are
+ * looked up by reflection. On older runtimes platform threads are
+ * used instead, and a warning is logged once.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class ThreadUtil {
+
+	public static final Logger m_logger = Logger.getLogger(ThreadUtil.class.getName());
+
+	/**
+	 * Thread.ofVirtual().factory(), or null if it is unsupported
+	 */
+	private static final ThreadFactory VIRTUAL_FACTORY = lookupVirtualFactory();
+
+	private ThreadUtil() {
+		super();
+	}
+
+	/**
+	 * @return true if the runtime supports virtual threads
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VIRTUAL_FACTORY != null;
+	}
+
+	/**
+	 * @return factory for virtual threads, or daemon platform threads
+	 *         if the runtime does not support virtual threads
+	 */
+	public static ThreadFactory virtualThreadFactory() {
+		if (VIRTUAL_FACTORY != null) {
+			return VIRTUAL_FACTORY;
+		}
+		m_logger.warning("virtual threads require Java 21+, platform threads are used instead");
+		return platformThreadFactory("kubernetes-client-", true);
+	}
+
+	/**
+	 * @param prefix prefix of thread names
+	 * @param daemon daemon
+	 * @return factory for platform threads
+	 */
+	public static ThreadFactory platformThreadFactory(String prefix, boolean daemon) {
+		AtomicInteger id = new AtomicInteger();
+		return r -> {
+			Thread thread = new Thread(r, prefix + id.incrementAndGet());
+			thread.setDaemon(daemon);
+			return thread;
+		};
+	}
+
+	/**
+	 * @param factory factory
+	 * @return executor which starts a new thread for each task if the factory creates
+	 *         virtual threads, otherwise a cached thread pool of daemon threads, so that
+	 *         idle pooled threads do not keep the JVM alive
+	 */
+	public static ExecutorService newExecutor(ThreadFactory factory) {
+		if (VIRTUAL_FACTORY != null && factory == VIRTUAL_FACTORY) {
+			try {
+				Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+				return (ExecutorService) method.invoke(null, factory);
+			} catch (Exception ex) {
+				m_logger.warning("unable to create a thread-per-task executor, " + ex);
+			}
+		}
+		return Executors.newCachedThreadPool(daemonThreadFactory(factory));
+	}
+
+	/**
+	 * @param factory factory
+	 * @return factory which marks the threads of the given one as daemon
+	 */
+	public static ThreadFactory daemonThreadFactory(ThreadFactory factory) {
+		return r -> {
+			Thread thread = factory.newThread(r);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static ThreadFactory lookupVirtualFactory() {
+		try {
+			// Thread.Builder is public, but the builder implementations are not
+			Class<?> clazz = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = clazz.getMethod("name", String.class, long.class).invoke(builder, "kubernetes-client-", 0L);
+			return (ThreadFactory) clazz.getMethod("factory").invoke(builder);
+		} catch (ClassNotFoundException | NoSuchMethodException ex) {
+			return null;
+		} catch (Exception ex) {
+			m_logger.warning("unable to create virtual threads, " + ex);
+			return null;
+		}
+	}
+}
@@ -17,10 +17,13 @@ package io.github.kubesys.client.utils;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.logging.Logger;
 
 import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.selectors.Selector;
 
 /**
  * This is a copy of io.fabric8.kubernetes.client.utils.URLUtils in project kubernetes-client
@@ -90,18 +93,32 @@ public class URLUtil {
 				: KubernetesConstants.VALUE_ALL_NAMESPACES;
 	}
 	
+	/**
+	 * @param map key and value must be equal, such as labels or fields
+	 * @return url-encoded selector, or null if the map is empty
+	 */
 	public static String fromMap(Map<String, String> map) {
-		//%3D
 		if (map == null || map.size() == 0) {
 			return null;
 		}
 		
-		
 		StringBuilder sb = new StringBuilder();
-		for (String key : map.keySet()) {
-			sb.append(key + "%3D" + map.get(key) + ",");
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			if (sb.length() > 0) {
+				sb.append(",");
+			}
+			sb.append(entry.getKey()).append("=").append(entry.getValue());
 		}
 		
-		return sb.substring(0, sb.length() - 1);
+		// values may contain '&', '#' or spaces
+		return URLEncoder.encode(sb.toString(), StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * @param selector selector
+	 * @return url-encoded selector, or null if it selects everything
+	 */
+	public static String fromSelector(Selector selector) {
+		return selector == null || selector.isEmpty() ? null : selector.toQueryParam();
 	}
 }
@@ -15,6 +15,8 @@
  */
 package io.github.kubesys.client.watchers;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -37,6 +39,11 @@ public class KubernetesCRDWacther extends KubernetesWatcher {
 	public static final Logger m_logger = Logger.getLogger(KubernetesCRDWacther.class.getName());
 	
 	
+	/**
+	 * name to crd, it is used if a crd is deleted while the watch was broken
+	 */
+	protected final Map<String, JsonNode> crds = new ConcurrentHashMap<>();
+	
 	public KubernetesCRDWacther(KubernetesClient client) {
 		super(client);
 	}
@@ -44,6 +51,9 @@ public class KubernetesCRDWacther extends KubernetesWatcher {
 	@Override
 	public void doAdded(JsonNode node) {
 		
+		crds.put(node.get(KubernetesConstants.KUBE_METADATA)
+				.get(KubernetesConstants.KUBE_METADATA_NAME).asText(), node);
+		
 		JsonNode spec = node.get(KubernetesConstants.KUBE_SPEC);
 		
 		String apiGroup  = spec.get(KubernetesConstants.KUBE_SPEC_GROUP).asText();
@@ -66,6 +76,12 @@ public class KubernetesCRDWacther extends KubernetesWatcher {
 	public void doDeleted(JsonNode node) {
 		
 		JsonNode spec = node.get(KubernetesConstants.KUBE_SPEC);
+		crds.remove(node.get(KubernetesConstants.KUBE_METADATA)
+				.get(KubernetesConstants.KUBE_METADATA_NAME).asText());
+		if (spec == null) {
+			m_logger.warning("unknown deleted crd: " + node);
+			return;
+		}
 		JsonNode names = spec.get(KubernetesConstants.KUBE_SPEC_NAMES);
 		
 		String shortKind = names.get(KubernetesConstants.KUBE_SPEC_NAMES_KIND).asText();
@@ -90,6 +106,12 @@ public class KubernetesCRDWacther extends KubernetesWatcher {
 	public void doModified(JsonNode node) {
 		// ignore here
 	}
+	
+	@Override
+	protected JsonNode tombstone(String key) {
+		JsonNode crd = crds.get(key);
+		return crd != null ? crd : super.tombstone(key);
+	}
 
 	@Override
 	public void doClose() {
@@ -19,10 +19,10 @@ package io.github.kubesys.client.watchers;
 import java.util.logging.Logger;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.github.kubesys.client.KubernetesClient;
 import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.utils.JsonSupport;
 
 /**
  * @author  wuheng09@gmail.com
@@ -77,8 +77,7 @@ public abstract class KubernetesObjectWatcher<O> extends KubernetesWatcher {
 	@Override
 	public void doAdded(JsonNode node) {
 		try {
-			doObjectAdded((O) new ObjectMapper().readValue(
-								node.toPrettyString(), clz));
+			doObjectAdded((O) JsonSupport.treeToValue(node, clz));
 		} catch (Exception e) {
 			m_logger.severe(e.getMessage());
 		}
@@ -88,8 +87,7 @@ public abstract class KubernetesObjectWatcher<O> extends KubernetesWatcher {
 	@Override
 	public void doModified(JsonNode node) {
 		try {
-			doObjectModified((O) new ObjectMapper().readValue(
-								node.toPrettyString(), clz));
+			doObjectModified((O) JsonSupport.treeToValue(node, clz));
 		} catch (Exception e) {
 			m_logger.severe(e.getMessage());
 		}
@@ -99,8 +97,7 @@ public abstract class KubernetesObjectWatcher<O> extends KubernetesWatcher {
 	@Override
 	public void doDeleted(JsonNode node) {
 		try {
-			doObjectDeleted((O) new ObjectMapper().readValue(
-								node.toPrettyString(), clz));
+			doObjectDeleted((O) JsonSupport.treeToValue(node, clz));
 		} catch (Exception e) {
 			m_logger.severe(e.getMessage());
 		}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.watchers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A decoded watch event, i.e. <code>{"type": "ADDED", "object": {...}}</code>.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public final class WatchEvent {
+
+	/**
+	 * ADDED, MODIFIED, DELETED, BOOKMARK or ERROR
+	 */
+	private final String type;
+
+	/**
+	 * object, only apiVersion, kind and metadata if it is decoded as metadata-only
+	 */
+	private final JsonNode object;
+
+	/**
+	 * metadata.resourceVersion of the object, or null
+	 */
+	private final String resourceVersion;
+
+	/**
+	 * @param type            type
+	 * @param object          object
+	 * @param resourceVersion resourceVersion
+	 */
+	public WatchEvent(String type, JsonNode object, String resourceVersion) {
+		super();
+		this.type = type;
+		this.object = object;
+		this.resourceVersion = resourceVersion;
+	}
+
+	/**
+	 * @return type
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return object
+	 */
+	public JsonNode getObject() {
+		return object;
+	}
+
+	/**
+	 * @return resourceVersion
+	 */
+	public String getResourceVersion() {
+		return resourceVersion;
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + resourceVersion;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.watchers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * Reads watch events straight from the response stream with one <code>JsonParser</code>.
+ *
+ * The events are concatenated JSON objects, usually separated by newlines, which are
+ * not needed here. The <code>type</code> is read before the <code>object</code>, so
+ * bookmarks, and all events if metadata-only is set, keep just apiVersion, kind and
+ * metadata, and the rest of the object is skipped without building a tree.
+ *
+ * It is not thread-safe, each stream has its own decoder.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class WatchEventDecoder implements Closeable {
+
+	/**
+	 * parser over the whole stream
+	 */
+	protected final JsonParser parser;
+
+	/**
+	 * keep only apiVersion, kind and metadata of objects
+	 */
+	protected final boolean metadataOnly;
+
+	/**
+	 * @param is stream
+	 * @throws IOException IOException
+	 */
+	public WatchEventDecoder(InputStream is) throws IOException {
+		this(is, false);
+	}
+
+	/**
+	 * @param is           stream
+	 * @param metadataOnly keep only apiVersion, kind and metadata of objects
+	 * @throws IOException IOException
+	 */
+	public WatchEventDecoder(InputStream is, boolean metadataOnly) throws IOException {
+		super();
+		this.parser = JsonSupport.createParser(is);
+		this.metadataOnly = metadataOnly;
+	}
+
+	/**
+	 * blocks until the next event is complete
+	 *
+	 * @return event, or null at the end of the stream
+	 * @throws IOException the stream is broken or it is not valid json
+	 */
+	public WatchEvent next() throws IOException {
+		JsonToken token = parser.nextToken();
+		if (token == null) {
+			return null;
+		}
+		if (token != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "watch event must be an object, but it is " + token);
+		}
+
+		String type = null;
+		JsonNode object = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			if (KubernetesConstants.KUBE_TYPE.equals(field)) {
+				type = parser.getText();
+			} else if (KubernetesConstants.KUBE_OBJECT.equals(field)) {
+				// the api-server writes type first, otherwise the full object is kept
+				object = (type != null && skipBody(type)) ? readHeader() : parser.readValueAsTree();
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		String rv = object == null ? null : object.path(KubernetesConstants.KUBE_METADATA)
+						.path(KubernetesConstants.KUBE_METADATA_RESOURCEVERSION).asText(null);
+		return new WatchEvent(type, object, rv);
+	}
+
+	/**
+	 * @param type type
+	 * @return true if only apiVersion, kind and metadata are needed
+	 */
+	protected boolean skipBody(String type) {
+		if (KubernetesConstants.JSON_TYPE_BOOKMARK.equals(type)) {
+			return true;
+		}
+		return metadataOnly && !KubernetesConstants.JSON_TYPE_ERROR.equals(type);
+	}
+
+	/**
+	 * the parser is at the start of the object
+	 *
+	 * @return apiVersion, kind and metadata
+	 * @throws IOException IOException
+	 */
+	protected JsonNode readHeader() throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			return parser.readValueAsTree();
+		}
+		ObjectNode node = JsonSupport.createObjectNode();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			if (KubernetesConstants.KUBE_METADATA.equals(field)
+					|| KubernetesConstants.KUBE_APIVERSION.equals(field)
+					|| KubernetesConstants.KUBE_KIND.equals(field)) {
+				node.set(field, parser.readValueAsTree());
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return node;
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+}
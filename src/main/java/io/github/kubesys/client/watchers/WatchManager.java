@@ -0,0 +1,296 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kubesys.client.watchers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.Timeout;
+
+import io.github.kubesys.client.Http2Transport;
+import io.github.kubesys.client.KubernetesConstants;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.TransferStats;
+import io.github.kubesys.client.exceptions.KubernetesConnectionException;
+import io.github.kubesys.client.utils.CompressionUtil;
+
+/**
+ * Owns the connection pool and the http client used by all watches of a
+ * <code>KubernetesClient</code>.
+ *
+ * Watch streams hold their connection for hours, so they get a pool of their own,
+ * and cannot starve the pool used by get, list and update. The pool is bounded by
+ * <code>KubernetesClientOptions.getMaxWatches</code>, and a stream which receives nothing
+ * for <code>KubernetesClientOptions.getWatchIdleTimeout</code> is closed.
+ *
+ * With <code>KubernetesClientOptions.withHttp2</code>, the streams are multiplexed over
+ * the connections of the <code>Http2Transport</code> instead, and the pool is unused.
+ * They take at most <code>getMaxWatches</code> streams, so the other streams are left to requests.
+ *
+ * Closing the manager cancels every open stream, so that all watcher threads return.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class WatchManager implements Closeable {
+
+	public static final Logger m_logger = Logger.getLogger(WatchManager.class.getName());
+
+	/**
+	 * connection pool, only for watches
+	 */
+	protected final PoolingHttpClientConnectionManager connectionManager;
+
+	/**
+	 * http client, only for watches
+	 */
+	protected final CloseableHttpClient httpClient;
+
+	/**
+	 * max open streams
+	 */
+	protected final int maxWatches;
+
+	/**
+	 * open streams
+	 */
+	protected final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * http/2 connections, watches are streams of them, or null
+	 */
+	protected final Http2Transport transport;
+
+	/**
+	 * a stream which receives nothing for this time is closed
+	 */
+	protected final Timeout watchIdleTimeout;
+
+	/**
+	 * ask for compressed streams
+	 */
+	protected final boolean compression;
+
+	/**
+	 * listener of bytes, or null
+	 */
+	protected final TransferStats.Listener transferListener;
+
+	/**
+	 * closed
+	 */
+	protected volatile boolean closed = false;
+
+	/**
+	 * @param connManager connection pool, it is owned by the manager
+	 * @param options     options
+	 */
+	public WatchManager(PoolingHttpClientConnectionManager connManager, KubernetesClientOptions options) {
+		this(connManager, options, null);
+	}
+
+	/**
+	 * @param connManager connection pool, it is owned by the manager
+	 * @param options     options
+	 * @param transport   http/2 connections shared with other requests, or null
+	 */
+	public WatchManager(PoolingHttpClientConnectionManager connManager, KubernetesClientOptions options, Http2Transport transport) {
+		super();
+		this.transport = transport;
+		this.watchIdleTimeout = options.getWatchIdleTimeout();
+		this.connectionManager = connManager;
+		this.maxWatches = options.getMaxWatches();
+		this.connectionManager.setMaxTotal(maxWatches);
+		this.connectionManager.setDefaultMaxPerRoute(maxWatches);
+		this.compression = options.isWatchCompression();
+		this.transferListener = options.getTransferListener();
+		this.httpClient = createHttpClient(connManager, options);
+	}
+
+	/**
+	 * @param connManager connection pool
+	 * @param options     options
+	 * @return http client
+	 */
+	protected CloseableHttpClient createHttpClient(PoolingHttpClientConnectionManager connManager, KubernetesClientOptions options) {
+
+		// the response timeout is the max time between two reads of a stream
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectionRequestTimeout(options.getConnectionRequestTimeout())
+				.setResponseTimeout(options.getWatchIdleTimeout())
+				.setConnectionKeepAlive(options.getKeepAlive())
+				.build();
+
+		HttpClientBuilder builder = HttpClients.custom()
+				.setDefaultRequestConfig(requestConfig)
+				.setConnectionManager(connManager)
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				.disableAutomaticRetries()
+				// see open and CompressionUtil
+				.disableContentCompression()
+				.evictExpiredConnections();
+
+		if (options.getIdleEviction() != null) {
+			builder.evictIdleConnections(options.getIdleEviction());
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * @param request watch request
+	 * @return stream, it must be closed by the caller
+	 * @throws Exception the manager is closed, too many watches or the connection fails
+	 */
+	@SuppressWarnings("deprecation")
+	public Stream open(HttpGet request) throws Exception {
+		if (closed) {
+			throw new KubernetesConnectionException("watch manager is closed");
+		}
+
+		Stream stream = new Stream(request);
+		synchronized (streams) {
+			if (streams.size() >= maxWatches) {
+				throw new KubernetesConnectionException("too many watches, the limit is " + maxWatches);
+			}
+			streams.add(stream);
+		}
+
+		try {
+			if (compression && !request.containsHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING)) {
+				request.setHeader(KubernetesConstants.HTTP_HEADER_ACCEPT_ENCODING,
+								KubernetesConstants.HTTP_ACCEPT_ENCODING_COMPRESSED);
+			}
+			ClassicHttpResponse response = transport != null
+							? transport.executeWatch(request, watchIdleTimeout)
+							: httpClient.execute(request);
+			CompressionUtil.decompress(response, request.getMethod(), request.getRequestUri(), transferListener);
+			stream.response = response;
+			// close() may have been called while connecting
+			if (closed) {
+				stream.close();
+				throw new KubernetesConnectionException("watch manager is closed");
+			}
+			return stream;
+		} catch (Exception ex) {
+			streams.remove(stream);
+			throw ex;
+		}
+	}
+
+	/**
+	 * @return the number of open streams
+	 */
+	public int getActiveWatches() {
+		return streams.size();
+	}
+
+	/**
+	 * @return max open streams
+	 */
+	public int getMaxWatches() {
+		return maxWatches;
+	}
+
+	/**
+	 * @return leased, pending, available and max connections of the watch pool
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	/**
+	 * @return closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * cancels all open streams, and closes the pool
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (Stream stream : streams) {
+			stream.close();
+		}
+		httpClient.close(CloseMode.IMMEDIATE);
+	}
+
+	/**
+	 * an open watch stream
+	 */
+	public final class Stream implements Closeable {
+
+		private final HttpGet request;
+
+		private volatile ClassicHttpResponse response;
+
+		private Stream(HttpGet request) {
+			super();
+			this.request = request;
+		}
+
+		/**
+		 * @return http status code
+		 */
+		public int getCode() {
+			return response.getCode();
+		}
+
+		/**
+		 * @return body, it blocks until the next event arrives
+		 * @throws IOException IOException
+		 */
+		public InputStream getContent() throws IOException {
+			return response.getEntity().getContent();
+		}
+
+		/**
+		 * cancels the request, so a thread blocked on reading the stream returns at once,
+		 * it can be called by any thread and more than once
+		 */
+		@Override
+		public void close() {
+			streams.remove(this);
+			// cancel() closes the connection instead of draining an endless body
+			request.cancel();
+			if (response != null) {
+				try {
+					response.close();
+				} catch (IOException ex) {
+					m_logger.fine(ex.toString());
+				}
+			}
+		}
+	}
+}
@@ -8,13 +8,11 @@ import java.io.PrintStream;
 import org.yaml.snakeyaml.DumperOptions;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 
 import io.github.kubesys.client.KubernetesWriter;
+import io.github.kubesys.client.utils.JsonSupport;
 
 /**
  * @author wuheng@iscas.ac.cn
@@ -67,7 +65,7 @@ public abstract class KindWriter {
 	 * @throws Exception exception
 	 */
 	public void stream(PrintStream ps) throws Exception {
-		ps.println(new YAMLMapper().writeValueAsString(json));
+		ps.println(JsonSupport.toYaml(json));
 	}
 	
 	/**
@@ -98,7 +96,7 @@ public abstract class KindWriter {
 	 */
 	public ObjectNode getObjectValue(String key) {
 		if (!json.has(key)) {
-			ObjectNode val = new ObjectMapper().createObjectNode();
+			ObjectNode val = JsonSupport.createObjectNode();
 			json.set(key, val);
 		}
 		return (ObjectNode) json.get(key);
@@ -111,7 +109,7 @@ public abstract class KindWriter {
 	 */
 	public ObjectNode getObjectValue(ObjectNode node, String key) {
 		if (!node.has(key)) {
-			ObjectNode val = new ObjectMapper().createObjectNode();
+			ObjectNode val = JsonSupport.createObjectNode();
 			node.set(key, val);
 		}
 		return (ObjectNode) node.get(key);
@@ -124,7 +122,7 @@ public abstract class KindWriter {
 	 */
 	public ArrayNode getArrayValue(ObjectNode node, String key) {
 		if (!node.has(key)) {
-			ArrayNode val = new ObjectMapper().createArrayNode();
+			ArrayNode val = JsonSupport.createArrayNode();
 			node.set(key, val);
 		}
 		return (ArrayNode) node.get(key);
@@ -140,7 +138,7 @@ public abstract class KindWriter {
 		for (int i = 0; i < list.length; i = i + 2) {
 			str = str.replaceAll(list[i], list[i + 1]);
 		}
-		return  (ObjectNode) new ObjectMapper(new YAMLFactory()).readTree(str);
+		return  (ObjectNode) JsonSupport.readYaml(str);
 	}
 	
 	/**
@@ -150,9 +148,9 @@ public abstract class KindWriter {
 	 * @throws Exception exception
 	 */
 	public ObjectNode toObjectNode(String key, JsonNode json) throws Exception {
-		ObjectNode val = new ObjectMapper().createObjectNode();
+		ObjectNode val = JsonSupport.createObjectNode();
 		val.set(key, json);
-		return  (ObjectNode) new ObjectMapper(new YAMLFactory()).readTree(val.toPrettyString());
+		return  val.deepCopy();
 	}
 	
 	/**
@@ -161,8 +159,7 @@ public abstract class KindWriter {
 	 * @throws Exception exception
 	 */
 	public ObjectNode toObjectNode(Object obj) throws Exception {
-		return  (ObjectNode) new ObjectMapper(new YAMLFactory()).readTree(
-				new ObjectMapper().writeValueAsString(obj));
+		return  (ObjectNode) JsonSupport.valueToTree(obj);
 	}
 	
 	/**
@@ -171,7 +168,7 @@ public abstract class KindWriter {
 	 * @throws Exception exception
 	 */
 	public ObjectNode toObjectNode(String json) throws Exception {
-		return  (ObjectNode) new ObjectMapper(new YAMLFactory()).readTree(json);
+		return  (ObjectNode) JsonSupport.readYaml(json);
 	}
 	
 	/**
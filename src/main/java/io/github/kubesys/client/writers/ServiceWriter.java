@@ -3,10 +3,11 @@
  */
 package io.github.kubesys.client.writers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import io.github.kubesys.client.utils.JsonSupport;
+
 /**
  * @author wuheng@iscas.ac.cn
  * @since  2023/07/26
@@ -111,7 +112,7 @@ public class ServiceWriter extends KindWriter {
 	public ServiceWriter withPort(int port, int targetPort, int nodePort, String protocol, String name) throws Exception {
 		ArrayNode ports = getArrayValue(getObjectValue("spec"), "ports");
 		
-		ObjectNode portNode = new ObjectMapper().createObjectNode();
+		ObjectNode portNode = JsonSupport.createObjectNode();
 		portNode.put("port", port);
 		portNode.put("targetPort", targetPort);
 		portNode.put("nodePort", nodePort);
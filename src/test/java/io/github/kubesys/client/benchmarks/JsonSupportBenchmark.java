@@ -0,0 +1,63 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * Compares allocation and time per parsed response between a new
+ * <code>ObjectMapper</code> for each request and the shared <code>JsonSupport</code>.
+ * 
+ * mvn test-compile exec:java -Dexec.mainClass=io.github.kubesys.client.benchmarks.JsonSupportBenchmark -Dexec.classpathScope=test
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class JsonSupportBenchmark {
+
+	static final int WARMUP = 20_000;
+	
+	static final int ROUNDS = 100_000;
+	
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": {\"name\": \"busybox\", "
+			+ "\"namespace\": \"default\", \"resourceVersion\": \"10577917\", \"labels\": {\"app\": \"busybox\"}}, "
+			+ "\"spec\": {\"nodeName\": \"node1\", \"containers\": [{\"name\": \"busybox\", \"image\": \"busybox:latest\", "
+			+ "\"command\": [\"sleep\", \"3600\"]}]}, \"status\": {\"phase\": \"Running\"}}";
+	
+	interface Parser {
+		JsonNode parse(String json) throws Exception;
+	}
+	
+	public static void main(String[] args) throws Exception {
+		run("new ObjectMapper()", json -> new ObjectMapper().readTree(json));
+		run("JsonSupport", JsonSupport::readTree);
+	}
+	
+	static void run(String name, Parser parser) throws Exception {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += parser.parse(POD).size();
+		}
+		
+		long bytes = bean.getThreadAllocatedBytes(id);
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			sink += parser.parse(POD).size();
+		}
+		long elapsed = System.nanoTime() - start;
+		bytes = bean.getThreadAllocatedBytes(id) - bytes;
+		
+		System.out.printf("%-20s %8d bytes/op %8.2f us/op (%d)%n", name, 
+				bytes / ROUNDS, elapsed / 1000.0 / ROUNDS, sink);
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.benchmarks;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.unit.MockApiServer;
+import io.github.kubesys.client.utils.ThreadUtil;
+
+/**
+ * Starts 1,000 concurrent watches with platform and with virtual threads, and reports
+ * how long it takes until every watcher has received its first event, how many watcher
+ * threads are alive and how many of them are platform threads, counted by the thread
+ * factory since virtual threads are not listed by the JVM, the platform threads added to
+ * the JVM from <code>ThreadMXBean</code>, which include one handler thread of the mock
+ * server per watch, and the heap used after GC.
+ *
+ * Virtual threads need Java 21+, on older runtimes both rows use platform threads.
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=io.github.kubesys.client.benchmarks.VirtualThreadWatchBenchmark -Dexec.classpathScope=test
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class VirtualThreadWatchBenchmark {
+
+	static final int WATCHES = 1000;
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("virtual threads supported: " + ThreadUtil.isVirtualThreadSupported());
+		run("platform", Thread::new);
+		run("virtual", ThreadUtil.virtualThreadFactory());
+	}
+
+	static void run(String name, ThreadFactory factory) throws Exception {
+		CountingThreadFactory threads = new CountingThreadFactory(factory);
+		KubernetesClientOptions options = KubernetesClientOptions.builder()
+						.withMaxWatches(WATCHES).withThreadFactory(threads).build();
+		CountDownLatch release = new CountDownLatch(1);
+		try (MockApiServer server = new MockApiServer()) {
+			for (int i = 0; i < WATCHES; i++) {
+				String event = "{\"type\": \"ADDED\", \"object\": {\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+						+ "\"metadata\": {\"name\": \"pod\", \"namespace\": \"bench-" + i + "\"}}}\n";
+				server.handle("/api/v1/watch/namespaces/bench-" + i + "/pods", exchange -> {
+					exchange.sendResponseHeaders(200, 0);
+					try (OutputStream os = exchange.getResponseBody()) {
+						os.write(event.getBytes(StandardCharsets.UTF_8));
+						os.flush();
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+
+			KubernetesClient client = server.createClient(options);
+			CountDownLatch added = new CountDownLatch(WATCHES);
+
+			long heap = usedHeapAfterGc();
+			int platform = ManagementFactory.getThreadMXBean().getThreadCount();
+			long start = System.nanoTime();
+			for (int i = 0; i < WATCHES; i++) {
+				client.watchResourcesByFullkindAndNamespace("Pod", "bench-" + i, new KubernetesWatcher(client) {
+
+					@Override
+					public void doAdded(JsonNode node) {
+						added.countDown();
+					}
+
+					@Override
+					public void doModified(JsonNode node) {
+					}
+
+					@Override
+					public void doDeleted(JsonNode node) {
+					}
+
+					@Override
+					public void doClose() {
+					}
+				});
+			}
+			if (!added.await(120, TimeUnit.SECONDS)) {
+				System.out.println(name + ": only " + (WATCHES - added.getCount()) + " watches started");
+			}
+			long elapsed = System.nanoTime() - start;
+			platform = ManagementFactory.getThreadMXBean().getThreadCount() - platform;
+			long used = usedHeapAfterGc();
+
+			System.out.printf("%-10s %6d ms to start, %5d watcher threads alive, %5d of them platform "
+					+ "(~%d MB reserved stacks), %5d JVM threads added, %6d KB heap after GC (+%d KB)%n", name, 
+					TimeUnit.NANOSECONDS.toMillis(elapsed), threads.alive(false), threads.alive(true), 
+					threads.alive(true), platform, used / 1024, (used - heap) / 1024);
+			client.close();
+		} finally {
+			release.countDown();
+		}
+	}
+
+	static long usedHeapAfterGc() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * keeps the threads it creates, platform or virtual
+	 */
+	static class CountingThreadFactory implements ThreadFactory {
+
+		final ThreadFactory factory;
+
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+		CountingThreadFactory(ThreadFactory factory) {
+			super();
+			this.factory = factory;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = factory.newThread(r);
+			threads.add(thread);
+			return thread;
+		}
+
+		/**
+		 * @param platformOnly only platform threads
+		 * @return alive threads
+		 */
+		long alive(boolean platformOnly) {
+			return threads.stream().filter(t -> t.isAlive() && !(platformOnly && isVirtual(t))).count();
+		}
+
+		/**
+		 * @param thread thread
+		 * @return Thread.isVirtual() on Java 21+, false on older runtimes
+		 */
+		static boolean isVirtual(Thread thread) {
+			try {
+				return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+			} catch (ReflectiveOperationException ex) {
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.watchers.WatchEvent;
+import io.github.kubesys.client.watchers.WatchEventDecoder;
+
+/**
+ * Compares allocation and time per watch event between <code>readLine</code> plus
+ * <code>readTree</code> and the <code>WatchEventDecoder</code>, over a stream of
+ * 100k events with a bookmark every 100 events.
+ * 
+ * mvn test-compile exec:java -Dexec.mainClass=io.github.kubesys.client.benchmarks.WatchDecoderBenchmark -Dexec.classpathScope=test
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class WatchDecoderBenchmark {
+
+	static final int EVENTS = 100_000;
+	
+	static final int WARMUP = 5;
+	
+	static final int ROUNDS = 10;
+	
+	interface Decoder {
+		long decode(byte[] stream) throws Exception;
+	}
+	
+	public static void main(String[] args) throws Exception {
+		byte[] stream = stream();
+		run("readLine + readTree", stream, WatchDecoderBenchmark::readLine);
+		run("WatchEventDecoder", stream, s -> decoder(s, false));
+		run("metadata-only", stream, s -> decoder(s, true));
+	}
+	
+	static byte[] stream() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < EVENTS; i++) {
+			if (i % 100 == 99) {
+				sb.append("{\"type\": \"BOOKMARK\", \"object\": {\"kind\": \"Pod\", \"apiVersion\": \"v1\", "
+						+ "\"metadata\": {\"resourceVersion\": \"" + i + "\"}}}\n");
+				continue;
+			}
+			sb.append("{\"type\": \"MODIFIED\", \"object\": {\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+					+ "\"metadata\": {\"name\": \"busybox-" + i + "\", \"namespace\": \"default\", "
+					+ "\"resourceVersion\": \"" + i + "\", \"labels\": {\"app\": \"busybox\"}}, "
+					+ "\"spec\": {\"nodeName\": \"node1\", \"containers\": [{\"name\": \"busybox\", "
+					+ "\"image\": \"busybox:latest\", \"command\": [\"sleep\", \"3600\"]}]}, "
+					+ "\"status\": {\"phase\": \"Running\", \"podIP\": \"10.0.0.1\"}}}\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	static long readLine(byte[] stream) throws Exception {
+		long sink = 0;
+		BufferedReader br = new BufferedReader(new InputStreamReader(
+				new ByteArrayInputStream(stream), StandardCharsets.UTF_8));
+		String line;
+		while ((line = br.readLine()) != null) {
+			JsonNode json = JsonSupport.readTree(line);
+			sink += json.get("type").asText().length() + json.get("object").size();
+		}
+		return sink;
+	}
+	
+	static long decoder(byte[] stream, boolean metadataOnly) throws Exception {
+		long sink = 0;
+		try (WatchEventDecoder decoder = new WatchEventDecoder(new ByteArrayInputStream(stream), metadataOnly)) {
+			WatchEvent event;
+			while ((event = decoder.next()) != null) {
+				sink += event.getType().length() + event.getObject().size();
+			}
+		}
+		return sink;
+	}
+	
+	static void run(String name, byte[] stream, Decoder decoder) throws Exception {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += decoder.decode(stream);
+		}
+		
+		long bytes = bean.getThreadAllocatedBytes(id);
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			sink += decoder.decode(stream);
+		}
+		long elapsed = System.nanoTime() - start;
+		bytes = bean.getThreadAllocatedBytes(id) - bytes;
+		
+		long ops = (long) ROUNDS * EVENTS;
+		System.out.printf("%-20s %8d bytes/op %8.2f us/op (%d)%n", name, 
+				bytes / ops, elapsed / 1000.0 / ops, sink);
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.PatchType;
+import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
+import io.github.kubesys.client.utils.ApplyCache;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class ApplyTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	List<String> calls = new CopyOnWriteArrayList<>();
+
+	void start(KubernetesClientOptions options) throws Exception {
+		server = new MockApiServer();
+		client = server.createClient(options);
+		server.handle("/api/v1/namespaces/demo/configmaps/config", this::apply);
+		server.handle("/api/v1/namespaces/demo/configmaps/config/status", this::apply);
+		server.handle("/api/v1/namespaces/demo", this::apply);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (server != null) {
+			client.close();
+			server.close();
+		}
+	}
+
+	/**
+	 * records method, query, Content-Type and body, it conflicts if the data has conflict
+	 */
+	void apply(HttpExchange exchange) throws IOException {
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		calls.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawQuery() + " "
+				+ exchange.getRequestHeaders().getFirst("Content-Type") + " " + body);
+		if (body.contains("conflict")) {
+			MockApiServer.reply(exchange, 409, "{\"kind\": \"Status\", \"code\": 409}");
+		} else if (body.isEmpty()) {
+			MockApiServer.reply(exchange, 200, "{\"kind\": \"Status\"}");
+		} else {
+			JsonNode json = JsonSupport.readTree(body);
+			((ObjectNode) json.get("metadata")).put("resourceVersion", "" + calls.size());
+			MockApiServer.reply(exchange, 200, json.toString());
+		}
+	}
+
+	static JsonNode configMap(String value) throws Exception {
+		return JsonSupport.readTree("{\"apiVersion\": \"v1\", \"kind\": \"ConfigMap\", "
+				+ "\"metadata\": {\"name\": \"config\", \"namespace\": \"demo\"}, \"data\": {\"k\": \"" + value + "\"}}");
+	}
+
+	@Test
+	void testApplySkipsUnchanged() throws Exception {
+		start(KubernetesClientOptions.DEFAULT);
+
+		JsonNode first = client.applyResource(configMap("v1"), "gitops", true);
+		assertEquals(1, calls.size());
+		assertEquals("PATCH fieldManager=gitops&force=true application/apply-patch+yaml; charset=UTF-8 "
+				+ configMap("v1"), calls.get(0));
+		assertEquals("1", first.get("metadata").get("resourceVersion").asText());
+
+		// the same intent is not sent again, and the last object is returned
+		JsonNode second = client.applyResource(configMap("v1"), "gitops", true);
+		assertEquals(1, calls.size());
+		assertEquals(first, second);
+
+		// a changed intent, manager or force is sent
+		client.applyResource(configMap("v2"), "gitops", true);
+		client.applyResource(configMap("v2"), "other manager", true);
+		client.applyResource(configMap("v2"), "other manager", false);
+		assertEquals(4, calls.size());
+		assertEquals(true, calls.get(2).startsWith("PATCH fieldManager=other+manager&force=true "));
+		assertEquals(true, calls.get(3).startsWith("PATCH fieldManager=other+manager application/apply-patch+yaml"));
+	}
+
+	@Test
+	void testChangesInvalidate() throws Exception {
+		start(KubernetesClientOptions.DEFAULT);
+
+		client.applyResource(configMap("v1"), "gitops", false);
+		client.deleteResource(configMap("v1"));
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(3, calls.size());
+
+		client.updateResource(configMap("v3"));
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(5, calls.size());
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(5, calls.size());
+
+		// a failure is not remembered
+		assertThrows(KubernetesConflictResourceException.class,
+				() -> client.applyResource(configMap("conflict"), "gitops", false));
+		assertThrows(KubernetesConflictResourceException.class,
+				() -> client.applyResource(configMap("conflict"), "gitops", false));
+		assertEquals(7, calls.size());
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(8, calls.size());
+	}
+
+	@Test
+	void testAsyncWritesInvalidate() throws Exception {
+		start(KubernetesClientOptions.DEFAULT);
+
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			client.applyResource(configMap("v1"), "gitops", false);
+			async.deleteResource(configMap("v1")).get(5, TimeUnit.SECONDS);
+			// the deleted object is created again
+			client.applyResource(configMap("v1"), "gitops", false);
+			assertEquals(3, calls.size());
+
+			async.patchResource("ConfigMap", "demo", "config", PatchType.MERGE, configMap("v2")).get(5, TimeUnit.SECONDS);
+			client.applyResource(configMap("v1"), "gitops", false);
+			assertEquals(5, calls.size());
+
+			async.patchResourceStatus("ConfigMap", "demo", "config", PatchType.MERGE, configMap("v2")).get(5, TimeUnit.SECONDS);
+			client.applyResource(configMap("v1"), "gitops", false);
+			assertEquals(7, calls.size());
+		}
+
+		// the objects of a deleted namespace are applied again
+		client.deleteResourceByName("Namespace", "demo");
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(9, calls.size());
+		// a read does not
+		client.getResourceByNamespaceAndName("ConfigMap", "demo", "config");
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(10, calls.size());
+	}
+
+	@Test
+	void testTtl() throws Exception {
+		start(KubernetesClientOptions.builder().withApplyCacheTtl(TimeValue.ofMilliseconds(100)).build());
+		client.applyResource(configMap("v1"), "gitops", false);
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(1, calls.size());
+		Thread.sleep(150);
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(2, calls.size());
+	}
+
+	@Test
+	void testDisabled() throws Exception {
+		start(KubernetesClientOptions.builder().withApplyCacheTtl(TimeValue.ZERO_MILLISECONDS).build());
+		client.applyResource(configMap("v1"), "gitops", false);
+		client.applyResource(configMap("v1"), "gitops", false);
+		assertEquals(2, calls.size());
+		assertEquals(0, client.getApplyCache().size());
+	}
+
+	@Test
+	void testCache() throws Exception {
+		ApplyCache cache = new ApplyCache(60_000, 2);
+		JsonNode result = configMap("v1");
+		cache.put("a", "1", result);
+		cache.put("b", "1", result);
+		cache.put("c", "1", result);
+		assertEquals(2, cache.size());
+		assertEquals(result, cache.get("c", "1"));
+		assertNull(cache.get("c", "2"));
+
+		assertEquals("/api/v1/namespaces/demo/configmaps/config", 
+				ApplyCache.key("https://host:6443/api/v1/namespaces/demo/configmaps/config/status?fieldManager=a"));
+		cache.invalidate("GET", "c");
+		assertEquals(result, cache.get("c", "1"));
+		cache.invalidate("PUT", "c?dryRun=All");
+		assertNull(cache.get("c", "1"));
+
+		assertEquals(64, ApplyCache.hash("ab", "c").length());
+		assertNotEquals(ApplyCache.hash("ab", "c"), ApplyCache.hash("a", "bc"));
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.exceptions.KubernetesResourceNotFoundException;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class AsyncKubernetesClientTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+			+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\"}}";
+
+	static final long LATENCY = 50;
+
+	static MockApiServer server;
+
+	static AsyncKubernetesClient client;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		server = new MockApiServer();
+		server.json("/api/v1/namespaces/default/pods/busybox", POD);
+		server.json("/api/v1/namespaces/default/pods", POD);
+		server.handle("/api/v1/namespaces/default/pods/slow", exchange -> {
+			try {
+				Thread.sleep(LATENCY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			MockApiServer.reply(exchange, 200, POD);
+		});
+		// the connections rather than the rate limit are measured
+		client = new AsyncKubernetesClient(server.createClient(
+						KubernetesClientOptions.builder().withRateLimit(0, 1).build()));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		client.close();
+		server.close();
+	}
+
+	@Test
+	void testVerbs() throws Exception {
+		JsonNode pod = JsonSupport.readTree(POD);
+		assertEquals("busybox", client.getResource("Pod", "default", "busybox")
+						.get(5, TimeUnit.SECONDS).get("metadata").get("name").asText());
+		assertEquals("Pod", client.createResource(pod).get(5, TimeUnit.SECONDS).get("kind").asText());
+		assertEquals("Pod", client.listResources("Pod", "default").get(5, TimeUnit.SECONDS).get("kind").asText());
+		assertTrue(server.getRequests().contains("POST /api/v1/namespaces/default/pods"));
+	}
+
+	@Test
+	void testNotFound() {
+		CompletableFuture<JsonNode> future = client.getResource("Pod", "default", "missing");
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(KubernetesResourceNotFoundException.class, ex.getCause());
+	}
+
+	@Test
+	void testManyRequestsInFlight() throws Exception {
+		int requests = 256;
+		long start = System.nanoTime();
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			futures.add(client.getResource("Pod", "default", "slow"));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// 64 connections, so it is about 4 rounds rather than 256
+		assertTrue(elapsed < requests * LATENCY / 4, "elapsed " + elapsed + " ms");
+	}
+}
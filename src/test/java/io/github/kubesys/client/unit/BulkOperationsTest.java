@@ -0,0 +1,229 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.BulkOperations;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.BulkResult;
+import io.github.kubesys.client.beans.BulkResult.Status;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class BulkOperationsTest {
+
+	static final String MANIFESTS = "apiVersion: apps/v1\n"
+			+ "kind: Deployment\n"
+			+ "metadata:\n"
+			+ "  name: web\n"
+			+ "  namespace: demo\n"
+			+ "---\n"
+			+ "apiVersion: v1\n"
+			+ "kind: ConfigMap\n"
+			+ "metadata:\n"
+			+ "  name: config\n"
+			+ "  namespace: demo\n"
+			+ "---\n"
+			+ "apiVersion: v1\n"
+			+ "kind: Namespace\n"
+			+ "metadata:\n"
+			+ "  name: demo\n";
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	List<String> calls;
+
+	AtomicInteger inflight;
+
+	AtomicInteger maxInflight;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		calls = new CopyOnWriteArrayList<>();
+		inflight = new AtomicInteger();
+		maxInflight = new AtomicInteger();
+		server.handle("/api/v1/namespaces", this::echo);
+		server.handle("/api/v1/namespaces/demo/configmaps", this::echo);
+		server.handle("/apis/apps/v1/namespaces/demo/deployments", this::echo);
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.close();
+		server.close();
+	}
+
+	/**
+	 * replies the request body, it fails for the names starting with broken or exists
+	 */
+	void echo(HttpExchange exchange) throws IOException {
+		maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+		try {
+			byte[] bytes = exchange.getRequestBody().readAllBytes();
+			String body = new String(bytes, StandardCharsets.UTF_8);
+			String name = bytes.length == 0 ? "" : JsonSupport.readTree(body).get("metadata").get("name").asText();
+			calls.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " " + name);
+			Thread.sleep(20);
+			if (name.startsWith("broken")) {
+				MockApiServer.reply(exchange, 500, "{\"kind\": \"Status\", \"code\": 500}");
+			} else if (name.startsWith("exists")) {
+				MockApiServer.reply(exchange, 409, "{\"kind\": \"Status\", \"code\": 409}");
+			} else {
+				MockApiServer.reply(exchange, 201, body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inflight.decrementAndGet();
+		}
+	}
+
+	static String configMap(String name) {
+		return "{\"apiVersion\": \"v1\", \"kind\": \"ConfigMap\", "
+				+ "\"metadata\": {\"name\": \"" + name + "\", \"namespace\": \"demo\"}, \"data\": {\"k\": \"v\"}}";
+	}
+
+	static List<JsonNode> configMaps(int count) throws Exception {
+		List<JsonNode> list = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			list.add(JsonSupport.readTree(configMap("cm-" + i)));
+		}
+		return list;
+	}
+
+	@Test
+	void testDependenciesFirst() throws Exception {
+		BulkResult result = client.bulk().createResources(MANIFESTS);
+
+		assertTrue(result.isSuccess(), result.toString());
+		assertEquals(List.of("POST /api/v1/namespaces demo",
+				"POST /api/v1/namespaces/demo/configmaps config",
+				"POST /apis/apps/v1/namespaces/demo/deployments web"), calls);
+
+		// the report keeps the order of the input
+		assertEquals(List.of("apps.Deployment", "ConfigMap", "Namespace"), result.getItems().stream()
+				.map(BulkResult.Item::getFullkind).collect(Collectors.toList()));
+		assertEquals(Status.CREATED, result.getItems().get(0).getStatus());
+		assertEquals("web", result.getItems().get(0).getResult().get("metadata").get("name").asText());
+		assertEquals("", result.getItems().get(2).getNamespace());
+	}
+
+	@Test
+	void testParallelismPerKind() throws Exception {
+		BulkResult result = client.bulk().withParallelism("ConfigMap", 2).createResources(configMaps(8));
+		assertTrue(result.isSuccess());
+		assertEquals(2, maxInflight.get());
+
+		maxInflight.set(0);
+		assertTrue(new BulkOperations(client).withParallelism(8).createResources(configMaps(8)).isSuccess());
+		assertTrue(maxInflight.get() > 2, "max in flight " + maxInflight.get());
+	}
+
+	@Test
+	void testFailureDoesNotStop() throws Exception {
+		List<JsonNode> resources = configMaps(4);
+		resources.add(1, JsonSupport.readTree(configMap("broken")));
+
+		BulkResult result = client.bulk().createResources(resources);
+
+		assertFalse(result.isSuccess());
+		assertEquals(1, result.getFailed().size());
+		BulkResult.Item failed = result.getFailed().get(0);
+		assertEquals(1, failed.getIndex());
+		assertEquals("broken", failed.getName());
+		assertEquals(Status.FAILED, failed.getStatus());
+		assertNull(failed.getResult());
+		assertEquals(4, result.getItems().stream().filter(i -> i.getStatus() == Status.CREATED).count());
+	}
+
+	@Test
+	void testInvalidResource() throws Exception {
+		BulkResult result = client.bulk().createResources(List.of(JsonSupport.readTree("{\"data\": {}}"),
+				JsonSupport.readTree(configMap("a"))));
+		assertEquals(Status.FAILED, result.getItems().get(0).getStatus());
+		assertEquals(Status.CREATED, result.getItems().get(1).getStatus());
+	}
+
+	@Test
+	void testApplyUpdatesExisting() throws Exception {
+		List<String> updates = new CopyOnWriteArrayList<>();
+		server.handle("/api/v1/namespaces/demo/configmaps/exists", exchange -> {
+			if ("PUT".equals(exchange.getRequestMethod())) {
+				String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				updates.add(JsonSupport.readTree(body).get("metadata").get("resourceVersion").asText());
+				MockApiServer.reply(exchange, 200, body);
+			} else {
+				MockApiServer.reply(exchange, 200, "{\"apiVersion\": \"v1\", \"kind\": \"ConfigMap\", "
+						+ "\"metadata\": {\"name\": \"exists\", \"namespace\": \"demo\", \"resourceVersion\": \"5\"}}");
+			}
+		});
+
+		JsonNode desired = JsonSupport.readTree(configMap("exists"));
+		BulkResult result = client.bulk().applyResources(List.of(desired, JsonSupport.readTree(configMap("new"))));
+
+		assertTrue(result.isSuccess(), result.toString());
+		assertEquals(Status.UPDATED, result.getItems().get(0).getStatus());
+		assertEquals(Status.CREATED, result.getItems().get(1).getStatus());
+		assertEquals(List.of("5"), updates);
+		// the input is not changed
+		assertFalse(desired.get("metadata").has("resourceVersion"));
+	}
+
+	@Test
+	void testDeleteInReverseOrder() throws Exception {
+		server.handle("/api/v1/namespaces/demo", exchange -> {
+			calls.add("DELETE namespace");
+			MockApiServer.reply(exchange, 200, "{\"kind\": \"Namespace\"}");
+		});
+		server.handle("/api/v1/namespaces/demo/configmaps/config", exchange -> {
+			calls.add("DELETE configmap");
+			MockApiServer.reply(exchange, 200, "{\"kind\": \"ConfigMap\"}");
+		});
+
+		BulkResult result = client.bulk().deleteResources(MANIFESTS);
+
+		assertEquals(List.of("DELETE configmap", "DELETE namespace"),
+				calls.stream().filter(c -> c.startsWith("DELETE")).collect(Collectors.toList()));
+		// the deployment does not exist
+		assertEquals(Status.NOT_FOUND, result.getItems().get(0).getStatus());
+		assertEquals(Status.DELETED, result.getItems().get(1).getStatus());
+		assertEquals(Status.DELETED, result.getItems().get(2).getStatus());
+		assertTrue(result.isSuccess());
+	}
+
+	@Test
+	void testResources() throws Exception {
+		assertEquals(2, BulkOperations.resources("[" + configMap("a") + ", " + configMap("b") + "]").size());
+		assertEquals(2, BulkOperations.resources("{\"apiVersion\": \"v1\", \"kind\": \"List\", \"items\": ["
+				+ configMap("a") + ", " + configMap("b") + "]}").size());
+		assertEquals(3, BulkOperations.resources(MANIFESTS + "---\n---\n").size());
+	}
+}
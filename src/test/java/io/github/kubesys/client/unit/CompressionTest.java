@@ -0,0 +1,297 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.beans.TransferStats;
+import io.github.kubesys.client.utils.CompressionUtil;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class CompressionTest {
+
+	static final String LIST;
+
+	static {
+		StringBuilder sb = new StringBuilder("{\"apiVersion\": \"v1\", \"kind\": \"ConfigMapList\", "
+				+ "\"metadata\": {\"resourceVersion\": \"9\"}, \"items\": [");
+		for (int i = 0; i < 100; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"metadata\": {\"name\": \"cm-" + i
+					+ "\", \"namespace\": \"default\"}, \"data\": {\"key\": \"value\"}}");
+		}
+		LIST = sb.append("]}").toString();
+	}
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	Queue<String> encodings;
+
+	List<TransferStats> stats;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		encodings = new ConcurrentLinkedQueue<>();
+		stats = new CopyOnWriteArrayList<>();
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		if (client != null) {
+			client.close();
+		}
+		server.close();
+	}
+
+	KubernetesClient createClient(KubernetesClientOptions.Builder builder) throws Exception {
+		client = server.createClient(builder.withTransferListener(stats::add).build());
+		return client;
+	}
+
+	static byte[] gzip(String body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream os = new GZIPOutputStream(out)) {
+			os.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] deflate(String body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream os = new DeflaterOutputStream(out)) {
+			os.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		return out.toByteArray();
+	}
+
+	String accepted(HttpExchange exchange) {
+		String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		encodings.add(String.valueOf(accept));
+		return accept == null ? "" : accept;
+	}
+
+	void compressed(String path, String body) {
+		server.handle(path, exchange -> {
+			String accept = accepted(exchange);
+			if (accept.contains("gzip")) {
+				reply(exchange, "gzip", gzip(body));
+			} else if (accept.contains("deflate")) {
+				reply(exchange, "deflate", deflate(body));
+			} else {
+				MockApiServer.reply(exchange, 200, body);
+			}
+		});
+	}
+
+	static void reply(HttpExchange exchange, String encoding, byte[] bytes) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.getResponseHeaders().set("Content-Encoding", encoding);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	@Test
+	void testListIsCompressed() throws Exception {
+		compressed("/api/v1/namespaces/default/configmaps", LIST);
+		createClient(KubernetesClientOptions.builder());
+
+		assertEquals(JsonSupport.readTree(LIST), client.listResourcesByNamespace("ConfigMap", "default"));
+		assertEquals("gzip, deflate", encodings.peek());
+
+		TransferStats last = stats.get(stats.size() - 1);
+		assertEquals("GET", last.getMethod());
+		assertEquals("gzip", last.getEncoding());
+		assertEquals(LIST.length(), last.getBytes());
+		assertEquals(gzip(LIST).length, last.getWireBytes());
+		assertTrue(last.getRatio() < 0.2, last.toString());
+	}
+
+	@Test
+	void testPagerIsCompressed() throws Exception {
+		compressed("/api/v1/namespaces/default/configmaps", LIST);
+		createClient(KubernetesClientOptions.builder());
+
+		assertEquals(100, client.streamResources("ConfigMap", "default").count());
+		assertEquals("gzip", stats.get(stats.size() - 1).getEncoding());
+	}
+
+	@Test
+	void testDeflate() throws Exception {
+		server.handle("/api/v1/namespaces/default/configmaps",
+				exchange -> reply(exchange, "deflate", deflate(LIST)));
+		createClient(KubernetesClientOptions.builder());
+
+		assertEquals(JsonSupport.readTree(LIST), client.listResourcesByNamespace("ConfigMap", "default"));
+		assertEquals("deflate", stats.get(stats.size() - 1).getEncoding());
+	}
+
+	@Test
+	void testDisabled() throws Exception {
+		compressed("/api/v1/namespaces/default/configmaps", LIST);
+		createClient(KubernetesClientOptions.builder().withCompression(false));
+
+		assertEquals(JsonSupport.readTree(LIST), client.listResourcesByNamespace("ConfigMap", "default"));
+		assertEquals("null", encodings.peek());
+
+		TransferStats last = stats.get(stats.size() - 1);
+		assertNull(last.getEncoding());
+		assertEquals(last.getBytes(), last.getWireBytes());
+	}
+
+	@Test
+	void testAsync() throws Exception {
+		compressed("/api/v1/namespaces/default/configmaps", LIST);
+		createClient(KubernetesClientOptions.builder());
+
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			assertEquals(JsonSupport.readTree(LIST), async.listResources("ConfigMap", "default")
+					.get(5, TimeUnit.SECONDS));
+		}
+		TransferStats last = stats.get(stats.size() - 1);
+		assertEquals("gzip", last.getEncoding());
+		assertEquals(LIST.length(), last.getBytes());
+	}
+
+	@Test
+	void testWritesAreNotCompressed() throws Exception {
+		String pod = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+				+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\"}}";
+		compressed("/api/v1/namespaces/default/pods", pod);
+		compressed("/api/v1/namespaces/default/pods/busybox", pod);
+		createClient(KubernetesClientOptions.builder());
+
+		client.createResource(JsonSupport.readTree(pod));
+		client.updateResource(JsonSupport.readTree(pod));
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			async.deleteResource("Pod", "default", "busybox").get(5, TimeUnit.SECONDS);
+			async.getResource("Pod", "default", "busybox").get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(List.of("null", "null", "null", "gzip, deflate"), List.copyOf(encodings));
+	}
+
+	@Test
+	void testEmptyBody() throws Exception {
+		assertArrayEquals(new byte[0], CompressionUtil.decompress(new byte[0], "gzip"));
+		assertEquals("gzip", CompressionUtil.encoding("X-GZIP"));
+		assertNull(CompressionUtil.encoding("identity"));
+	}
+
+	void watch(boolean hold) {
+		server.handle("/api/v1/watch/pods", exchange -> {
+			boolean gzip = accepted(exchange).contains("gzip");
+			if (gzip) {
+				exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream os = gzip ? new GZIPOutputStream(exchange.getResponseBody(), true)
+							: exchange.getResponseBody();
+			try {
+				os.write(KubernetesWatcherTest.event("ADDED", KubernetesWatcherTest.pod("a", "1"))
+						.getBytes(StandardCharsets.UTF_8));
+				// each event is flushed, the stream is not finished
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				os.close();
+			}
+		});
+	}
+
+	List<String> receive(KubernetesClient client) throws Exception {
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		KubernetesWatcher watcher = new KubernetesWatcher(client) {
+
+			@Override
+			public void doAdded(JsonNode node) {
+				received.add(node.get("metadata").get("name").asText());
+				latch.countDown();
+			}
+
+			@Override
+			public void doModified(JsonNode node) {
+			}
+
+			@Override
+			public void doDeleted(JsonNode node) {
+			}
+
+			@Override
+			public void doClose() {
+			}
+		};
+		Thread thread = client.watchResources("Pod", watcher);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		return received;
+	}
+
+	@Test
+	void testWatchIsNotCompressedByDefault() throws Exception {
+		watch(true);
+		createClient(KubernetesClientOptions.builder());
+
+		assertEquals(List.of("a"), receive(client));
+		assertEquals("null", encodings.peek());
+	}
+
+	@Test
+	void testCompressedWatchIsStreamed() throws Exception {
+		watch(true);
+		createClient(KubernetesClientOptions.builder().withWatchCompression(true));
+
+		// the event arrives before the stream ends
+		assertEquals(List.of("a"), receive(client));
+		assertEquals("gzip, deflate", encodings.peek());
+		for (int i = 0; i < 50 && stats.stream().noneMatch(s -> s.getUri().contains("watch")); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(stats.stream().anyMatch(s -> s.getUri().contains("watch") && "gzip".equals(s.getEncoding())));
+	}
+}
@@ -0,0 +1,347 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.Http2Transport;
+import io.github.kubesys.client.KubernetesAnalyzer;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+
+/**
+ * The api-server is an in-process http/2 server without TLS.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class Http2TransportTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+			+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\"}}";
+
+	static final int ITEMS = 5000;
+
+	static final String LIST;
+
+	static {
+		StringBuilder sb = new StringBuilder("{\"apiVersion\": \"v1\", \"kind\": \"ConfigMapList\", "
+				+ "\"metadata\": {\"resourceVersion\": \"1\"}, \"items\": [");
+		for (int i = 0; i < ITEMS; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"metadata\": {\"name\": \"cm-" + i
+					+ "\", \"namespace\": \"default\"}, \"data\": {\"key\": \"" + "v".repeat(100) + "\"}}");
+		}
+		LIST = sb.append("]}").toString();
+	}
+
+	HttpAsyncServer server;
+
+	ScheduledExecutorService scheduler;
+
+	Set<SocketAddress> connections;
+
+	AtomicInteger inflight;
+
+	AtomicInteger maxInflight;
+
+	CountDownLatch release;
+
+	KubernetesClient client;
+
+	int port;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		scheduler = Executors.newScheduledThreadPool(4);
+		connections = ConcurrentHashMap.newKeySet();
+		inflight = new AtomicInteger();
+		maxInflight = new AtomicInteger();
+		release = new CountDownLatch(1);
+		server = H2ServerBootstrap.bootstrap()
+				.setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+				.setH2Config(H2Config.custom().setMaxConcurrentStreams(1000).build())
+				.setIOSessionDecorator(session -> {
+					connections.add(session.getRemoteAddress());
+					return session;
+				})
+				.register("*", Handler::new)
+				.create();
+		server.start();
+		ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+		port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+		client = new KubernetesClient("http://127.0.0.1:" + port, "token", new KubernetesAnalyzer(),
+				KubernetesClientOptions.builder().withHttp2(true).withMaxConcurrentStreams(4)
+						.withInitialWindowSize(16 * 1024).build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close(CloseMode.IMMEDIATE);
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	void testMultiplexing() throws Exception {
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			futures.add(client.submit(() -> client.getResourceByNamespaceAndName("Pod", "default", "busybox")));
+		}
+		for (CompletableFuture<JsonNode> future : futures) {
+			assertEquals("busybox", future.get(10, TimeUnit.SECONDS).get("metadata").get("name").asText());
+		}
+
+		// all requests, including discovery, share one connection
+		assertEquals(1, connections.size());
+		assertTrue(maxInflight.get() > 1, "max in flight " + maxInflight.get());
+		// no more than the max concurrent streams
+		assertTrue(maxInflight.get() <= 4, "max in flight " + maxInflight.get());
+		assertEquals(0, client.getHttp2Transport().getActiveStreams());
+	}
+
+	@Test
+	void testFlowControl() throws Exception {
+		// the list is much larger than the window of the stream
+		assertEquals(ITEMS, client.listResourcesByNamespace("ConfigMap", "default").get("items").size());
+		assertEquals(ITEMS, client.streamResources("ConfigMap", "default").count());
+	}
+
+	@Test
+	void testAsync() throws Exception {
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				futures.add(async.getResource("Pod", "default", "busybox"));
+			}
+			for (CompletableFuture<JsonNode> future : futures) {
+				assertEquals("busybox", future.get(10, TimeUnit.SECONDS).get("metadata").get("name").asText());
+			}
+		}
+		assertEquals(1, connections.size());
+		assertTrue(maxInflight.get() <= 4, "max in flight " + maxInflight.get());
+	}
+
+	@Test
+	void testWatchSharesConnection() throws Exception {
+		CountDownLatch added = new CountDownLatch(1);
+		KubernetesWatcher watcher = new KubernetesWatcher(client) {
+
+			@Override
+			public void doAdded(JsonNode node) {
+				added.countDown();
+			}
+
+			@Override
+			public void doModified(JsonNode node) {
+			}
+
+			@Override
+			public void doDeleted(JsonNode node) {
+			}
+
+			@Override
+			public void doClose() {
+			}
+		};
+		Thread thread = client.watchResources("Pod", watcher);
+		assertTrue(added.await(5, TimeUnit.SECONDS));
+
+		// the open watch does not block other requests
+		assertEquals("busybox", client.getResourceByNamespaceAndName("Pod", "default", "busybox")
+				.get("metadata").get("name").asText());
+		assertEquals(1, client.getHttp2Transport().getActiveStreams());
+		assertEquals(1, connections.size());
+
+		// the stream is reset, and the connection is kept
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		for (int i = 0; i < 50 && client.getHttp2Transport().getActiveStreams() > 0; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(0, client.getHttp2Transport().getActiveStreams());
+		client.getResourceByNamespaceAndName("Pod", "default", "busybox");
+		assertEquals(1, connections.size());
+	}
+
+	@Test
+	void testWatchesLeaveStreamsToRequests() throws Exception {
+		// 4 streams, and half of them by default for watches
+		Http2Transport transport = client.getHttp2Transport();
+		String url = "http://127.0.0.1:" + port + "/api/v1/watch/pods";
+		ClassicHttpResponse first = transport.executeWatch(new HttpGet(url), Timeout.ZERO_MILLISECONDS);
+		ClassicHttpResponse second = transport.executeWatch(new HttpGet(url), Timeout.ZERO_MILLISECONDS);
+		assertThrows(IOException.class, () -> transport.executeWatch(new HttpGet(url), Timeout.ZERO_MILLISECONDS));
+		assertEquals(2, transport.getActiveStreams());
+
+		// requests are not blocked by the watches
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(client.submit(() -> client.getResourceByNamespaceAndName("Pod", "default", "busybox")));
+		}
+		for (CompletableFuture<JsonNode> future : futures) {
+			assertEquals("busybox", future.get(10, TimeUnit.SECONDS).get("metadata").get("name").asText());
+		}
+
+		// a closed watch frees its stream for another watch
+		first.close();
+		transport.executeWatch(new HttpGet(url), Timeout.ZERO_MILLISECONDS).close();
+		second.close();
+
+		assertThrows(IllegalArgumentException.class, () -> KubernetesClientOptions.builder()
+				.withHttp2(true).withMaxConcurrentStreams(100).withMaxWatches(100).build());
+		assertEquals(50, KubernetesClientOptions.builder().withHttp2(true).build().getMaxWatches());
+		assertEquals(KubernetesClientOptions.DEFAULT_MAX_WATCHES, KubernetesClientOptions.DEFAULT.getMaxWatches());
+	}
+
+	/**
+	 * serves the discovery documents of MockApiServer, a slow pod, a large list
+	 * and a watch which is kept open
+	 */
+	class Handler implements AsyncServerExchangeHandler {
+
+		ByteBuffer body;
+
+		boolean hold;
+
+		boolean counted;
+
+		@Override
+		public void handleRequest(HttpRequest request, EntityDetails entityDetails, ResponseChannel channel,
+				HttpContext context) {
+			String path = request.getPath();
+			String uri = path.contains("?") ? path.substring(0, path.indexOf('?')) : path;
+			String json;
+			long delay = 0;
+			if (uri.equals("/")) {
+				json = MockApiServer.ROOT;
+			} else if (uri.equals("/api/v1")) {
+				json = MockApiServer.CORE;
+			} else if (uri.equals("/apis/apps/v1")) {
+				json = MockApiServer.APPS;
+			} else if (uri.equals("/apis/apiextensions.k8s.io/v1")) {
+				json = MockApiServer.APIEXTENSIONS;
+			} else if (uri.equals("/api/v1/namespaces/default/pods/busybox")) {
+				json = POD;
+				delay = 50;
+				counted = true;
+				maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+			} else if (uri.equals("/api/v1/namespaces/default/configmaps")) {
+				json = LIST;
+			} else if (uri.equals("/api/v1/watch/pods")) {
+				json = KubernetesWatcherTest.event("ADDED", KubernetesWatcherTest.pod("a", "1"));
+				hold = true;
+			} else {
+				json = "{\"kind\": \"Status\", \"code\": 404}";
+			}
+			body = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+			int code = json.contains("\"code\": 404") ? 404 : 200;
+			scheduler.schedule(() -> {
+				// the request counts as in flight until it is answered
+				done();
+				try {
+					channel.sendResponse(new BasicHttpResponse(code),
+							new BasicEntityDetails(-1, ContentType.APPLICATION_JSON), context);
+				} catch (Exception ex) {
+					failed(ex);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+			capacityChannel.update(Integer.MAX_VALUE);
+		}
+
+		@Override
+		public void consume(ByteBuffer src) {
+		}
+
+		@Override
+		public void streamEnd(List<? extends Header> trailers) {
+		}
+
+		@Override
+		public int available() {
+			return body == null ? 0 : body.remaining();
+		}
+
+		@Override
+		public void produce(DataStreamChannel channel) throws IOException {
+			if (body.hasRemaining()) {
+				channel.write(body);
+			}
+			if (!body.hasRemaining() && !hold) {
+				channel.endStream();
+			}
+		}
+
+		void done() {
+			if (counted) {
+				counted = false;
+				inflight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			done();
+		}
+
+		@Override
+		public void releaseResources() {
+			done();
+		}
+	}
+}
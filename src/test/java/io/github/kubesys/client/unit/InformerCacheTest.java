@@ -0,0 +1,126 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.github.kubesys.client.beans.ObjectMetadata;
+import io.github.kubesys.client.informers.Indexers;
+import io.github.kubesys.client.informers.InformerCache;
+import io.github.kubesys.client.selectors.FieldSelector;
+import io.github.kubesys.client.selectors.LabelSelector;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class InformerCacheTest {
+
+	InformerCache<JsonNode> cache;
+
+	static JsonNode pod(String ns, String name, String node, String app, String owner) throws Exception {
+		return JsonSupport.readTree("{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": {\"name\": \"" + name
+				+ "\", \"namespace\": \"" + ns + "\", \"labels\": {\"app\": \"" + app + "\", \"tier\": \"web\"}, "
+				+ "\"ownerReferences\": [{\"kind\": \"ReplicaSet\", \"uid\": \"" + owner + "\"}]}, "
+				+ "\"spec\": {\"nodeName\": \"" + node + "\", \"containers\": [{\"image\": \"busybox\"}, {\"image\": \"nginx\"}]}}");
+	}
+
+	void put(JsonNode pod) {
+		JsonNode meta = pod.get("metadata");
+		cache.put(InformerCache.key(meta.get("namespace").asText(), meta.get("name").asText()), pod, pod);
+	}
+
+	static Set<String> names(List<JsonNode> pods) {
+		return pods.stream().map(p -> p.get("metadata").get("name").asText()).collect(Collectors.toSet());
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new InformerCache<>();
+		cache.addIndexer(Indexers.NAMESPACE, Indexers.namespace());
+		cache.addIndexer(Indexers.NODE_NAME, Indexers.nodeName());
+		cache.addIndexer(Indexers.OWNER_UID, Indexers.ownerUid());
+		cache.addIndexer(Indexers.LABELS, Indexers.labels());
+		put(pod("default", "a", "node1", "busybox", "rs1"));
+		put(pod("default", "b", "node1", "nginx", "rs2"));
+		put(pod("kube-system", "c", "node2", "busybox", "rs1"));
+	}
+
+	@Test
+	void testByIndex() throws Exception {
+		assertEquals(Set.of("a", "b"), names(cache.byIndex(Indexers.NODE_NAME, "node1")));
+		assertEquals(Set.of("a", "b"), names(cache.byIndex(Indexers.NAMESPACE, "default")));
+		assertEquals(Set.of("a", "c"), names(cache.byIndex(Indexers.OWNER_UID, "rs1")));
+		assertEquals(Set.of("a", "c"), names(cache.byIndex(Indexers.LABELS, Indexers.labelValue("app", "busybox"))));
+		assertEquals(3, cache.byIndex(Indexers.LABELS, "tier=web").size());
+		assertTrue(cache.byIndex(Indexers.NODE_NAME, "node3").isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> cache.byIndex("unknown", "node1"));
+	}
+
+	@Test
+	void testIndexesFollowChanges() throws Exception {
+		// a is moved to node2, b is deleted
+		put(pod("default", "a", "node2", "busybox", "rs1"));
+		cache.remove("default/b");
+
+		assertTrue(cache.byIndex(Indexers.NODE_NAME, "node1").isEmpty());
+		assertTrue(cache.indexKeys(Indexers.OWNER_UID, "rs2").isEmpty());
+		assertEquals(Set.of("a", "c"), names(cache.byIndex(Indexers.NODE_NAME, "node2")));
+		assertEquals(Set.of("a"), names(cache.byIndex(Indexers.NAMESPACE, "default")));
+	}
+
+	@Test
+	void testCustomIndexOnExistingObjects() throws Exception {
+		cache.addIndexer("image", Indexers.field("spec.containers.image"));
+		cache.addIndexer("app", Indexers.label("app"));
+		cache.addIndexer("containers", obj -> List.of(String.valueOf(obj.path("spec").path("containers").size())));
+
+		assertEquals(Set.of("a", "b", "c"), names(cache.byIndex("containers", "2")));
+		assertEquals(Set.of("a", "b", "c"), names(cache.byIndex("image", "nginx")));
+		assertEquals(Set.of("b"), names(cache.byIndex("app", "nginx")));
+		assertThrows(IllegalArgumentException.class, () -> cache.addIndexer("app", Indexers.label("app")));
+	}
+
+	@Test
+	void testSelectTypedObjects() throws Exception {
+		InformerCache<ObjectMetadata> typed = new InformerCache<>();
+		for (JsonNode pod : List.of(pod("default", "a", "node1", "busybox", "rs1"), 
+						pod("default", "b", "node2", "nginx", "rs2"))) {
+			((ObjectNode) pod.get("metadata")).putArray("managedFields").addObject().put("manager", "kubelet");
+			ObjectMetadata meta = ObjectMetadata.from(pod);
+			typed.put(InformerCache.key(meta.getNamespace(), meta.getName()), pod, meta);
+		}
+
+		// spec.nodeName is not in ObjectMetadata, it is kept in the view
+		assertEquals(List.of("b"), typed.list(LabelSelector.parse("app=nginx")).stream()
+						.map(ObjectMetadata::getName).collect(Collectors.toList()));
+		assertEquals(List.of("a"), typed.list(FieldSelector.parse("spec.nodeName=node1,metadata.name=a")).stream()
+						.map(ObjectMetadata::getName).collect(Collectors.toList()));
+
+		JsonNode pod = pod("default", "a", "node1", "busybox", "rs1");
+		((ObjectNode) pod.get("metadata")).putArray("managedFields").addObject().put("manager", "kubelet");
+		JsonNode view = InformerCache.view(pod);
+		assertEquals("node1", view.path("spec").path("nodeName").asText());
+		assertFalse(view.path("spec").has("containers"));
+		assertFalse(view.path("metadata").has("managedFields"));
+
+		typed.remove("default/b");
+		assertTrue(typed.list(LabelSelector.parse("app=nginx")).isEmpty());
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class JsonSupportTest {
+
+	@Test
+	void testSharedInstances() {
+		assertSame(JsonSupport.reader(), JsonSupport.reader());
+		assertSame(JsonSupport.writer(), JsonSupport.writer());
+	}
+	
+	@Test
+	void testJsonAndYaml() throws Exception {
+		JsonNode json = JsonSupport.readTree("{\"kind\": \"Pod\", \"metadata\": {\"name\": \"busybox\"}}");
+		JsonNode yaml = JsonSupport.readYaml(JsonSupport.toYaml(json));
+		assertEquals(json, yaml);
+	}
+	
+	@Test
+	void testEmptyBeans() throws Exception {
+		assertEquals("{}", JsonSupport.toJson(new Object()));
+		assertEquals("v", JsonSupport.valueToTree(Map.of("k", "v")).get("k").asText());
+	}
+}
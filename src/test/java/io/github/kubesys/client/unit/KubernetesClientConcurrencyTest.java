@@ -0,0 +1,104 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+
+/**
+ * N threads should get close to N times the throughput of one thread,
+ * since each request only waits for the (slow) api-server.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesClientConcurrencyTest {
+
+	static final int THREADS = 8;
+
+	static final int REQUESTS = 20;
+
+	static final long LATENCY = 50;
+
+	static MockApiServer server;
+
+	static KubernetesClient client;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		server = new MockApiServer();
+		server.handle("/api/v1/namespaces/default/pods/slow", exchange -> {
+			try {
+				Thread.sleep(LATENCY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			MockApiServer.reply(exchange, 200, "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+					+ "\"metadata\": {\"name\": \"slow\", \"namespace\": \"default\"}}");
+		});
+		// the connections rather than the rate limit are measured
+		client = server.createClient(KubernetesClientOptions.builder().withRateLimit(0, 1).build());
+	}
+
+	@AfterAll
+	static void tearDown() {
+		server.close();
+	}
+
+	@Test
+	void testThroughputScalesWithThreads() throws Exception {
+
+		// warm up the pool
+		run(THREADS, 1);
+
+		long single = run(1, REQUESTS);
+		long multiple = run(THREADS, REQUESTS);
+
+		double speedup = (THREADS * REQUESTS / (double) multiple) / (REQUESTS / (double) single);
+		assertTrue(speedup > THREADS / 2.0, "speedup is only " + speedup);
+		assertTrue(client.getPoolStats().getAvailable() <= THREADS);
+	}
+
+	/**
+	 * @return elapsed nanos
+	 */
+	static long run(int threads, int requests) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			long start = System.nanoTime();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					int ok = 0;
+					for (int j = 0; j < requests; j++) {
+						String name = client.getResourceByNamespaceAndName("Pod", "default", "slow")
+											.get("metadata").get("name").asText();
+						ok += "slow".equals(name) ? 1 : 0;
+					}
+					return ok;
+				}));
+			}
+			for (Future<Integer> future : futures) {
+				assertEquals(requests, future.get());
+			}
+			return System.nanoTime() - start;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesClientOptionsTest {
+
+	@Test
+	void testDefaultsForConcurrentControllers() {
+		KubernetesClientOptions options = KubernetesClientOptions.DEFAULT;
+		assertTrue(options.getMaxPerRoute() >= 32);
+		assertTrue(options.getMaxTotal() >= options.getMaxPerRoute());
+		assertTrue(options.getKeepAlive().toMilliseconds() > 0);
+	}
+	
+	@Test
+	void testBuilder() {
+		KubernetesClientOptions options = KubernetesClientOptions.builder()
+						.withMaxTotal(200)
+						.withMaxPerRoute(100)
+						.withKeepAlive(TimeValue.ofSeconds(30))
+						.build();
+		assertEquals(200, options.getMaxTotal());
+		assertEquals(100, options.getMaxPerRoute());
+		assertEquals(30, options.getKeepAlive().toSeconds());
+	}
+	
+	@Test
+	void testInvalidPoolSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			KubernetesClientOptions.builder().withMaxTotal(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			KubernetesClientOptions.builder().withMaxTotal(10).withMaxPerRoute(20).build();
+		});
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.utils.ThreadUtil;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesClientThreadsTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+			+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\"}}";
+
+	static MockApiServer server;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		server = new MockApiServer();
+		server.json("/api/v1/namespaces/default/pods/busybox", POD);
+		server.json("/api/v1/watch/pods", "{\"type\": \"ADDED\", \"object\": " + POD + "}\n");
+	}
+
+	@AfterAll
+	static void tearDown() {
+		server.close();
+	}
+
+	@Test
+	void testWatcherUsesThreadFactory() throws Exception {
+		AtomicInteger created = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			created.incrementAndGet();
+			return new Thread(r);
+		};
+		KubernetesClient client = server.createClient(
+					KubernetesClientOptions.builder().withThreadFactory(factory).build());
+
+		CountDownLatch added = new CountDownLatch(1);
+		Thread thread = client.watchResources("Pod", new KubernetesWatcher(client) {
+
+			@Override
+			public void doAdded(JsonNode node) {
+				added.countDown();
+			}
+
+			@Override
+			public void doModified(JsonNode node) {
+			}
+
+			@Override
+			public void doDeleted(JsonNode node) {
+			}
+
+			@Override
+			public void doClose() {
+			}
+		});
+
+		assertTrue(added.await(5, TimeUnit.SECONDS));
+		assertEquals(1, created.get());
+		assertEquals("pod-all-namespaces", thread.getName());
+		client.close();
+	}
+
+	@Test
+	void testSubmitOnVirtualThreads() throws Exception {
+		KubernetesClient client = server.createClient(
+					KubernetesClientOptions.builder().withVirtualThreads().build());
+
+		JsonNode pod = client.submit(() -> client.getResourceByNamespaceAndName("Pod", "default", "busybox"))
+						.get(5, TimeUnit.SECONDS);
+		assertEquals("busybox", pod.get("metadata").get("name").asText());
+
+		Thread thread = client.getOptions().getThreadFactory().newThread(() -> { });
+		// virtual threads are always daemon threads, and so is the fallback
+		assertTrue(thread.isDaemon());
+		assertEquals(ThreadUtil.isVirtualThreadSupported(), !thread.getClass().equals(Thread.class));
+		client.close();
+	}
+
+	@Test
+	void testDefaultExecutorUsesDaemonThreads() throws Exception {
+		KubernetesClient client = server.createClient(KubernetesClientOptions.builder().build());
+
+		// the default thread factory creates non-daemon threads for watchers
+		assertTrue(client.submit(() -> Thread.currentThread().isDaemon()).get(5, TimeUnit.SECONDS));
+		client.close();
+	}
+}
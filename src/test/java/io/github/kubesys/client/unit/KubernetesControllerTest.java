@@ -0,0 +1,154 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.QueueMetrics;
+import io.github.kubesys.client.controllers.KubernetesController;
+import io.github.kubesys.client.controllers.WorkQueue;
+import io.github.kubesys.client.utils.RateLimiter;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesControllerTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		release = new CountDownLatch(1);
+		server.json("/api/v1/pods", "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+				+ "\"metadata\": {\"resourceVersion\": \"10\"}, \"items\": ["
+				+ "{\"metadata\": {\"name\": \"a\", \"namespace\": \"default\", \"resourceVersion\": \"1\"}}, "
+				+ "{\"metadata\": {\"name\": \"b\", \"namespace\": \"default\", \"resourceVersion\": \"2\"}}]}");
+		server.handle("/api/v1/watch/pods", exchange -> {
+			String events = KubernetesWatcherTest.event("MODIFIED", KubernetesWatcherTest.pod("a", "11"))
+					+ KubernetesWatcherTest.event("MODIFIED", KubernetesWatcherTest.pod("a", "12"))
+					+ KubernetesWatcherTest.event("MODIFIED", KubernetesWatcherTest.pod("a", "13"));
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(events.getBytes(StandardCharsets.UTF_8));
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close();
+	}
+
+	static void await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 250 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(20);
+		}
+	}
+
+	static WorkQueue<String> queue() {
+		return new WorkQueue<>(new RateLimiter(100, 10), 10, 100, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * records key and resourceVersion, the first reconcile of a waits for the gate,
+	 * and b fails as many times as failures
+	 */
+	static class Recorder extends KubernetesController {
+
+		final List<String> runs = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch gate = new CountDownLatch(1);
+
+		final AtomicInteger failures;
+
+		Recorder(KubernetesClient client, int failures, int maxRetries) {
+			super(client, "Pod", 2, queue(), maxRetries);
+			this.failures = new AtomicInteger(failures);
+		}
+
+		@Override
+		public void reconcile(String key, JsonNode obj) throws Exception {
+			runs.add(key + " " + obj.get("metadata").get("resourceVersion").asText());
+			if (key.equals("default/a")) {
+				gate.await();
+			} else if (failures.getAndDecrement() > 0) {
+				throw new IllegalStateException("failure");
+			}
+		}
+
+		List<String> runsOf(String key) {
+			return runs.stream().filter(r -> r.startsWith(key)).collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	void testCoalesceAndRetry() throws Exception {
+		try (Recorder controller = new Recorder(client, 1, 5)) {
+			controller.start();
+			assertTrue(controller.waitForSync(5, TimeUnit.SECONDS));
+			// the slow reconcile of a does not block the events and other keys
+			await(() -> "13".equals(client.getInformerFactory().informerFor("Pod", JsonNode.class)
+					.get("default", "a").get("metadata").get("resourceVersion").asText()));
+			await(() -> controller.runsOf("default/b").size() == 2);
+			controller.gate.countDown();
+			await(() -> controller.runs.contains("default/a 13"));
+			Thread.sleep(100);
+
+			List<String> runsOfA = controller.runsOf("default/a");
+			assertTrue(runsOfA.size() <= 2, runsOfA.toString());
+			assertEquals("default/a 13", runsOfA.get(runsOfA.size() - 1));
+			assertEquals(List.of("default/b 2", "default/b 2"), controller.runsOf("default/b"));
+
+			QueueMetrics metrics = controller.getMetrics();
+			assertEquals(1, metrics.getRetries());
+			assertTrue(metrics.getCoalesced() >= 2, metrics.toString());
+			assertEquals(0, metrics.getDepth());
+			assertEquals(0, controller.getQueue().numRequeues("default/b"));
+		}
+	}
+
+	@Test
+	void testDropAfterMaxRetries() throws Exception {
+		try (Recorder controller = new Recorder(client, Integer.MAX_VALUE, 2)) {
+			controller.gate.countDown();
+			controller.start();
+			await(() -> controller.runsOf("default/b").size() == 3);
+			Thread.sleep(200);
+			assertEquals(3, controller.runsOf("default/b").size());
+			assertEquals(2, controller.getMetrics().getRetries());
+		}
+	}
+}
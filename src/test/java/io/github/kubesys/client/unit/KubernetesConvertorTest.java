@@ -197,20 +197,20 @@ public class KubernetesConvertorTest {
 	
 	@Test
 	void testValidWatchOneUrlURL() {
-		assertEquals("https://39.100.71.73:6443/api/v1/watch/namespaces/kube-system/pods/testPod?watch=true&timeoutSeconds=315360000", convertor.watchOneUrl("Pod", "kube-system", "testPod"));
-		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/namespaces/kube-system/deployments/testDeploy?watch=true&timeoutSeconds=315360000", convertor.watchOneUrl("apps.Deployment", "kube-system", "testDeploy"));
-		assertEquals("https://39.100.71.73:6443/api/v1/watch/nodes/testNode?watch=true&timeoutSeconds=315360000", convertor.watchOneUrl("Node", "", "testNode"));
-		assertEquals("https://39.100.71.73:6443/apis/networking.k8s.io/v1/watch/ingressclasses/testIngress?watch=true&timeoutSeconds=315360000", convertor.watchOneUrl("networking.k8s.io.IngressClass", "", "testIngress"));
+		assertEquals("https://39.100.71.73:6443/api/v1/watch/namespaces/kube-system/pods/testPod?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchOneUrl("Pod", "kube-system", "testPod"));
+		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/namespaces/kube-system/deployments/testDeploy?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchOneUrl("apps.Deployment", "kube-system", "testDeploy"));
+		assertEquals("https://39.100.71.73:6443/api/v1/watch/nodes/testNode?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchOneUrl("Node", "", "testNode"));
+		assertEquals("https://39.100.71.73:6443/apis/networking.k8s.io/v1/watch/ingressclasses/testIngress?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchOneUrl("networking.k8s.io.IngressClass", "", "testIngress"));
 	}
 	
 	@Test
 	void testValidWatchAllUrlURL() {
-		assertEquals("https://39.100.71.73:6443/api/v1/watch/namespaces/kube-system/pods?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("Pod", "kube-system"));
-		assertEquals("https://39.100.71.73:6443/api/v1/watch/pods?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("Pod", ""));
-		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/namespaces/kube-system/deployments?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("apps.Deployment", "kube-system"));
-		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/deployments?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("apps.Deployment", ""));
-		assertEquals("https://39.100.71.73:6443/api/v1/watch/nodes?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("Node", ""));
-		assertEquals("https://39.100.71.73:6443/apis/networking.k8s.io/v1/watch/ingressclasses?watch=true&timeoutSeconds=315360000", convertor.watchAllUrl("networking.k8s.io.IngressClass", ""));
+		assertEquals("https://39.100.71.73:6443/api/v1/watch/namespaces/kube-system/pods?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("Pod", "kube-system"));
+		assertEquals("https://39.100.71.73:6443/api/v1/watch/pods?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("Pod", ""));
+		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/namespaces/kube-system/deployments?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("apps.Deployment", "kube-system"));
+		assertEquals("https://39.100.71.73:6443/apis/apps/v1/watch/deployments?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("apps.Deployment", ""));
+		assertEquals("https://39.100.71.73:6443/api/v1/watch/nodes?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("Node", ""));
+		assertEquals("https://39.100.71.73:6443/apis/networking.k8s.io/v1/watch/ingressclasses?watch=true&timeoutSeconds=315360000&allowWatchBookmarks=true", convertor.watchAllUrl("networking.k8s.io.IngressClass", ""));
 	}
 	
 }
@@ -0,0 +1,233 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesOperator;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.ResourceDiff;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesOperatorTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	CountDownLatch release;
+
+	List<String> calls;
+
+	AtomicInteger inflight;
+
+	AtomicInteger maxInflight;
+
+	AtomicInteger failures;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		release = new CountDownLatch(1);
+		calls = new CopyOnWriteArrayList<>();
+		inflight = new AtomicInteger();
+		maxInflight = new AtomicInteger();
+		failures = new AtomicInteger();
+		server.handle("/api/v1/namespaces/demo/configmaps", this::record);
+		for (String name : List.of("a", "b", "c", "d", "e", "f", "g", "h")) {
+			server.handle("/api/v1/namespaces/demo/configmaps/" + name, this::record);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close();
+	}
+
+	/**
+	 * records method, path and body, the configmap b exists, the first
+	 * {@link #failures} creations of the configmap e fail
+	 */
+	void record(HttpExchange exchange) throws IOException {
+		maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+		try {
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			calls.add((exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " " + body).trim());
+			Thread.sleep(20);
+			if ("POST".equals(exchange.getRequestMethod()) && body.contains("\"name\":\"b\"")) {
+				MockApiServer.reply(exchange, 409, "{\"kind\": \"Status\", \"code\": 409}");
+			} else if ("POST".equals(exchange.getRequestMethod()) && body.contains("\"name\":\"e\"")
+					&& failures.getAndDecrement() > 0) {
+				MockApiServer.reply(exchange, 500, "{\"kind\": \"Status\", \"code\": 500}");
+			} else {
+				MockApiServer.reply(exchange, 200, body.isEmpty() ? "{\"kind\": \"Status\"}" : body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inflight.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @param events watch events of deployments, the stream is kept open until tearDown
+	 */
+	void watch(String events) {
+		server.handle("/apis/apps/v1/watch/deployments", exchange -> {
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(events.getBytes(StandardCharsets.UTF_8));
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	static String deployment(String rv, String configs) {
+		return "{\"apiVersion\": \"apps/v1\", \"kind\": \"Deployment\", \"metadata\": {\"name\": \"web\", "
+				+ "\"namespace\": \"demo\", \"resourceVersion\": \"" + rv + "\"}, \"spec\": {\"configs\": " + configs + "}}";
+	}
+
+	void await(int expected) throws InterruptedException {
+		for (int i = 0; i < 250 && calls.size() < expected; i++) {
+			Thread.sleep(20);
+		}
+		// no more calls are sent
+		Thread.sleep(100);
+	}
+
+	/**
+	 * generates a configmap for each entry of spec.configs
+	 */
+	static class ConfigOperator extends KubernetesOperator<JsonNode> {
+
+		ConfigOperator(KubernetesClient client, int parallelism) throws Exception {
+			super(client, "apps.Deployment", parallelism);
+		}
+
+		@Override
+		public Map<String, List<JsonNode>> parseFrom(JsonNode deployment) {
+			List<JsonNode> configMaps = new ArrayList<>();
+			Iterator<Map.Entry<String, JsonNode>> configs = deployment.get("spec").get("configs").fields();
+			while (configs.hasNext()) {
+				Map.Entry<String, JsonNode> config = configs.next();
+				ObjectNode configMap = JsonNodeFactory.instance.objectNode();
+				configMap.put("apiVersion", "v1").put("kind", "ConfigMap");
+				configMap.putObject("metadata").put("name", config.getKey()).put("namespace", "demo");
+				configMap.putObject("data").set("value", config.getValue());
+				configMaps.add(configMap);
+			}
+			return Collections.singletonMap("ConfigMap", configMaps);
+		}
+	}
+
+	@Test
+	void testMinimalCalls() throws Exception {
+		watch(KubernetesWatcherTest.event("ADDED", deployment("1", "{\"a\": \"1\", \"b\": \"2\"}"))
+				+ KubernetesWatcherTest.event("MODIFIED", deployment("2", "{\"a\": \"10\", \"c\": \"3\"}"))
+				// nothing is changed for the children
+				+ KubernetesWatcherTest.event("MODIFIED", deployment("3", "{\"a\": \"10\", \"c\": \"3\"}"))
+				+ KubernetesWatcherTest.event("DELETED", deployment("4", "{\"a\": \"10\", \"c\": \"3\"}")));
+
+		new ConfigOperator(client, 1);
+		await(8);
+
+		String a = "{\"apiVersion\":\"v1\",\"kind\":\"ConfigMap\",\"metadata\":{\"name\":\"a\",\"namespace\":\"demo\"},"
+				+ "\"data\":{\"value\":\"1\"}}";
+		String b = a.replace("\"a\"", "\"b\"").replace("\"1\"", "\"2\"");
+		String c = a.replace("\"a\"", "\"c\"").replace("\"1\"", "\"3\"");
+		assertEquals(List.of(
+				"POST /api/v1/namespaces/demo/configmaps " + a,
+				"POST /api/v1/namespaces/demo/configmaps " + b,
+				// b exists, so it is patched
+				"PATCH /api/v1/namespaces/demo/configmaps/b " + b,
+				"DELETE /api/v1/namespaces/demo/configmaps/b",
+				"POST /api/v1/namespaces/demo/configmaps " + c,
+				"PATCH /api/v1/namespaces/demo/configmaps/a {\"data\":{\"value\":\"10\"}}",
+				"DELETE /api/v1/namespaces/demo/configmaps/a",
+				"DELETE /api/v1/namespaces/demo/configmaps/c"), calls);
+	}
+
+	@Test
+	void testParallel() throws Exception {
+		watch(KubernetesWatcherTest.event("ADDED", deployment("1", "{\"c\": \"1\", \"d\": \"2\", \"e\": \"3\", "
+				+ "\"f\": \"4\", \"g\": \"5\", \"h\": \"6\"}")));
+
+		new ConfigOperator(client, 3);
+		await(6);
+
+		assertEquals(6, calls.size());
+		assertEquals(3, maxInflight.get());
+	}
+
+	@Test
+	void testRetryFailedCalls() throws Exception {
+		failures.set(1);
+		watch(KubernetesWatcherTest.event("ADDED", deployment("1", "{\"e\": \"1\", \"f\": \"2\"}"))
+				// the same children, only the failed creation is sent again
+				+ KubernetesWatcherTest.event("MODIFIED", deployment("2", "{\"e\": \"1\", \"f\": \"2\"}"))
+				+ KubernetesWatcherTest.event("MODIFIED", deployment("3", "{\"e\": \"1\", \"f\": \"2\"}")));
+
+		new ConfigOperator(client, 1);
+		await(4);
+
+		String e = "{\"apiVersion\":\"v1\",\"kind\":\"ConfigMap\",\"metadata\":{\"name\":\"e\",\"namespace\":\"demo\"},"
+				+ "\"data\":{\"value\":\"1\"}}";
+		String f = e.replace("\"e\"", "\"f\"").replace("\"1\"", "\"2\"");
+		assertEquals(List.of(
+				"POST /api/v1/namespaces/demo/configmaps " + e,
+				"POST /api/v1/namespaces/demo/configmaps " + f,
+				"POST /api/v1/namespaces/demo/configmaps " + e), calls);
+	}
+
+	@Test
+	void testDiff() throws Exception {
+		JsonNode last = JsonSupport.readTree("{\"kind\":\"ConfigMap\",\"metadata\":{\"name\":\"a\"},"
+				+ "\"data\":{\"x\":\"1\",\"y\":\"2\"},\"list\":[1,2]}");
+		JsonNode current = JsonSupport.readTree("{\"kind\":\"ConfigMap\",\"metadata\":{\"name\":\"a\"},"
+				+ "\"data\":{\"x\":\"1\",\"z\":\"3\"},\"list\":[1,3]}");
+		assertEquals("{\"data\":{\"z\":\"3\",\"y\":null},\"list\":[1,3]}",
+				ResourceDiff.mergePatch(last, current).toString());
+		assertEquals("{}", ResourceDiff.mergePatch(last, last).toString());
+
+		JsonNode other = JsonSupport.readTree("{\"kind\":\"Secret\",\"metadata\":{\"name\":\"a\"}}");
+		ResourceDiff diff = new ResourceDiff(ResourceDiff.index(List.of(last)), ResourceDiff.index(List.of(current, other)));
+		assertEquals(List.of(other), diff.getAdded());
+		assertEquals(1, diff.getChanged().size());
+		assertTrue(diff.getRemoved().isEmpty());
+		assertEquals("ConfigMap//a", ResourceDiff.identity(last));
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesPager;
+import io.github.kubesys.client.exceptions.KubernetesForbiddenAccessException;
+import io.github.kubesys.client.selectors.LabelSelector;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesPagerTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	static String item(String name) {
+		return "{\"metadata\": {\"name\": \"" + name + "\", \"namespace\": \"default\"}}";
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		// three pages, the continue token needs encoding, and the last page has metadata after items
+		server.handle("/api/v1/pods", exchange -> {
+			String query = exchange.getRequestURI().getRawQuery();
+			if (!query.contains("continue=")) {
+				MockApiServer.reply(exchange, 200, "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+						+ "\"metadata\": {\"resourceVersion\": \"10\", \"continue\": \"a+b/=\"}, "
+						+ "\"items\": [" + item("a") + ", " + item("b") + "]}");
+			} else if (query.contains("continue=a%2Bb%2F%3D")) {
+				MockApiServer.reply(exchange, 200, "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+						+ "\"metadata\": {\"resourceVersion\": \"10\", \"continue\": \"2\"}, "
+						+ "\"items\": [" + item("c") + ", " + item("d") + "]}");
+			} else {
+				MockApiServer.reply(exchange, 200, "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+						+ "\"items\": [" + item("e") + "], \"metadata\": {\"resourceVersion\": \"10\"}}");
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.close();
+		server.close();
+	}
+
+	static List<String> names(Stream<JsonNode> items) {
+		return items.map(i -> i.get("metadata").get("name").asText()).collect(Collectors.toList());
+	}
+
+	@Test
+	void testStreamAllPages() throws Exception {
+		try (Stream<JsonNode> items = client.streamResources("Pod", "", null, LabelSelector.parse("app=web"), 2)) {
+			assertEquals(List.of("a", "b", "c", "d", "e"), names(items));
+		}
+		assertEquals(3, server.getRequests().stream().filter(r -> r.startsWith("GET /api/v1/pods")).count());
+		assertTrue(server.getRequests().stream().allMatch(r -> !r.startsWith("GET /api/v1/pods")
+						|| r.contains("limit=2") && r.contains("labelSelector=app%3Dweb")));
+	}
+
+	@Test
+	void testPagesAreLazy() throws Exception {
+		KubernetesPager pager = client.pageResources("Pod", "", null, null, 2);
+		assertEquals(0, pager.getPages());
+		JsonNode first = pager.next();
+		assertEquals("Pod", first.get("kind").asText());
+		assertEquals("v1", first.get("apiVersion").asText());
+		assertEquals("10", pager.getResourceVersion());
+		pager.next();
+		assertEquals(1, pager.getPages());
+
+		// the second page is requested only when it is needed
+		pager.next();
+		assertEquals(2, pager.getPages());
+		pager.close();
+		assertFalse(pager.hasNext());
+		assertEquals(2, pager.getPages());
+	}
+
+	long listRequests() {
+		return server.getRequests().stream().filter(r -> r.startsWith("GET /api/v1/pods")).count();
+	}
+
+	@Test
+	void testPrefetch() throws Exception {
+		try (Stream<JsonNode> items = client.streamResources("Pod", "", null, null, 2, 2)) {
+			assertEquals(List.of("a", "b", "c", "d", "e"), names(items));
+		}
+		assertEquals(3, listRequests());
+	}
+
+	@Test
+	void testPrefetchIsBounded() throws Exception {
+		try (KubernetesPager pager = client.pageResources("Pod", "", null, null, 2, 1)) {
+			assertEquals("a", pager.next().get("metadata").get("name").asText());
+
+			// the second page is requested while the first one is consumed, but not the third
+			for (int i = 0; i < 50 && listRequests() < 2; i++) {
+				Thread.sleep(20);
+			}
+			Thread.sleep(200);
+			assertEquals(2, listRequests());
+
+			assertEquals("b", pager.next().get("metadata").get("name").asText());
+			assertEquals("c", pager.next().get("metadata").get("name").asText());
+			assertEquals("10", pager.getResourceVersion());
+		}
+	}
+
+	@Test
+	void testError() throws Exception {
+		server.handle("/api/v1/pods", exchange -> MockApiServer.reply(exchange, 403, "{\"kind\": \"Status\", \"code\": 403}"));
+		try (Stream<JsonNode> items = client.streamResources("Pod")) {
+			assertThrows(KubernetesForbiddenAccessException.class, () -> items.count());
+		}
+		try (Stream<JsonNode> items = client.streamResources("Pod", "", null, null, 2, 2)) {
+			assertThrows(KubernetesForbiddenAccessException.class, () -> items.count());
+		}
+	}
+}
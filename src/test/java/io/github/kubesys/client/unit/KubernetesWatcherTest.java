@@ -0,0 +1,251 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class KubernetesWatcherTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close();
+	}
+
+	static String pod(String name, String rv) {
+		return "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": {\"name\": \"" + name
+				+ "\", \"namespace\": \"default\", \"resourceVersion\": \"" + rv + "\"}}";
+	}
+
+	static String event(String type, String object) {
+		return "{\"type\": \"" + type + "\", \"object\": " + object + "}\n";
+	}
+
+	void stream(HttpExchange exchange, String events, boolean hold) throws java.io.IOException {
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(events.getBytes(StandardCharsets.UTF_8));
+			os.flush();
+			if (hold) {
+				release.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	void testResumeFromLastResourceVersion() throws Exception {
+		server.handle("/api/v1/watch/pods", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			if (!query.contains("resourceVersion=")) {
+				// the stream is ended by the api-server
+				stream(exchange, event("ADDED", pod("a", "1")) + event("MODIFIED", pod("a", "2")), false);
+			} else {
+				stream(exchange, event("MODIFIED", pod("a", "3")), true);
+			}
+		});
+
+		RecordingWatcher watcher = new RecordingWatcher(client, 3);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		assertTrue(watcher.events.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("ADDED a", "MODIFIED a", "MODIFIED a"), watcher.received);
+		assertTrue(server.getRequests().stream().anyMatch(r -> r.contains("resourceVersion=2")));
+
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		assertFalse(watcher.closed);
+	}
+
+	@Test
+	void testBookmarkMovesResourceVersion() throws Exception {
+		server.handle("/api/v1/watch/pods", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			if (!query.contains("resourceVersion=")) {
+				stream(exchange, event("ADDED", pod("a", "1"))
+						+ event("BOOKMARK", "{\"kind\": \"Pod\", \"apiVersion\": \"v1\", "
+								+ "\"metadata\": {\"resourceVersion\": \"50\"}}"), false);
+			} else {
+				stream(exchange, event("MODIFIED", pod("a", "51")), true);
+			}
+		});
+
+		RecordingWatcher watcher = new RecordingWatcher(client, 2);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		assertTrue(watcher.events.await(5, TimeUnit.SECONDS));
+		// bookmarks are not delivered to handlers
+		assertEquals(List.of("ADDED a", "MODIFIED a"), watcher.received);
+		assertTrue(server.getRequests().stream().anyMatch(r -> r.contains("allowWatchBookmarks=true")));
+		assertTrue(server.getRequests().stream().anyMatch(r -> r.contains("resourceVersion=50")));
+
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+	}
+
+	@Test
+	void testRelistOnGone() throws Exception {
+		server.handle("/api/v1/watch/pods", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			if (!query.contains("resourceVersion=")) {
+				stream(exchange, event("ADDED", pod("a", "1")) + event("ADDED", pod("b", "2")), false);
+			} else if (query.contains("resourceVersion=2")) {
+				// the version is compacted
+				stream(exchange, event("ERROR", "{\"kind\": \"Status\", \"code\": 410, \"reason\": \"Expired\"}"), false);
+			} else {
+				stream(exchange, "", true);
+			}
+		});
+		// two pages, a is modified, b is deleted, c is added
+		server.handle("/api/v1/pods", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			if (!query.contains("continue=")) {
+				MockApiServer.reply(exchange, 200, "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+						+ "\"metadata\": {\"resourceVersion\": \"10\", \"continue\": \"next\"}, "
+						+ "\"items\": [{\"metadata\": {\"name\": \"a\", \"namespace\": \"default\", \"resourceVersion\": \"5\"}}]}");
+			} else {
+				MockApiServer.reply(exchange, 200, "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+						+ "\"metadata\": {\"resourceVersion\": \"10\"}, "
+						+ "\"items\": [{\"metadata\": {\"name\": \"c\", \"namespace\": \"default\", \"resourceVersion\": \"6\"}}]}");
+			}
+		});
+
+		RecordingWatcher watcher = new RecordingWatcher(client, 5);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		assertTrue(watcher.events.await(10, TimeUnit.SECONDS), "received " + watcher.received);
+		assertEquals(List.of("ADDED a", "ADDED b", "MODIFIED a", "ADDED c", "DELETED b"), watcher.received);
+		assertEquals("Pod", watcher.lastDeleted.get("kind").asText());
+		assertEquals("default", watcher.lastDeleted.get("metadata").get("namespace").asText());
+
+		// the watch continues from the version of the list
+		for (int i = 0; i < 50 && server.getRequests().stream().noneMatch(r -> r.contains("resourceVersion=10")); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(server.getRequests().stream().anyMatch(r -> r.contains("resourceVersion=10")));
+
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+	}
+
+	@Test
+	void testCloseOnUnauthorized() throws Exception {
+		server.handle("/api/v1/watch/pods", exchange -> MockApiServer.reply(exchange, 401, "{\"kind\": \"Status\", \"code\": 401}"));
+
+		RecordingWatcher watcher = new RecordingWatcher(client, 0);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		assertTrue(watcher.closed);
+	}
+
+	@Test
+	void testRetryOnForbidden() throws Exception {
+		// the role is bound after the watcher is started
+		AtomicInteger rejections = new AtomicInteger();
+		server.handle("/api/v1/watch/pods", exchange -> {
+			if (rejections.incrementAndGet() <= 2) {
+				MockApiServer.reply(exchange, 403, "{\"kind\": \"Status\", \"code\": 403}");
+			} else {
+				stream(exchange, event("ADDED", pod("a", "1")), true);
+			}
+		});
+
+		RecordingWatcher watcher = new RecordingWatcher(client, 1);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		assertTrue(watcher.events.await(10, TimeUnit.SECONDS));
+		assertFalse(watcher.closed);
+
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+	}
+
+	static class RecordingWatcher extends KubernetesWatcher {
+
+		final List<String> received = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch events;
+
+		volatile JsonNode lastDeleted;
+
+		volatile boolean closed = false;
+
+		RecordingWatcher(KubernetesClient client, int expected) {
+			super(client);
+			this.events = new CountDownLatch(expected);
+		}
+
+		void record(String type, JsonNode node) {
+			received.add(type + " " + node.get("metadata").get("name").asText());
+			events.countDown();
+		}
+
+		@Override
+		public void doAdded(JsonNode node) {
+			record("ADDED", node);
+		}
+
+		@Override
+		public void doModified(JsonNode node) {
+			record("MODIFIED", node);
+		}
+
+		@Override
+		public void doDeleted(JsonNode node) {
+			lastDeleted = node;
+			record("DELETED", node);
+		}
+
+		@Override
+		public void doClose() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
+import io.github.kubesys.client.utils.ManifestReader;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class ManifestReaderTest {
+
+	static String configMap(String name) {
+		return "apiVersion: v1\n"
+				+ "kind: ConfigMap\n"
+				+ "metadata:\n"
+				+ "  name: " + name + "\n"
+				+ "  namespace: default\n"
+				+ "data:\n"
+				+ "  key: value\n";
+	}
+
+	static String bundle(int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append("---\n").append(configMap("cm-" + i));
+		}
+		return sb.toString();
+	}
+
+	static InputStream stream(String yaml) {
+		return new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static List<String> names(Stream<JsonNode> resources) {
+		return resources.map(r -> r.get("metadata").get("name").asText()).collect(Collectors.toList());
+	}
+
+	@Test
+	void testDocuments() throws Exception {
+		String yaml = "# a comment\n"
+				+ configMap("a")
+				+ "---\n"
+				+ "---\n"
+				+ "# only a comment\n"
+				+ "---\n"
+				+ "apiVersion: v1\n"
+				+ "kind: List\n"
+				+ "items:\n"
+				+ "- {apiVersion: v1, kind: ConfigMap, metadata: {name: b}}\n"
+				+ "- {apiVersion: v1, kind: ConfigMap, metadata: {name: c}}\n"
+				+ "---\n"
+				+ "[{\"apiVersion\": \"v1\", \"kind\": \"ConfigMap\", \"metadata\": {\"name\": \"d\"}}]\n";
+
+		try (ManifestReader reader = new ManifestReader(stream(yaml))) {
+			assertEquals(List.of("a", "b", "c", "d"), names(reader.stream()));
+			assertFalse(reader.hasNext());
+		}
+	}
+
+	@Test
+	void testLazy() throws Exception {
+		byte[] bytes = bundle(5000).getBytes(StandardCharsets.UTF_8);
+		AtomicLong read = new AtomicLong();
+		InputStream counting = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				read.addAndGet(Math.max(n, 0));
+				return n;
+			}
+		};
+
+		try (ManifestReader reader = new ManifestReader(counting)) {
+			assertEquals("cm-0", reader.next().get("metadata").get("name").asText());
+			// only a buffer of the stream is read for the first document
+			assertTrue(read.get() < bytes.length / 10, read.get() + " of " + bytes.length);
+			assertEquals(4999, reader.stream().count());
+		}
+		assertEquals(bytes.length, read.get());
+	}
+
+	@Test
+	void testPath(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("bundle.yaml");
+		Files.write(file, bundle(3).getBytes(StandardCharsets.UTF_8));
+		try (ManifestReader reader = new ManifestReader(file)) {
+			assertEquals(List.of("cm-0", "cm-1", "cm-2"), names(reader.stream()));
+		}
+	}
+
+	@Test
+	void testCreateResourcesByYaml() throws Exception {
+		try (MockApiServer server = new MockApiServer()) {
+			server.handle("/api/v1/namespaces/default/configmaps", exchange -> {
+				byte[] body = exchange.getRequestBody().readAllBytes();
+				if (new String(body, StandardCharsets.UTF_8).contains("exists")) {
+					MockApiServer.reply(exchange, 409, "{\"kind\": \"Status\", \"code\": 409}");
+				} else {
+					MockApiServer.reply(exchange, 201, new String(body, StandardCharsets.UTF_8));
+				}
+			});
+			KubernetesClient client = server.createClient();
+			try {
+				int before = server.getRequests().size();
+				try (Stream<JsonNode> created = client.createResourcesByYaml(stream(bundle(3)))) {
+					// nothing is sent until the stream is consumed
+					assertEquals(before, server.getRequests().size());
+					assertEquals(List.of("cm-0", "cm-1", "cm-2"), names(created));
+				}
+				assertEquals(before + 3, server.getRequests().size());
+
+				try (Stream<JsonNode> created = client.createResourcesByYaml(
+						stream(bundle(1) + "---\n" + configMap("exists")))) {
+					assertThrows(KubernetesConflictResourceException.class, () -> created.count());
+				}
+			} finally {
+				client.close();
+			}
+		}
+	}
+}
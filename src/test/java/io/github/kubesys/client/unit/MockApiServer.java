@@ -0,0 +1,139 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.kubesys.client.KubernetesAnalyzer;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+
+/**
+ * A tiny in-process api-server, it serves the discovery documents for
+ * some core, apps and apiextensions kinds, and the handlers registered by tests.
+ *
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+public class MockApiServer implements AutoCloseable {
+
+	static final String ROOT = "{\"paths\": [\"/api/v1\", \"/apis/apps/v1\", \"/apis/apiextensions.k8s.io/v1\"]}";
+
+	static final String CORE = "{\"kind\": \"APIResourceList\", \"groupVersion\": \"v1\", \"resources\": ["
+			+ resource("Pod", "pods", true) + ","
+			+ resource("ConfigMap", "configmaps", true) + ","
+			+ resource("Secret", "secrets", true) + ","
+			+ resource("Service", "services", true) + ","
+			+ resource("ServiceAccount", "serviceaccounts", true) + ","
+			+ resource("Node", "nodes", false) + ","
+			+ resource("Namespace", "namespaces", false) + "]}";
+
+	static final String APPS = "{\"kind\": \"APIResourceList\", \"groupVersion\": \"apps/v1\", \"resources\": ["
+			+ resource("Deployment", "deployments", true) + "]}";
+
+	static final String APIEXTENSIONS = "{\"kind\": \"APIResourceList\", \"groupVersion\": \"apiextensions.k8s.io/v1\", \"resources\": ["
+			+ resource("CustomResourceDefinition", "customresourcedefinitions", false) + "]}";
+
+	protected final HttpServer server;
+
+	protected final ExecutorService executor = Executors.newCachedThreadPool();
+
+	protected final Map<String, HttpHandler> handlers = new ConcurrentHashMap<>();
+
+	protected final Queue<String> requests = new ConcurrentLinkedQueue<>();
+
+	public MockApiServer() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(executor);
+		this.server.createContext("/", this::dispatch);
+		json("/", ROOT);
+		json("/api/v1", CORE);
+		json("/apis/apps/v1", APPS);
+		json("/apis/apiextensions.k8s.io/v1", APIEXTENSIONS);
+		this.server.start();
+	}
+
+	static String resource(String kind, String name, boolean namespaced) {
+		return "{\"name\": \"" + name + "\", \"kind\": \"" + kind + "\", \"namespaced\": " + namespaced
+				+ ", \"verbs\": [\"create\", \"delete\", \"get\", \"list\", \"patch\", \"update\", \"watch\"]}";
+	}
+
+	/**
+	 * @param path  path without query
+	 * @param body  json returned with 200
+	 */
+	public void json(String path, String body) {
+		handle(path, exchange -> reply(exchange, 200, body));
+	}
+
+	/**
+	 * @param path    path without query
+	 * @param handler handler
+	 */
+	public void handle(String path, HttpHandler handler) {
+		handlers.put(path, handler);
+	}
+
+	/**
+	 * @return method and uri of all received requests
+	 */
+	public Queue<String> getRequests() {
+		return requests;
+	}
+
+	public String getUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public KubernetesClient createClient() throws Exception {
+		return createClient(KubernetesClientOptions.DEFAULT);
+	}
+
+	public KubernetesClient createClient(KubernetesClientOptions options) throws Exception {
+		return new KubernetesClient(getUrl(), "token", new KubernetesAnalyzer(), options);
+	}
+
+	public static void reply(HttpExchange exchange, int code, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	protected void dispatch(HttpExchange exchange) throws IOException {
+		requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+		HttpHandler handler = handlers.get(exchange.getRequestURI().getPath());
+		if (handler == null) {
+			reply(exchange, 404, "{\"kind\": \"Status\", \"code\": 404}");
+			return;
+		}
+		try {
+			handler.handle(exchange);
+		} catch (IOException ex) {
+			exchange.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.ObjectMetadata;
+import io.github.kubesys.client.informers.Indexers;
+import io.github.kubesys.client.informers.SharedInformer;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class ObjectMetadataTest {
+
+	static final String META = "{\"name\": \"web-1\", \"namespace\": \"default\", \"uid\": \"u1\", "
+			+ "\"resourceVersion\": \"5\", \"generation\": 2, \"labels\": {\"app\": \"web\"}, "
+			+ "\"annotations\": {\"kubectl.kubernetes.io/last-applied-configuration\": \"{...}\", \"note\": \"x\"}, "
+			+ "\"ownerReferences\": [{\"apiVersion\": \"apps/v1\", \"kind\": \"ReplicaSet\", \"name\": \"web\", "
+			+ "\"uid\": \"rs1\", \"controller\": true}], \"managedFields\": [{\"manager\": \"kubectl\"}]}";
+
+	static final String PARTIAL = "{\"apiVersion\": \"meta.k8s.io/v1\", \"kind\": \"PartialObjectMetadata\", \"metadata\": " + META + "}";
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close();
+	}
+
+	static boolean acceptsMetadata(HttpExchange exchange, String as) {
+		String accept = exchange.getRequestHeaders().getFirst("Accept");
+		return accept != null && accept.contains("as=" + as + ";g=meta.k8s.io;v=v1");
+	}
+
+	@Test
+	void testFromObject() throws Exception {
+		JsonNode pod = JsonSupport.readTree("{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": " + META
+						+ ", \"spec\": {\"nodeName\": \"node1\"}}");
+		ObjectMetadata meta = ObjectMetadata.from(pod);
+		assertEquals("web-1", meta.getName());
+		assertEquals(2, meta.getGeneration());
+		assertEquals("web", meta.getLabels().get("app"));
+		assertEquals(List.of("note"), List.copyOf(meta.getAnnotations().keySet()));
+		assertTrue(meta.getOwnerReferences().get(0).isController());
+
+		// serialized as an object with only metadata
+		JsonNode json = JsonSupport.valueToTree(meta);
+		assertEquals("Pod", json.get("kind").asText());
+		assertEquals("rs1", json.get("metadata").get("ownerReferences").get(0).get("uid").asText());
+		assertFalse(json.has("spec"));
+		assertFalse(json.get("metadata").has("managedFields"));
+	}
+
+	@Test
+	void testListMetadata() throws Exception {
+		server.handle("/api/v1/pods", exchange -> MockApiServer.reply(exchange, 
+				acceptsMetadata(exchange, "PartialObjectMetadataList") ? 200 : 406,
+				"{\"apiVersion\": \"meta.k8s.io/v1\", \"kind\": \"PartialObjectMetadataList\", "
+						+ "\"metadata\": {\"resourceVersion\": \"9\"}, \"items\": [" + PARTIAL + "]}"));
+
+		List<ObjectMetadata> items = client.listResourcesMetadata("Pod", "");
+		assertEquals(1, items.size());
+		assertEquals("PartialObjectMetadata", items.get(0).getKind());
+		assertEquals("u1", items.get(0).getUid());
+	}
+
+	@Test
+	void testMetadataInformer() throws Exception {
+		server.handle("/api/v1/pods", exchange -> MockApiServer.reply(exchange,
+				acceptsMetadata(exchange, "PartialObjectMetadataList") ? 200 : 406,
+				"{\"apiVersion\": \"meta.k8s.io/v1\", \"kind\": \"PartialObjectMetadataList\", "
+						+ "\"metadata\": {\"resourceVersion\": \"9\"}, \"items\": []}"));
+		server.handle("/api/v1/watch/pods", exchange -> {
+			if (!acceptsMetadata(exchange, "PartialObjectMetadata")) {
+				MockApiServer.reply(exchange, 406, "");
+				return;
+			}
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(("{\"type\": \"ADDED\", \"object\": " + PARTIAL + "}\n").getBytes(StandardCharsets.UTF_8));
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		SharedInformer<ObjectMetadata> informer = client.getInformerFactory().metadataInformerFor("Pod", null);
+		assertNotSame(informer, client.getInformerFactory().informerFor("Pod", JsonNode.class));
+		informer.addIndexer(Indexers.OWNER_UID, Indexers.ownerUid());
+		informer.start();
+		assertTrue(informer.waitForSync(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 50 && informer.list().isEmpty(); i++) {
+			Thread.sleep(100);
+		}
+		assertEquals("web-1", informer.get("default", "web-1").getName());
+		assertEquals(1, informer.byIndex(Indexers.OWNER_UID, "rs1").size());
+	}
+}
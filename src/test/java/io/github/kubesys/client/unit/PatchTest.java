@@ -0,0 +1,119 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.PatchType;
+import io.github.kubesys.client.exceptions.KubernetesConflictResourceException;
+import io.github.kubesys.client.utils.JsonSupport;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class PatchTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	List<String> calls;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		calls = new CopyOnWriteArrayList<>();
+		server.handle("/apis/apps/v1/namespaces/demo/deployments/web", this::record);
+		server.handle("/apis/apps/v1/namespaces/demo/deployments/web/status", this::record);
+		server.handle("/api/v1/nodes/node1", this::record);
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.close();
+		server.close();
+	}
+
+	/**
+	 * records method, path, Content-Type and body, and replies the body
+	 */
+	void record(HttpExchange exchange) throws IOException {
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		calls.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+				+ exchange.getRequestHeaders().getFirst("Content-Type") + " " + body);
+		if (body.contains("conflict")) {
+			MockApiServer.reply(exchange, 409, "{\"kind\": \"Status\", \"code\": 409}");
+		} else {
+			MockApiServer.reply(exchange, 200, "{\"kind\": \"Deployment\", \"patched\": true}");
+		}
+	}
+
+	@Test
+	void testPatchTypes() throws Exception {
+		String merge = "{\"metadata\":{\"labels\":{\"app\":\"web\"}}}";
+		String json = "[{\"op\":\"replace\",\"path\":\"/spec/replicas\",\"value\":3}]";
+
+		JsonNode result = client.patchResource("apps.Deployment", "demo", "web", PatchType.MERGE, merge);
+		assertEquals(true, result.get("patched").asBoolean());
+		client.patchResource("Deployment", "demo", "web", PatchType.STRATEGIC_MERGE, JsonSupport.readTree(merge));
+		client.patchResource("Deployment", "demo", "web", PatchType.JSON, json);
+
+		assertEquals(List.of(
+				"PATCH /apis/apps/v1/namespaces/demo/deployments/web application/merge-patch+json; charset=UTF-8 " + merge,
+				"PATCH /apis/apps/v1/namespaces/demo/deployments/web application/strategic-merge-patch+json; charset=UTF-8 " + merge,
+				"PATCH /apis/apps/v1/namespaces/demo/deployments/web application/json-patch+json; charset=UTF-8 " + json),
+				calls);
+	}
+
+	@Test
+	void testPatchStatusAndClusterScoped() throws Exception {
+		String status = "{\"status\":{\"readyReplicas\":1}}";
+		client.patchResourceStatus("Deployment", "demo", "web", PatchType.MERGE, status);
+		client.patchResource("Node", "", "node1", PatchType.MERGE, "{\"spec\":{\"unschedulable\":true}}");
+
+		assertEquals("PATCH /apis/apps/v1/namespaces/demo/deployments/web/status "
+				+ "application/merge-patch+json; charset=UTF-8 " + status, calls.get(0));
+		assertEquals(true, calls.get(1).startsWith("PATCH /api/v1/nodes/node1 "));
+	}
+
+	@Test
+	void testConflict() throws Exception {
+		String patch = "[{\"op\":\"test\",\"path\":\"/metadata/name\",\"value\":\"conflict\"}]";
+		assertThrows(KubernetesConflictResourceException.class,
+				() -> client.patchResource("Deployment", "demo", "web", PatchType.JSON, patch));
+	}
+
+	@Test
+	void testAsync() throws Exception {
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			JsonNode patch = JsonSupport.readTree("{\"spec\":{\"replicas\":2}}");
+			assertEquals(true, async.patchResource("Deployment", "demo", "web", PatchType.STRATEGIC_MERGE, patch)
+					.get(10, TimeUnit.SECONDS).get("patched").asBoolean());
+			async.patchResourceStatus("Deployment", "demo", "web", PatchType.MERGE, patch).get(10, TimeUnit.SECONDS);
+		}
+		assertEquals(List.of(
+				"PATCH /apis/apps/v1/namespaces/demo/deployments/web application/strategic-merge-patch+json; charset=UTF-8 {\"spec\":{\"replicas\":2}}",
+				"PATCH /apis/apps/v1/namespaces/demo/deployments/web/status application/merge-patch+json; charset=UTF-8 {\"spec\":{\"replicas\":2}}"),
+				calls);
+	}
+}
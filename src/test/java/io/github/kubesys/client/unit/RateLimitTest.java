@@ -0,0 +1,190 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.github.kubesys.client.AsyncKubernetesClient;
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.exceptions.KubernetesUnknownException;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.RequestLimiter;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class RateLimitTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+			+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\"}}";
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	AtomicInteger calls = new AtomicInteger();
+
+	/**
+	 * the first failures requests of pods fail with the code
+	 */
+	void start(KubernetesClientOptions options, int code, int failures) throws Exception {
+		server = new MockApiServer();
+		client = server.createClient(options);
+		for (String path : new String[] {"/api/v1/namespaces/default/pods", "/api/v1/namespaces/default/pods/busybox"}) {
+			server.handle(path, exchange -> reply(exchange, code, failures));
+		}
+	}
+
+	void reply(HttpExchange exchange, int code, int failures) throws IOException {
+		if (calls.incrementAndGet() <= failures) {
+			exchange.getResponseHeaders().set("Retry-After", "0");
+			MockApiServer.reply(exchange, code, "{\"kind\": \"Status\", \"code\": " + code + "}");
+		} else {
+			MockApiServer.reply(exchange, 200, POD);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (server != null) {
+			client.close();
+			server.close();
+		}
+	}
+
+	static KubernetesClientOptions.Builder unlimited() {
+		return KubernetesClientOptions.builder().withRateLimit(0, 1).withRetries(2, TimeValue.ofMilliseconds(10));
+	}
+
+	@Test
+	void testGlobalLimit() throws Exception {
+		start(KubernetesClientOptions.builder().withRateLimit(20, 1).build(), 200, 0);
+		client.getResourceByNamespaceAndName("Pod", "default", "busybox");
+		long start = System.nanoTime();
+		for (int i = 0; i < 4; i++) {
+			client.getResourceByNamespaceAndName("Pod", "default", "busybox");
+		}
+		// a token comes every 50ms
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(elapsed >= 180, "elapsed " + elapsed + " ms");
+	}
+
+	@Test
+	void testVerbAndKindLimits() throws Exception {
+		start(unlimited().withVerbRateLimit("create", 10, 1).withKindRateLimit("ConfigMap", 10, 1).build(), 200, 0);
+		RequestLimiter limiter = client.getRequestLimiter();
+		String pods = server.getUrl() + "/api/v1/namespaces/default/pods";
+		String configMap = server.getUrl() + "/api/v1/namespaces/default/configmaps/config?timeout=10s";
+
+		assertEquals(0, limiter.reserve("POST", pods));
+		assertTrue(limiter.reserve("POST", pods) > 0);
+		// other verbs of pods are not limited
+		assertEquals(0, limiter.reserve("GET", pods + "/busybox"));
+		assertEquals(0, limiter.reserve("DELETE", pods + "/busybox"));
+
+		// all verbs of configmaps are limited
+		assertEquals(0, limiter.reserve("GET", configMap));
+		assertTrue(limiter.reserve("PUT", configMap) > 0);
+
+		long start = System.nanoTime();
+		client.createResource(JsonSupport.readTree(POD));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+		assertThrows(IllegalArgumentException.class, 
+				() -> KubernetesClientOptions.builder().withVerbRateLimit("watch", 1, 1));
+	}
+
+	@Test
+	void testRetryAfter() throws Exception {
+		start(unlimited().build(), 429, 2);
+		// a throttled request is not executed, so a create is sent again
+		JsonNode pod = client.createResource(JsonSupport.readTree(POD));
+		assertEquals("busybox", pod.get("metadata").get("name").asText());
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void testUnavailable() throws Exception {
+		start(unlimited().build(), 503, Integer.MAX_VALUE);
+		// a create may be executed, so it is not sent again
+		assertThrows(KubernetesUnknownException.class, () -> client.createResource(JsonSupport.readTree(POD)));
+		assertEquals(1, calls.get());
+
+		// a get is sent maxRetries times again
+		assertThrows(KubernetesUnknownException.class, () -> client.getResourceByNamespaceAndName("Pod", "default", "busybox"));
+		assertEquals(4, calls.get());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void testPodLog() throws Exception {
+		start(unlimited().build(), 429, 0);
+		server.handle("/api/v1/namespaces/default/pods/busybox/log", exchange -> {
+			if (calls.incrementAndGet() == 1) {
+				exchange.getResponseHeaders().set("Retry-After", "0");
+				MockApiServer.reply(exchange, 429, "{\"kind\": \"Status\", \"code\": 429}");
+			} else {
+				MockApiServer.reply(exchange, 200, "started\n");
+			}
+		});
+		assertEquals("started\n", client.getPodLog("default", "busybox"));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void testAsync() throws Exception {
+		start(unlimited().build(), 429, 5);
+		try (AsyncKubernetesClient async = new AsyncKubernetesClient(client)) {
+			// retries are exhausted
+			ExecutionException ex = assertThrows(ExecutionException.class, 
+					() -> async.getResource("Pod", "default", "busybox").get(5, TimeUnit.SECONDS));
+			assertInstanceOf(KubernetesUnknownException.class, ex.getCause());
+			assertEquals(3, calls.get());
+
+			assertEquals("busybox", async.getResource("Pod", "default", "busybox")
+					.get(5, TimeUnit.SECONDS).get("metadata").get("name").asText());
+			assertEquals(6, calls.get());
+		}
+	}
+
+	@Test
+	void testParse() {
+		assertEquals("/apis/apps/v1/deployments", RequestLimiter.resource("https://host:6443/apis/apps/v1/namespaces/demo/deployments/web/status"));
+		assertEquals("/api/v1/namespaces", RequestLimiter.resource("/api/v1/namespaces/demo"));
+		assertEquals("/api/v1/pods", RequestLimiter.resource("/api/v1/watch/namespaces/demo/pods?watch=true"));
+		assertNull(RequestLimiter.resource("/apis/apps/v1"));
+
+		assertEquals("list", RequestLimiter.verb("GET", "/api/v1/pods?limit=500"));
+		assertEquals("get", RequestLimiter.verb("GET", "/api/v1/namespaces/demo/pods/busybox"));
+		assertEquals("watch", RequestLimiter.verb("GET", "/api/v1/namespaces/demo/pods?watch=true"));
+		assertEquals("deletecollection", RequestLimiter.verb("DELETE", "/api/v1/namespaces/demo/pods"));
+		assertEquals("delete", RequestLimiter.verb("DELETE", "/api/v1/namespaces/demo"));
+
+		long interval = TimeUnit.SECONDS.toNanos(1);
+		assertEquals(TimeUnit.SECONDS.toNanos(2), RequestLimiter.retryAfter(429, "POST", "2", interval));
+		assertEquals(interval, RequestLimiter.retryAfter(503, "GET", null, interval));
+		assertEquals(RequestLimiter.MAX_RETRY_AFTER, RequestLimiter.retryAfter(429, "GET", "3600", interval));
+		assertEquals(-1, RequestLimiter.retryAfter(503, "PATCH", "1", interval));
+		assertEquals(-1, RequestLimiter.retryAfter(500, "GET", "1", interval));
+	}
+}
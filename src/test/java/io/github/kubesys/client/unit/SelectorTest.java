@@ -0,0 +1,79 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.selectors.FieldSelector;
+import io.github.kubesys.client.selectors.LabelSelector;
+import io.github.kubesys.client.utils.JsonSupport;
+import io.github.kubesys.client.utils.URLUtil;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class SelectorTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": {\"name\": \"web-1\", "
+			+ "\"namespace\": \"default\", \"labels\": {\"app\": \"web\", \"env\": \"prod\"}}, "
+			+ "\"spec\": {\"nodeName\": \"node1\", \"priority\": 10}, \"status\": {\"phase\": \"Running\"}}";
+
+	@Test
+	void testLabelSelector() throws Exception {
+		JsonNode pod = JsonSupport.readTree(POD);
+		assertTrue(LabelSelector.parse("app=web").test(pod));
+		assertTrue(LabelSelector.parse("app==web, env in (prod, staging)").test(pod));
+		assertTrue(LabelSelector.parse("app!=api,release notin (canary),!legacy,env").test(pod));
+		assertTrue(LabelSelector.parse("").test(pod));
+		assertFalse(LabelSelector.parse("app=api").test(pod));
+		assertFalse(LabelSelector.parse("env notin (prod)").test(pod));
+		assertFalse(LabelSelector.parse("tier in (web)").test(pod));
+		assertFalse(LabelSelector.parse("!app").test(pod));
+		assertFalse(LabelSelector.parse("release").test(pod));
+
+		assertTrue(LabelSelector.parse("env in (prod,staging)").matches(Map.of("env", "staging")));
+		assertThrows(IllegalArgumentException.class, () -> LabelSelector.parse("env in (prod"));
+		assertThrows(IllegalArgumentException.class, () -> LabelSelector.parse("app=web,,env"));
+	}
+
+	@Test
+	void testFieldSelector() throws Exception {
+		JsonNode pod = JsonSupport.readTree(POD);
+		assertTrue(FieldSelector.parse("spec.nodeName=node1,status.phase!=Pending").test(pod));
+		assertTrue(FieldSelector.parse("spec.priority==10").test(pod));
+		assertTrue(FieldSelector.parse("spec.schedulerName=").test(pod));
+		assertFalse(FieldSelector.parse("metadata.namespace!=default").test(pod));
+		assertTrue(FieldSelector.fromMap(Map.of("metadata.name", "web-1")).test(pod));
+		assertThrows(IllegalArgumentException.class, () -> FieldSelector.parse("spec.nodeName"));
+	}
+
+	@Test
+	void testQueryParam() throws Exception {
+		assertEquals("env in (prod,staging),!legacy", LabelSelector.parse("env  in  (prod, staging), !legacy").toString());
+		assertEquals("env+in+%28prod%2Cstaging%29%2C%21legacy", LabelSelector.parse("env in (prod,staging),!legacy").toQueryParam());
+		assertEquals("app%3Da%26b", URLUtil.fromMap(Map.of("app", "a&b")));
+
+		try (MockApiServer server = new MockApiServer()) {
+			server.json("/api/v1/namespaces/default/pods", "{\"kind\": \"PodList\", \"items\": []}");
+			KubernetesClient client = server.createClient();
+			client.listResources("Pod", "default", FieldSelector.parse("status.phase=Running"),
+								LabelSelector.parse("app in (web)"));
+			assertTrue(server.getRequests().stream().anyMatch(r -> r.contains(
+								"fieldSelector=status.phase%3DRunning&labelSelector=app+in+%28web%29")));
+			client.close();
+		}
+	}
+}
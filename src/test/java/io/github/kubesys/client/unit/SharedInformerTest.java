@@ -0,0 +1,144 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.informers.ResourceEventHandler;
+import io.github.kubesys.client.informers.SharedInformer;
+import io.github.kubesys.client.informers.SharedInformerFactory;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class SharedInformerTest {
+
+	MockApiServer server;
+
+	KubernetesClient client;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		client = server.createClient();
+		release = new CountDownLatch(1);
+		server.json("/api/v1/pods", "{\"kind\": \"PodList\", \"apiVersion\": \"v1\", "
+				+ "\"metadata\": {\"resourceVersion\": \"10\"}, \"items\": ["
+				+ "{\"metadata\": {\"name\": \"a\", \"namespace\": \"default\", \"resourceVersion\": \"1\"}}, "
+				+ "{\"metadata\": {\"name\": \"b\", \"namespace\": \"default\", \"resourceVersion\": \"2\"}}]}");
+		// the watch starts from the version of the list
+		server.handle("/api/v1/watch/pods", exchange -> {
+			String events = exchange.getRequestURI().getQuery().contains("resourceVersion=10")
+					? KubernetesWatcherTest.event("MODIFIED", KubernetesWatcherTest.pod("a", "11"))
+						+ KubernetesWatcherTest.event("DELETED", KubernetesWatcherTest.pod("b", "12"))
+						+ KubernetesWatcherTest.event("ADDED", KubernetesWatcherTest.pod("c", "13"))
+					: "";
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(events.getBytes(StandardCharsets.UTF_8));
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.close();
+		server.close();
+	}
+
+	@Test
+	void testListThenWatch() throws Exception {
+		SharedInformer<JsonNode> informer = client.getInformerFactory().informerFor("Pod", JsonNode.class);
+		RecordingHandler handler = new RecordingHandler(5);
+		informer.addEventHandler(handler);
+		assertFalse(informer.hasSynced());
+
+		informer.start();
+		assertTrue(informer.waitForSync(5, TimeUnit.SECONDS));
+		assertTrue(handler.events.await(5, TimeUnit.SECONDS), "received " + handler.received);
+		assertEquals(List.of("add a", "add b", "update a", "delete b", "add c"), handler.received);
+
+		assertEquals(2, informer.list().size());
+		assertEquals("11", informer.get("default", "a").get("metadata").get("resourceVersion").asText());
+		assertEquals("Pod", informer.get("default", "c").get("kind").asText());
+		assertNull(informer.get("default", "b"));
+	}
+
+	@Test
+	void testSharedByKind() throws Exception {
+		SharedInformerFactory factory = client.getInformerFactory();
+		SharedInformer<JsonNode> informer = factory.informerFor("Pod", JsonNode.class);
+		assertSame(informer, factory.informerFor("Pod", JsonNode.class));
+		assertThrows(IllegalArgumentException.class, () -> factory.informerFor("Pod", String.class));
+
+		factory.startAll();
+		assertSame(informer.start(), informer.start());
+		assertTrue(factory.waitForCacheSync(5, TimeUnit.SECONDS));
+
+		// a late handler receives the cached objects
+		RecordingHandler late = new RecordingHandler(2);
+		informer.addEventHandler(late);
+		assertTrue(late.events.await(5, TimeUnit.SECONDS));
+		assertEquals(1, server.getRequests().stream().filter(r -> r.startsWith("GET /api/v1/pods")).count());
+	}
+
+	static class RecordingHandler implements ResourceEventHandler<JsonNode> {
+
+		final List<String> received = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch events;
+
+		RecordingHandler(int expected) {
+			this.events = new CountDownLatch(expected);
+		}
+
+		void record(String type, JsonNode node) {
+			received.add(type + " " + node.get("metadata").get("name").asText());
+			events.countDown();
+		}
+
+		@Override
+		public void onAdd(JsonNode obj) {
+			record("add", obj);
+		}
+
+		@Override
+		public void onUpdate(JsonNode oldObj, JsonNode newObj) {
+			record("update", newObj);
+		}
+
+		@Override
+		public void onDelete(JsonNode obj) {
+			record("delete", obj);
+		}
+	}
+}
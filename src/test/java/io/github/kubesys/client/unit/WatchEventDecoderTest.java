@@ -0,0 +1,87 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.kubesys.client.watchers.WatchEvent;
+import io.github.kubesys.client.watchers.WatchEventDecoder;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class WatchEventDecoderTest {
+
+	static final String POD = "{\"apiVersion\": \"v1\", \"kind\": \"Pod\", \"metadata\": {\"name\": \"busybox\", "
+			+ "\"namespace\": \"default\", \"resourceVersion\": \"7\"}, \"spec\": {\"containers\": [{\"name\": \"busybox\"}]}}";
+
+	static WatchEventDecoder decoder(String stream, boolean metadataOnly) throws IOException {
+		return new WatchEventDecoder(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)), metadataOnly);
+	}
+
+	@Test
+	void testConcatenatedEvents() throws Exception {
+		// frames are not required to be separated by newlines
+		try (WatchEventDecoder decoder = decoder("{\"type\": \"ADDED\", \"object\": " + POD + "}"
+					+ "{\"type\":\"DELETED\",\"object\":" + POD + "}\n\n", false)) {
+			WatchEvent added = decoder.next();
+			assertEquals("ADDED", added.getType());
+			assertEquals("7", added.getResourceVersion());
+			assertEquals("busybox", added.getObject().get("spec").get("containers").get(0).get("name").asText());
+			assertEquals("DELETED", decoder.next().getType());
+			assertNull(decoder.next());
+		}
+	}
+
+	@Test
+	void testMetadataOnly() throws Exception {
+		try (WatchEventDecoder decoder = decoder("{\"type\": \"MODIFIED\", \"object\": " + POD + "}\n"
+					+ "{\"type\": \"ERROR\", \"object\": {\"kind\": \"Status\", \"code\": 410}}\n", true)) {
+			WatchEvent modified = decoder.next();
+			assertEquals("Pod", modified.getObject().get("kind").asText());
+			assertEquals("busybox", modified.getObject().get("metadata").get("name").asText());
+			assertFalse(modified.getObject().has("spec"));
+			// errors are always complete
+			assertEquals(410, decoder.next().getObject().get("code").asInt());
+		}
+	}
+
+	@Test
+	void testBookmark() throws Exception {
+		try (WatchEventDecoder decoder = decoder("{\"type\": \"BOOKMARK\", \"object\": {\"kind\": \"Pod\", "
+					+ "\"metadata\": {\"resourceVersion\": \"50\"}, \"spec\": {}}}", false)) {
+			WatchEvent bookmark = decoder.next();
+			assertEquals("50", bookmark.getResourceVersion());
+			assertFalse(bookmark.getObject().has("spec"));
+		}
+	}
+
+	@Test
+	void testObjectBeforeType() throws Exception {
+		try (WatchEventDecoder decoder = decoder("{\"object\": " + POD + ", \"type\": \"ADDED\"}", true)) {
+			WatchEvent added = decoder.next();
+			assertEquals("ADDED", added.getType());
+			assertTrue(added.getObject().has("spec"));
+		}
+	}
+
+	@Test
+	void testInvalidFrame() throws Exception {
+		try (WatchEventDecoder decoder = decoder("[1, 2]", false)) {
+			assertThrows(IOException.class, decoder::next);
+		}
+	}
+}
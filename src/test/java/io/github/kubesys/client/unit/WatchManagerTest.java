@@ -0,0 +1,166 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.github.kubesys.client.KubernetesClient;
+import io.github.kubesys.client.KubernetesWatcher;
+import io.github.kubesys.client.beans.KubernetesClientOptions;
+import io.github.kubesys.client.exceptions.KubernetesConnectionException;
+import io.github.kubesys.client.utils.ReqUtil;
+import io.github.kubesys.client.watchers.WatchManager;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class WatchManagerTest {
+
+	static final String EVENT = "{\"type\": \"ADDED\", \"object\": {\"apiVersion\": \"v1\", \"kind\": \"Pod\", "
+			+ "\"metadata\": {\"name\": \"busybox\", \"namespace\": \"default\", \"resourceVersion\": \"7\"}}}\n";
+
+	MockApiServer server;
+
+	CountDownLatch release;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new MockApiServer();
+		release = new CountDownLatch(1);
+		// sends one event, then keeps the stream open
+		server.handle("/api/v1/watch/pods", exchange -> {
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(EVENT.getBytes(StandardCharsets.UTF_8));
+				os.flush();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		server.close();
+	}
+
+	@Test
+	void testWatchesShareOnePool() throws Exception {
+		KubernetesClient client = server.createClient();
+		CountDownLatch added = new CountDownLatch(3);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			threads.add(client.watchResources("Pod", new CountingWatcher(client, added)));
+		}
+
+		assertTrue(added.await(5, TimeUnit.SECONDS));
+		WatchManager manager = client.getWatchManager();
+		assertEquals(3, manager.getActiveWatches());
+		assertEquals(3, manager.getPoolStats().getLeased());
+		// watches do not use the pool for get, list and update
+		assertEquals(0, client.getPoolStats().getLeased());
+
+		client.close();
+		for (Thread thread : threads) {
+			thread.join(5000);
+			assertFalse(thread.isAlive());
+		}
+		assertEquals(0, manager.getActiveWatches());
+	}
+
+	@Test
+	void testStopOneWatcher() throws Exception {
+		KubernetesClient client = server.createClient();
+		CountDownLatch added = new CountDownLatch(1);
+		KubernetesWatcher watcher = new CountingWatcher(client, added);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		assertTrue(added.await(5, TimeUnit.SECONDS));
+		watcher.stop();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		assertEquals(0, client.getWatchManager().getActiveWatches());
+		client.close();
+	}
+
+	@Test
+	void testMaxWatches() throws Exception {
+		KubernetesClient client = server.createClient(KubernetesClientOptions.builder()
+					.withMaxWatches(1).build());
+		String url = server.getUrl() + "/api/v1/watch/pods";
+		try (WatchManager.Stream stream = client.getWatchManager().open(
+							ReqUtil.get(client.getKubernetesAdminConfig(), url))) {
+			assertEquals(200, stream.getCode());
+			assertThrows(KubernetesConnectionException.class, () -> client.getWatchManager().open(
+							ReqUtil.get(client.getKubernetesAdminConfig(), url)));
+		}
+		client.close();
+	}
+
+	@Test
+	void testIdleStreamIsReopened() throws Exception {
+		KubernetesClient client = server.createClient(KubernetesClientOptions.builder()
+					.withWatchIdleTimeout(Timeout.ofMilliseconds(300)).build());
+		CountDownLatch added = new CountDownLatch(2);
+		KubernetesWatcher watcher = new CountingWatcher(client, added);
+		Thread thread = client.watchResources("Pod", watcher);
+
+		// the idle stream is closed, and the watcher resumes from the last resourceVersion
+		assertTrue(added.await(10, TimeUnit.SECONDS));
+		assertEquals("7", watcher.getResourceVersion());
+		assertTrue(server.getRequests().stream().anyMatch(r -> r.contains("resourceVersion=7")));
+
+		client.close();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+	}
+
+	static class CountingWatcher extends KubernetesWatcher {
+
+		final CountDownLatch added;
+
+		CountingWatcher(KubernetesClient client, CountDownLatch added) {
+			super(client);
+			this.added = added;
+		}
+
+		@Override
+		public void doAdded(JsonNode node) {
+			added.countDown();
+		}
+
+		@Override
+		public void doModified(JsonNode node) {
+		}
+
+		@Override
+		public void doDeleted(JsonNode node) {
+		}
+
+		@Override
+		public void doClose() {
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (2024, ) Institute of Software, Chinese Academy of Sciences
+ */
+package io.github.kubesys.client.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.kubesys.client.beans.QueueMetrics;
+import io.github.kubesys.client.controllers.WorkQueue;
+import io.github.kubesys.client.utils.RateLimiter;
+
+/**
+ * @author wuheng@iscas.ac.cn
+ * @since  1.3.2
+ *
+ */
+class WorkQueueTest {
+
+	static WorkQueue<String> queue() {
+		return new WorkQueue<>(new RateLimiter(0, 1), 20, 1000, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	void testCoalesce() throws Exception {
+		WorkQueue<String> queue = queue();
+		queue.add("a");
+		queue.add("b");
+		queue.add("a");
+		assertEquals(2, queue.length());
+
+		assertEquals("a", queue.take());
+		assertEquals("b", queue.take());
+		queue.done("a");
+		queue.done("b");
+
+		QueueMetrics metrics = queue.getMetrics();
+		assertEquals(3, metrics.getAdds());
+		assertEquals(1, metrics.getCoalesced());
+		assertEquals(2, metrics.getProcessed());
+		assertEquals(0, metrics.getDepth());
+	}
+
+	@Test
+	void testNotProcessedTwiceAtOnce() throws Exception {
+		WorkQueue<String> queue = queue();
+		queue.add("a");
+		assertEquals("a", queue.take());
+
+		// it waits until the worker is done
+		queue.add("a");
+		assertEquals(0, queue.length());
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return queue.take();
+			} catch (InterruptedException e) {
+				return null;
+			}
+		});
+		Thread.sleep(50);
+		assertFalse(second.isDone());
+
+		queue.done("a");
+		assertEquals("a", second.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testBackoff() throws Exception {
+		WorkQueue<String> queue = queue();
+		long[] delays = new long[3];
+		for (int i = 0; i < delays.length; i++) {
+			long start = System.nanoTime();
+			queue.addRateLimited("a");
+			assertEquals("a", queue.take());
+			delays[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			queue.done("a");
+		}
+		assertEquals(3, queue.numRequeues("a"));
+		assertTrue(delays[0] >= 20 && delays[1] >= 40 && delays[2] >= 80, delays[0] + " " + delays[1] + " " + delays[2]);
+		assertEquals(3, queue.getMetrics().getRetries());
+
+		queue.forget("a");
+		assertEquals(0, queue.numRequeues("a"));
+	}
+
+	@Test
+	void testEarlierDelayWins() throws Exception {
+		WorkQueue<String> queue = queue();
+		queue.addAfter("a", 10, TimeUnit.SECONDS);
+		queue.addAfter("a", 20, TimeUnit.MILLISECONDS);
+		queue.addAfter("a", 5, TimeUnit.SECONDS);
+		assertEquals("a", queue.take());
+		queue.done("a");
+		Thread.sleep(50);
+		assertEquals(0, queue.length());
+		assertEquals(1, queue.getMetrics().getAdds());
+	}
+
+	@Test
+	void testShutDown() throws Exception {
+		WorkQueue<String> queue = queue();
+		CompletableFuture<String> worker = CompletableFuture.supplyAsync(() -> {
+			try {
+				return queue.take();
+			} catch (InterruptedException e) {
+				return "interrupted";
+			}
+		});
+		queue.addAfter("a", 10, TimeUnit.SECONDS);
+		queue.shutDown();
+		assertNull(worker.get(1, TimeUnit.SECONDS));
+		queue.add("b");
+		assertNull(queue.take());
+		assertTrue(queue.isShuttingDown());
+	}
+
+	@Test
+	void testRateLimiter() throws Exception {
+		RateLimiter limiter = new RateLimiter(10, 2);
+		assertEquals(0, limiter.reserve());
+		assertEquals(0, limiter.reserve());
+		// the next tokens come every 100ms
+		long third = TimeUnit.NANOSECONDS.toMillis(limiter.reserve());
+		long fourth = TimeUnit.NANOSECONDS.toMillis(limiter.reserve());
+		assertTrue(third > 90 && third <= 100, "" + third);
+		assertTrue(fourth > 190 && fourth <= 200, "" + fourth);
+		assertFalse(limiter.tryAcquire());
+
+		assertTrue(new RateLimiter(0, 1).tryAcquire());
+		assertEquals(0, new RateLimiter(0, 1).reserve());
+	}
+}